@@ -0,0 +1,97 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.event;
+
+import net.minecraftforge.eventbus.api.BusBuilder;
+import net.minecraftforge.eventbus.api.Event;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.IEventBus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares posting an event to listeners registered with {@link EventBus}
+ * and with a Forge event bus, which is what {@code MinecraftForge.EVENT_BUS} uses.
+ * A new Forge bus is built because the game bus stays shut down until Forge starts it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBusBenchmark {
+
+	public static class CocoEvent {
+		private int value;
+	}
+
+	public static class ForgeEvent extends Event {
+		private int value;
+	}
+
+	public static class Listener {
+
+		@Subscribe
+		public void onEvent(CocoEvent event) {
+			event.value++;
+		}
+	}
+
+	@Param({ "1", "10" })
+	public int listeners;
+
+	private EventBus cocoBus;
+	private EventBus cocoAnnotatedBus;
+	private IEventBus forgeBus;
+
+	@Setup
+	public void setup() {
+
+		cocoBus = new EventBus("benchmark");
+		cocoAnnotatedBus = new EventBus("benchmark");
+		forgeBus = BusBuilder.builder().build();
+
+		for (int i = 0; i < listeners; i++)
+		{
+			cocoBus.addListener(CocoEvent.class, event -> event.value++);
+			cocoAnnotatedBus.register(new Listener());
+			forgeBus.addListener(EventPriority.NORMAL, false, ForgeEvent.class, event -> event.value++);
+		}
+	}
+
+	@Benchmark
+	public int cocoPost() {
+		return cocoBus.post(new CocoEvent()).value;
+	}
+
+	@Benchmark
+	public int cocoPostAnnotated() {
+		return cocoAnnotatedBus.post(new CocoEvent()).value;
+	}
+
+	@Benchmark
+	public int forgePost() {
+
+		ForgeEvent event = new ForgeEvent();
+		forgeBus.post(event);
+		return event.value;
+	}
+
+	@Benchmark
+	public boolean cocoHasListeners() {
+		return cocoBus.hasListeners(Object.class);
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.lang;
+
+import net.minecraft.util.math.MathHelper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link FastMath} and {@link Easing} with {@code java.lang.Math} and vanilla
+ * {@code MathHelper}. Each operation evaluates the function for {@value #COUNT} inputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(FastMathBenchmark.COUNT)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastMathBenchmark {
+
+	static final int COUNT = 1024;
+
+	private final float[] angles = new float[COUNT];
+	private final float[] positives = new float[COUNT];
+	private final float[] progress = new float[COUNT];
+
+	@Setup
+	public void setup() {
+
+		Random random = new Random(42);
+		for (int i = 0; i < COUNT; i++)
+		{
+			angles[i] = (random.nextFloat() - 0.5f) * 100;
+			positives[i] = random.nextFloat() * 1000 + 0.001f;
+			progress[i] = random.nextFloat();
+		}
+	}
+
+	@Benchmark
+	public void sinMath(Blackhole blackhole) {
+
+		for (float angle : angles) {
+			blackhole.consume((float) Math.sin(angle));
+		}
+	}
+
+	@Benchmark
+	public void sinMathHelper(Blackhole blackhole) {
+
+		for (float angle : angles) {
+			blackhole.consume(MathHelper.sin(angle));
+		}
+	}
+
+	@Benchmark
+	public void sinFastMath(Blackhole blackhole) {
+
+		for (float angle : angles) {
+			blackhole.consume(FastMath.sin(angle));
+		}
+	}
+
+	@Benchmark
+	public void invSqrtMath(Blackhole blackhole) {
+
+		for (float value : positives) {
+			blackhole.consume((float) (1 / Math.sqrt(value)));
+		}
+	}
+
+	@Benchmark
+	public void invSqrtMathHelper(Blackhole blackhole) {
+
+		for (float value : positives) {
+			blackhole.consume((float) MathHelper.fastInvSqrt(value));
+		}
+	}
+
+	@Benchmark
+	public void invSqrtFastMath(Blackhole blackhole) {
+
+		for (float value : positives) {
+			blackhole.consume(FastMath.invSqrt(value));
+		}
+	}
+
+	@Benchmark
+	public void lerpMathHelper(Blackhole blackhole) {
+
+		for (float t : progress) {
+			blackhole.consume(MathHelper.lerp(t, 10f, 250f));
+		}
+	}
+
+	@Benchmark
+	public void lerpFastMath(Blackhole blackhole) {
+
+		for (float t : progress) {
+			blackhole.consume(FastMath.lerp(10f, 250f, t));
+		}
+	}
+
+	@Benchmark
+	public void lerpFixed(Blackhole blackhole) {
+
+		int from = FastMath.toFixed(10f), to = FastMath.toFixed(250f);
+		for (float t : progress) {
+			blackhole.consume(FastMath.lerpFixed(from, to, FastMath.toFixed(t)));
+		}
+	}
+
+	@Benchmark
+	public void easingMath(Blackhole blackhole) {
+
+		for (float t : progress) {
+			blackhole.consume(Easing.CUBIC_IN_OUT.applyExact(t));
+		}
+	}
+
+	@Benchmark
+	public void easingTable(Blackhole blackhole) {
+
+		for (float t : progress) {
+			blackhole.consume(Easing.CUBIC_IN_OUT.apply(t));
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.lang;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares bulk array methods of {@link MathTools} and their parallel variants with
+ * loops that call the scalar methods for each element, as callers did before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathToolsBenchmark {
+
+	private static final int MIN = 32, MAX = 200;
+
+	@Param({ "1024", "65536", "1048576" })
+	public int size;
+
+	private int[] ints;
+	private float[] floats;
+	private double[] percentages;
+
+	@Setup
+	public void setup() {
+
+		Random random = new Random(42);
+		ints = new int[size];
+		floats = new float[size];
+		percentages = new double[size];
+		for (int i = 0; i < size; i++)
+		{
+			ints[i] = random.nextInt(256);
+			floats[i] = random.nextFloat() * 256;
+		}
+	}
+
+	@Benchmark
+	public int[] clampScalar() {
+
+		for (int i = 0; i < ints.length; i++) {
+			ints[i] = MathTools.getValueInRange(ints[i], MIN, MAX);
+		}
+		return ints;
+	}
+
+	@Benchmark
+	public int[] clampBulk() {
+
+		MathTools.setValuesInRange(ints, MIN, MAX);
+		return ints;
+	}
+
+	@Benchmark
+	public int[] clampParallel() {
+
+		MathTools.parallelSetValuesInRange(ints, MIN, MAX);
+		return ints;
+	}
+
+	@Benchmark
+	public int countScalar() {
+
+		int count = 0;
+		for (int value : ints)
+		{
+			if (MathTools.isValueInRange(value, MIN, MAX)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int countBulk() {
+		return MathTools.countValuesInRange(ints, MIN, MAX);
+	}
+
+	@Benchmark
+	public int countParallel() {
+		return MathTools.parallelCountValuesInRange(ints, MIN, MAX);
+	}
+
+	@Benchmark
+	public double[] percentagesScalar() {
+
+		for (int i = 0; i < ints.length; i++) {
+			percentages[i] = MathTools.getPercentage(ints[i], 255);
+		}
+		return percentages;
+	}
+
+	@Benchmark
+	public double[] percentagesBulk() {
+
+		MathTools.getPercentages(ints, 255, percentages);
+		return percentages;
+	}
+
+	@Benchmark
+	public double[] percentagesParallel() {
+
+		MathTools.parallelGetPercentages(ints, 255, percentages);
+		return percentages;
+	}
+
+	@Benchmark
+	public long sumIntBulk() {
+		return MathTools.sum(ints);
+	}
+
+	@Benchmark
+	public long sumIntParallel() {
+		return MathTools.parallelSum(ints);
+	}
+
+	@Benchmark
+	public double sumFloatBulk() {
+		return MathTools.sum(floats);
+	}
+
+	@Benchmark
+	public double sumFloatParallel() {
+		return MathTools.parallelSum(floats);
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.serialize;
+
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTSizeTracker;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing and reading an object with a {@link Schema} against an equivalent
+ * {@code CompoundNBT} serialized with {@code CompressedStreamTools}, as vanilla does for
+ * saved data. The {@link SchemaNBT} bridge is measured the same way as the NBT baseline,
+ * so both include the cost of the NBT stream around the data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchemaBenchmark {
+
+	static final class Claim {
+
+		int owner;
+		long created;
+		boolean locked;
+		String name;
+		long[] chunks;
+	}
+
+	private static final Schema<Claim> SCHEMA = Schema.builder(Claim::new, 1)
+			.varInt(c -> c.owner, (c, v) -> c.owner = v)
+			.varLong(c -> c.created, (c, v) -> c.created = v)
+			.bool(c -> c.locked, (c, v) -> c.locked = v)
+			.string(c -> c.name, (c, v) -> c.name = v)
+			.longArray(c -> c.chunks, (c, v) -> c.chunks = v)
+			.build();
+
+	@Param({ "4", "256" })
+	public int chunks;
+
+	private Claim claim;
+	private ByteBuffer buffer;
+
+	private byte[] schemaBytes;
+	private byte[] bridgeBytes;
+	private byte[] nbtBytes;
+
+	@Setup
+	public void setup() throws IOException {
+
+		Random random = new Random(42);
+		claim = new Claim();
+		claim.owner = 1234;
+		claim.created = 1589000000000L;
+		claim.name = "Spawn claim";
+		claim.chunks = new long[chunks];
+		for (int i = 0; i < chunks; i++) {
+			claim.chunks[i] = random.nextInt(64) | (long) random.nextInt(64) << 32;
+		}
+		buffer = ByteBuffer.allocate(64 + chunks * 10);
+		schemaBytes = SCHEMA.toByteArray(claim);
+
+		CompoundNBT bridge = new CompoundNBT();
+		SchemaNBT.write(SCHEMA, claim, bridge, "claim");
+		bridgeBytes = toBytes(bridge);
+		nbtBytes = toBytes(writeNBT(claim));
+	}
+
+	private static CompoundNBT writeNBT(Claim claim) {
+
+		CompoundNBT compound = new CompoundNBT();
+		compound.putInt("owner", claim.owner);
+		compound.putLong("created", claim.created);
+		compound.putBoolean("locked", claim.locked);
+		compound.putString("name", claim.name);
+		compound.putLongArray("chunks", claim.chunks);
+		return compound;
+	}
+
+	private static Claim readNBT(CompoundNBT compound) {
+
+		Claim claim = new Claim();
+		claim.owner = compound.getInt("owner");
+		claim.created = compound.getLong("created");
+		claim.locked = compound.getBoolean("locked");
+		claim.name = compound.getString("name");
+		claim.chunks = compound.getLongArray("chunks");
+		return claim;
+	}
+
+	private static byte[] toBytes(CompoundNBT compound) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		CompressedStreamTools.write(compound, new DataOutputStream(bytes));
+		return bytes.toByteArray();
+	}
+
+	private static CompoundNBT fromBytes(byte[] bytes) throws IOException {
+		return CompressedStreamTools.read(new DataInputStream(new ByteArrayInputStream(bytes)), NBTSizeTracker.INFINITE);
+	}
+
+	@Benchmark
+	public ByteBuffer schemaWriteBuffer() {
+
+		buffer.clear();
+		SCHEMA.write(claim, buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public byte[] schemaWrite() {
+		return SCHEMA.toByteArray(claim);
+	}
+
+	@Benchmark
+	public Claim schemaRead() {
+		return SCHEMA.fromByteArray(schemaBytes);
+	}
+
+	@Benchmark
+	public byte[] bridgeWrite() throws IOException {
+
+		CompoundNBT compound = new CompoundNBT();
+		SchemaNBT.write(SCHEMA, claim, compound, "claim");
+		return toBytes(compound);
+	}
+
+	@Benchmark
+	public Claim bridgeRead() throws IOException {
+		return SchemaNBT.read(SCHEMA, fromBytes(bridgeBytes), "claim");
+	}
+
+	@Benchmark
+	public byte[] nbtWrite() throws IOException {
+		return toBytes(writeNBT(claim));
+	}
+
+	@Benchmark
+	public Claim nbtRead() throws IOException {
+		return readNBT(fromBytes(nbtBytes));
+	}
+}
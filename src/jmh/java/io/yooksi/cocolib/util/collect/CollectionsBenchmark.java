@@ -0,0 +1,136 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.util.collect;
+
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Long2ObjectMap} and {@link Long2IntMap} with boxed {@code HashMap}
+ * keyed by {@code Long}, using packed block positions from a {@code 32x32} chunk area.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionsBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int size;
+
+	private long[] keys;
+	private final Object value = new Object();
+
+	private Long2ObjectMap<Object> primitiveMap;
+	private Map<Long, Object> boxedMap;
+
+	@Setup
+	public void setup() {
+
+		Random random = new Random(42);
+		keys = new long[size];
+		primitiveMap = new Long2ObjectMap<>();
+		boxedMap = new HashMap<>();
+		for (int i = 0; i < size; i++)
+		{
+			keys[i] = BlockPos.pack(random.nextInt(512), random.nextInt(256), random.nextInt(512));
+			primitiveMap.put(keys[i], value);
+			boxedMap.put(keys[i], value);
+		}
+	}
+
+	@Benchmark
+	public Long2ObjectMap<Object> putPrimitive() {
+
+		Long2ObjectMap<Object> map = new Long2ObjectMap<>();
+		for (long key : keys) {
+			map.put(key, value);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public Map<Long, Object> putBoxed() {
+
+		Map<Long, Object> map = new HashMap<>();
+		for (long key : keys) {
+			map.put(key, value);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public void getPrimitive(Blackhole blackhole) {
+
+		for (long key : keys) {
+			blackhole.consume(primitiveMap.get(key));
+		}
+	}
+
+	@Benchmark
+	public void getBoxed(Blackhole blackhole) {
+
+		for (long key : keys) {
+			blackhole.consume(boxedMap.get(key));
+		}
+	}
+
+	@Benchmark
+	public long iteratePrimitive() {
+
+		long sum = 0;
+		for (int slot = primitiveMap.nextSlot(-1); slot >= 0; slot = primitiveMap.nextSlot(slot)) {
+			sum += primitiveMap.keyAt(slot);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long iterateBoxed() {
+
+		long sum = 0;
+		for (Map.Entry<Long, Object> entry : boxedMap.entrySet()) {
+			sum += entry.getKey();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public Long2IntMap countPrimitive() {
+
+		Long2IntMap map = new Long2IntMap();
+		for (long key : keys) {
+			map.addTo(key >> 8, 1);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public Map<Long, Integer> countBoxed() {
+
+		Map<Long, Integer> map = new HashMap<>();
+		for (long key : keys) {
+			map.merge(key >> 8, 1, Integer::sum);
+		}
+		return map;
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.world;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries for {@code 200} players against {@code 100,000} objects spread across a
+ * {@code 4096x4096} block area, compared with scanning every object for each player.
+ * Each operation runs the query for all players.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatialHashBenchmark {
+
+	private static final int OBJECTS = 100_000;
+	private static final int PLAYERS = 200;
+	private static final int AREA = 4096;
+
+	@Param({ "16", "64" })
+	public double radius;
+
+	private final SpatialHash<Object> hash = new SpatialHash<>();
+	private final Object[] objects = new Object[OBJECTS];
+	private final double[] coords = new double[OBJECTS * 3];
+	private final double[] players = new double[PLAYERS * 3];
+	private Random random;
+
+	@Setup
+	public void setup() {
+
+		random = new Random(42);
+		for (int i = 0; i < OBJECTS; i++)
+		{
+			objects[i] = new Object();
+			coords[i * 3] = random.nextDouble() * AREA;
+			coords[i * 3 + 1] = random.nextDouble() * 256;
+			coords[i * 3 + 2] = random.nextDouble() * AREA;
+			hash.put(objects[i], coords[i * 3], coords[i * 3 + 1], coords[i * 3 + 2]);
+		}
+		for (int i = 0; i < PLAYERS * 3; i++) {
+			players[i] = random.nextDouble() * (i % 3 == 1 ? 256 : AREA);
+		}
+	}
+
+	@Benchmark
+	public int radiusQuery() {
+
+		int[] count = new int[1];
+		for (int i = 0; i < PLAYERS; i++) {
+			hash.forEachInRadius(players[i * 3], players[i * 3 + 1], players[i * 3 + 2], radius, o -> count[0]++);
+		}
+		return count[0];
+	}
+
+	@Benchmark
+	public int radiusBruteForce() {
+
+		int count = 0;
+		double radiusSq = radius * radius;
+		for (int i = 0; i < PLAYERS; i++)
+		{
+			double x = players[i * 3], y = players[i * 3 + 1], z = players[i * 3 + 2];
+			for (int j = 0; j < OBJECTS; j++)
+			{
+				double dx = coords[j * 3] - x, dy = coords[j * 3 + 1] - y, dz = coords[j * 3 + 2] - z;
+				if (dx * dx + dy * dy + dz * dz <= radiusSq) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int nearestQuery() {
+
+		int count = 0;
+		for (int i = 0; i < PLAYERS; i++) {
+			count += hash.getNearest(players[i * 3], players[i * 3 + 1], players[i * 3 + 2], 8, radius).size();
+		}
+		return count;
+	}
+
+	/**
+	 * Move one percent of objects by up to a block in each direction, as mobs do in a tick.
+	 */
+	@Benchmark
+	public int moveObjects() {
+
+		for (int n = 0; n < OBJECTS / 100; n++)
+		{
+			int i = random.nextInt(OBJECTS);
+			coords[i * 3] += random.nextDouble() * 2 - 1;
+			coords[i * 3 + 2] += random.nextDouble() * 2 - 1;
+			hash.put(objects[i], coords[i * 3], coords[i * 3 + 1], coords[i * 3 + 2]);
+		}
+		return hash.size();
+	}
+}
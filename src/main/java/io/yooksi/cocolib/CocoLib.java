@@ -13,8 +13,22 @@
  */
 package io.yooksi.cocolib;
 
+import io.yooksi.cocolib.gui.RenderStateCache;
+import io.yooksi.cocolib.setup.SetupRegistry;
+import io.yooksi.cocolib.setup.StartupProfiler;
+import io.yooksi.cocolib.util.GameClock;
+import io.yooksi.cocolib.util.ModTickProfiler;
+import io.yooksi.cocolib.util.ResourceIndexReloadListener;
+import io.yooksi.cocolib.util.ServerJobQueue;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.fml.DistExecutor;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
+import net.minecraftforge.fml.event.server.FMLServerStartedEvent;
+import net.minecraftforge.fml.event.server.FMLServerStartingEvent;
+import net.minecraftforge.fml.event.server.FMLServerStoppedEvent;
 import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
 import org.apache.logging.log4j.LogManager;
 
@@ -28,11 +42,60 @@ public class CocoLib {
 		// Initialize mod logger
 		CocoLogger.init(LogManager.getLogger());
 
+		// Profile mod loading phases when requested
+		if (StartupProfiler.isEnabled()) {
+			StartupProfiler.install();
+		}
+
 		// Register the setup method for modloading
 		FMLJavaModLoadingContext.get().getModEventBus().addListener(this::setup);
+
+		// Register server lifecycle listeners
+		MinecraftForge.EVENT_BUS.addListener(this::onServerTick);
+		MinecraftForge.EVENT_BUS.addListener(this::onServerStarting);
+		MinecraftForge.EVENT_BUS.addListener(this::onServerStarted);
+		MinecraftForge.EVENT_BUS.addListener(this::onServerStopped);
+
+		// Index client resources on each resource reload
+		DistExecutor.runWhenOn(Dist.CLIENT, () -> ResourceIndexReloadListener::register);
+
+		// Track render state changes made by CocoLib on each frame
+		DistExecutor.runWhenOn(Dist.CLIENT, () -> RenderStateCache::register);
 	}
 
 	private void setup(final FMLCommonSetupEvent event) {
+
 		CocoLogger.info("CocoLib pre-initialized");
+		SetupRegistry.execute();
+	}
+
+	private void onServerTick(final TickEvent.ServerTickEvent event) {
+
+		if (event.phase == TickEvent.Phase.START) {
+			GameClock.SERVER.getSampler().recordTick();
+		}
+		else ServerJobQueue.SERVER.drain();
+	}
+
+	private void onServerStarting(final FMLServerStartingEvent event) {
+		ModTickProfiler.registerCommand(event.getCommandDispatcher());
+	}
+
+	private void onServerStarted(final FMLServerStartedEvent event) {
+
+		// Wrap tick listeners once all mods had a chance to register them
+		if (ModTickProfiler.isEnabled()) {
+			ModTickProfiler.install();
+		}
+	}
+
+	private void onServerStopped(final FMLServerStoppedEvent event) {
+
+		GameClock.SERVER.getSampler().reset();
+		ModTickProfiler.reset();
+		int discarded = ServerJobQueue.SERVER.clear();
+		if (discarded > 0) {
+			CocoLogger.debug("Discarded %d server jobs left in queue", discarded);
+		}
 	}
 }
@@ -13,7 +13,6 @@
  */
 package io.yooksi.cocolib;
 
-import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Contract;
 
@@ -57,7 +56,7 @@ public final class CocoLogger {
 	}
 
 	public static void error(String log, Object... args) {
-		logger.printf(Level.ERROR, String.format(log, args));
+		logger.error(String.format(log, args));
 	}
 
 	public static void error(String log, Throwable t) {
@@ -69,7 +68,7 @@ public final class CocoLogger {
 	}
 
 	public static void warn(String log, Object... args) {
-		logger.warn(log, String.format(log, args));
+		logger.warn(String.format(log, args));
 	}
 
 	public static void debug(String log) {
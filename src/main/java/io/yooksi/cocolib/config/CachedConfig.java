@@ -0,0 +1,306 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.config;
+
+import net.minecraftforge.common.ForgeConfigSpec;
+import net.minecraftforge.fml.ModLoadingContext;
+import net.minecraftforge.fml.config.ModConfig;
+import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <p>
+ *     Caches values of a {@link ForgeConfigSpec} so they can be read in hot paths.
+ * <p>
+ *     Reading {@code ConfigValue.get()} looks the value up in the underlying config tree on
+ *     every call. Values bound to this class are instead resolved into a snapshot of plain arrays
+ *     each time the config loads or reloads. The new snapshot is published atomically, so all
+ *     values read from the same snapshot are consistent, and reading a value from a holder
+ *     costs a single {@code volatile} read and an array load.
+ * </p>
+ * <pre>{@code
+ * ForgeConfigSpec.Builder builder = new ForgeConfigSpec.Builder();
+ * CachedConfig config = new CachedConfig();
+ * CachedConfig.IntHolder radius = config.bind(builder.defineInRange("radius", 8, 1, 64));
+ * CachedConfig.BooleanHolder enabled = config.bind(builder.define("enabled", true));
+ * config.register(ModConfig.Type.COMMON, builder.build());
+ * }</pre>
+ */
+public class CachedConfig {
+
+	private final List<Binding> bindings = new ArrayList<>();
+	private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+	private int primitiveCount, doubleCount, objectCount;
+
+	private @Nullable ForgeConfigSpec spec;
+	private volatile @Nullable Snapshot snapshot;
+
+	/**
+	 * Register the given config spec for the mod that is currently being constructed
+	 * and refresh cached values each time the config loads or reloads. This method
+	 * has to be called from the mod constructor after all values have been bound.
+	 *
+	 * @throws IllegalStateException if a config spec has already been registered.
+	 */
+	public void register(ModConfig.Type type, ForgeConfigSpec spec) {
+
+		setSpec(spec);
+		ModLoadingContext.get().registerConfig(type, spec);
+		FMLJavaModLoadingContext.get().getModEventBus().addListener(this::onConfigEvent);
+	}
+
+	/**
+	 * @param fileName name of the config file relative to the config directory.
+	 * @see #register(ModConfig.Type, ForgeConfigSpec)
+	 */
+	public void register(ModConfig.Type type, ForgeConfigSpec spec, String fileName) {
+
+		setSpec(spec);
+		ModLoadingContext.get().registerConfig(type, spec, fileName);
+		FMLJavaModLoadingContext.get().getModEventBus().addListener(this::onConfigEvent);
+	}
+
+	private synchronized void setSpec(ForgeConfigSpec spec) {
+
+		if (this.spec != null) {
+			throw new IllegalStateException("Config spec has already been registered");
+		}
+		this.spec = spec;
+	}
+
+	private void onConfigEvent(final ModConfig.ModConfigEvent event) {
+
+		if (event.getConfig().getSpec() == spec) {
+			refresh();
+		}
+	}
+
+	/**
+	 * Resolve all bound values, publish them as a new snapshot and notify listeners.
+	 * This is done automatically when the config loads or reloads, which may happen
+	 * on the config file watcher thread.
+	 */
+	public synchronized void refresh() {
+
+		Snapshot next = new Snapshot(primitiveCount, doubleCount, objectCount);
+		for (Binding binding : bindings) {
+			binding.resolve(next);
+		}
+		snapshot = next;
+		for (Runnable listener : listeners) {
+			listener.run();
+		}
+	}
+
+	/**
+	 * Add a listener notified each time a new snapshot is published.
+	 * Listeners run on the thread that loaded the config.
+	 */
+	public void addListener(Runnable listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * @return {@code true} if config values have been resolved at least once.
+	 */
+	public boolean isLoaded() {
+		return snapshot != null;
+	}
+
+	private Snapshot getSnapshot() {
+
+		Snapshot current = snapshot;
+		if (current == null) {
+			throw new IllegalStateException("Cannot get config value before config is loaded");
+		}
+		return current;
+	}
+
+	private <B extends Binding> B add(B binding) {
+
+		bindings.add(binding);
+		return binding;
+	}
+
+	private void checkNotLoaded() {
+
+		if (snapshot != null) {
+			throw new IllegalStateException("Cannot bind config values after config is loaded");
+		}
+	}
+
+	/**
+	 * Bind the given config value to a holder that reads it from the current snapshot.
+	 * All values have to be bound before the config is loaded for the first time.
+	 *
+	 * @throws IllegalStateException if the config has already been loaded.
+	 */
+	public synchronized IntHolder bind(ForgeConfigSpec.IntValue value) {
+
+		checkNotLoaded();
+		return add(new IntHolder(value, primitiveCount++));
+	}
+
+	public synchronized LongHolder bind(ForgeConfigSpec.LongValue value) {
+
+		checkNotLoaded();
+		return add(new LongHolder(value, primitiveCount++));
+	}
+
+	public synchronized BooleanHolder bind(ForgeConfigSpec.BooleanValue value) {
+
+		checkNotLoaded();
+		return add(new BooleanHolder(value, primitiveCount++));
+	}
+
+	public synchronized DoubleHolder bind(ForgeConfigSpec.DoubleValue value) {
+
+		checkNotLoaded();
+		return add(new DoubleHolder(value, doubleCount++));
+	}
+
+	public synchronized <T> Holder<T> bind(ForgeConfigSpec.ConfigValue<T> value) {
+
+		checkNotLoaded();
+		return add(new Holder<>(value, objectCount++));
+	}
+
+	/**
+	 * Resolved values of all bound config values.
+	 */
+	private static final class Snapshot {
+
+		private final long[] primitives;
+		private final double[] doubles;
+		private final Object[] objects;
+
+		private Snapshot(int primitives, int doubles, int objects) {
+
+			this.primitives = new long[primitives];
+			this.doubles = new double[doubles];
+			this.objects = new Object[objects];
+		}
+	}
+
+	private abstract static class Binding {
+
+		final int index;
+
+		private Binding(int index) {
+			this.index = index;
+		}
+
+		abstract void resolve(Snapshot snapshot);
+	}
+
+	public final class IntHolder extends Binding {
+
+		private final ForgeConfigSpec.IntValue value;
+
+		private IntHolder(ForgeConfigSpec.IntValue value, int index) {
+			super(index);
+			this.value = value;
+		}
+
+		@Override
+		void resolve(Snapshot snapshot) {
+			snapshot.primitives[index] = value.get();
+		}
+
+		public int get() {
+			return (int) getSnapshot().primitives[index];
+		}
+	}
+
+	public final class LongHolder extends Binding {
+
+		private final ForgeConfigSpec.LongValue value;
+
+		private LongHolder(ForgeConfigSpec.LongValue value, int index) {
+			super(index);
+			this.value = value;
+		}
+
+		@Override
+		void resolve(Snapshot snapshot) {
+			snapshot.primitives[index] = value.get();
+		}
+
+		public long get() {
+			return getSnapshot().primitives[index];
+		}
+	}
+
+	public final class BooleanHolder extends Binding {
+
+		private final ForgeConfigSpec.BooleanValue value;
+
+		private BooleanHolder(ForgeConfigSpec.BooleanValue value, int index) {
+			super(index);
+			this.value = value;
+		}
+
+		@Override
+		void resolve(Snapshot snapshot) {
+			snapshot.primitives[index] = value.get() ? 1 : 0;
+		}
+
+		public boolean get() {
+			return getSnapshot().primitives[index] != 0;
+		}
+	}
+
+	public final class DoubleHolder extends Binding {
+
+		private final ForgeConfigSpec.DoubleValue value;
+
+		private DoubleHolder(ForgeConfigSpec.DoubleValue value, int index) {
+			super(index);
+			this.value = value;
+		}
+
+		@Override
+		void resolve(Snapshot snapshot) {
+			snapshot.doubles[index] = value.get();
+		}
+
+		public double get() {
+			return getSnapshot().doubles[index];
+		}
+	}
+
+	public final class Holder<T> extends Binding {
+
+		private final ForgeConfigSpec.ConfigValue<T> value;
+
+		private Holder(ForgeConfigSpec.ConfigValue<T> value, int index) {
+			super(index);
+			this.value = value;
+		}
+
+		@Override
+		void resolve(Snapshot snapshot) {
+			snapshot.objects[index] = value.get();
+		}
+
+		@SuppressWarnings("unchecked")
+		public T get() {
+			return (T) getSnapshot().objects[index];
+		}
+	}
+}
@@ -0,0 +1,323 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.event;
+
+import io.yooksi.cocolib.CocoLogger;
+import net.minecraftforge.eventbus.api.EventPriority;
+
+import javax.annotation.Nullable;
+import java.lang.invoke.*;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     Lightweight event bus for events defined by CocoLib and mods using it.
+ * <p>
+ *     Listener methods are bound through {@link LambdaMetafactory} into {@link Consumer}
+ *     instances, so posting an event is a direct interface call instead of reflective
+ *     invocation. Methods that can't be bound this way, for example non-public methods
+ *     registered without a {@link MethodHandles.Lookup} of their class, are called through
+ *     a {@link MethodHandle} instead.
+ * <p>
+ *     Listeners are kept in a copy-on-write array for each event class, so {@link #post(Object)}
+ *     does not lock or allocate. Events are only delivered to listeners of their exact class,
+ *     listeners of super classes are not called.
+ * </p>
+ */
+public class EventBus {
+
+	/** Event bus used for events posted by CocoLib. */
+	public static final EventBus COCOLIB = new EventBus("cocolib");
+
+	private static final MethodType CONSUMER_TYPE = MethodType.methodType(void.class, Object.class);
+
+	private final Map<Class<?>, ListenerList> listeners = new ConcurrentHashMap<>();
+	private final String name;
+
+	/**
+	 * Registered listener with an owner used to unregister it.
+	 */
+	private static final class Listener {
+
+		private final Object owner;
+		private final Consumer<Object> consumer;
+		private final EventPriority priority;
+
+		private Listener(Object owner, Consumer<Object> consumer, EventPriority priority) {
+			this.owner = owner;
+			this.consumer = consumer;
+			this.priority = priority;
+		}
+	}
+
+	/**
+	 * Listeners of a single event class. Both arrays are replaced as a whole on every change.
+	 */
+	private static final class ListenerList {
+
+		private static final Consumer<?>[] EMPTY = new Consumer<?>[0];
+
+		private Listener[] entries = new Listener[0];
+		private volatile Consumer<?>[] consumers = EMPTY;
+
+		private synchronized void add(Listener listener) {
+
+			List<Listener> list = new ArrayList<>(Arrays.asList(entries));
+			int index = 0;
+			while (index < list.size() && list.get(index).priority.ordinal() <= listener.priority.ordinal()) {
+				index++;
+			}
+			list.add(index, listener);
+			publish(list);
+		}
+
+		private synchronized boolean removeIf(Object owner) {
+
+			List<Listener> list = new ArrayList<>(Arrays.asList(entries));
+			if (list.removeIf(l -> l.owner == owner))
+			{
+				publish(list);
+				return true;
+			}
+			return false;
+		}
+
+		private void publish(List<Listener> list) {
+
+			Consumer<?>[] result = new Consumer<?>[list.size()];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = list.get(i).consumer;
+			}
+			entries = list.toArray(new Listener[0]);
+			consumers = result;
+		}
+	}
+
+	/**
+	 * @param name name of the bus used in log messages.
+	 */
+	public EventBus(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Register all methods annotated with {@link Subscribe} of the given object, or static
+	 * methods if a {@code Class} is passed. Only public methods of public classes are bound
+	 * through {@code LambdaMetafactory}, use {@link #register(Object, MethodHandles.Lookup)}
+	 * to bind non-public methods as well.
+	 *
+	 * @throws IllegalArgumentException if an annotated method has an invalid signature.
+	 */
+	public void register(Object target) {
+		register(target, null);
+	}
+
+	/**
+	 * Register all methods annotated with {@link Subscribe} of the given object,
+	 * or static methods if a {@code Class} is passed.
+	 *
+	 * @param lookup lookup created with {@code MethodHandles.lookup()} in the listener class,
+	 * 		which allows binding non-public methods through {@code LambdaMetafactory}.
+	 *
+	 * @throws IllegalArgumentException if an annotated method has an invalid signature.
+	 */
+	public void register(Object target, @Nullable MethodHandles.Lookup lookup) {
+
+		boolean isStatic = target instanceof Class;
+		Class<?> type = isStatic ? (Class<?>) target : target.getClass();
+
+		for (Method method : getMethods(type))
+		{
+			Subscribe subscribe = method.getAnnotation(Subscribe.class);
+			if (subscribe == null || Modifier.isStatic(method.getModifiers()) != isStatic) {
+				continue;
+			}
+			Class<?>[] params = method.getParameterTypes();
+			if (params.length != 1 || method.getReturnType() != void.class) {
+				throw new IllegalArgumentException(String.format("Listener method %s#%s must return " +
+						"void and have a single event parameter", type.getName(), method.getName()));
+			}
+			addListener(params[0], target, bind(method, isStatic ? null : target, lookup), subscribe.priority());
+		}
+	}
+
+	/**
+	 * Register the given consumer as a listener of events of the given class.
+	 * The consumer itself is used to {@link #unregister(Object) unregister} the listener.
+	 */
+	public <E> void addListener(Class<E> eventType, EventPriority priority, Consumer<E> listener) {
+		addListener(eventType, listener, listener, priority);
+	}
+
+	/**
+	 * Register the given consumer as a listener with {@code NORMAL} priority.
+	 * @see #addListener(Class, EventPriority, Consumer)
+	 */
+	public <E> void addListener(Class<E> eventType, Consumer<E> listener) {
+		addListener(eventType, listener, listener, EventPriority.NORMAL);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void addListener(Class<?> eventType, Object owner, Consumer<?> consumer, EventPriority priority) {
+		listeners.computeIfAbsent(eventType, t -> new ListenerList()).add(
+				new Listener(owner, (Consumer<Object>) consumer, priority));
+	}
+
+	/**
+	 * Remove all listeners registered for the given object, class or consumer.
+	 * @return {@code true} if at least one listener was removed.
+	 */
+	public boolean unregister(Object target) {
+
+		boolean removed = false;
+		for (ListenerList list : listeners.values()) {
+			removed |= list.removeIf(target);
+		}
+		return removed;
+	}
+
+	/**
+	 * Call all listeners of the exact class of the given event, in order of priority
+	 * and then registration. Exceptions thrown by listeners are propagated to the caller.
+	 *
+	 * @return the given event.
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E post(E event) {
+
+		ListenerList list = listeners.get(event.getClass());
+		if (list != null)
+		{
+			for (Consumer<?> listener : list.consumers) {
+				((Consumer<Object>) listener).accept(event);
+			}
+		}
+		return event;
+	}
+
+	/**
+	 * @return {@code true} if there is at least one listener for events of the given class.
+	 * 		Can be used to skip creating events that nobody listens to.
+	 */
+	public boolean hasListeners(Class<?> eventType) {
+
+		ListenerList list = listeners.get(eventType);
+		return list != null && list.consumers.length > 0;
+	}
+
+	/**
+	 * @return all methods declared by the given class and it's super classes. Methods
+	 * 		generated by the compiler are skipped, and methods overridden in a subclass are only
+	 * 		included once with the declaration from the most derived class.
+	 */
+	private static List<Method> getMethods(Class<?> type) {
+
+		List<Method> methods = new ArrayList<>();
+		Set<List<Object>> signatures = new HashSet<>();
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass())
+		{
+			for (Method method : c.getDeclaredMethods())
+			{
+				if (method.isBridge() || method.isSynthetic()) {
+					continue;
+				}
+				List<Object> signature = new ArrayList<>();
+				signature.add(method.getName());
+				signature.addAll(Arrays.asList(method.getParameterTypes()));
+				if (signatures.add(signature)) {
+					methods.add(method);
+				}
+			}
+		}
+		return methods;
+	}
+
+	/**
+	 * Create a consumer that calls the given listener method.
+	 *
+	 * @param instance object to call the method on or {@code null} for static methods.
+	 */
+	private Consumer<?> bind(Method method, @Nullable Object instance,
+							 @Nullable MethodHandles.Lookup lookup) {
+
+		Class<?> owner = method.getDeclaringClass();
+		boolean isPublic = Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(owner.getModifiers());
+		try {
+			MethodHandles.Lookup caller;
+			MethodHandle handle;
+			if (lookup != null && lookup.lookupClass() == owner)
+			{
+				caller = lookup;
+				handle = lookup.unreflect(method);
+			}
+			else {
+				method.setAccessible(true);
+				caller = MethodHandles.lookup();
+				handle = caller.unreflect(method);
+			}
+			if (caller == lookup || isPublic)
+			{
+				try {
+					return metafactory(caller, handle, instance);
+				}
+				catch (LambdaConversionException e) {
+					CocoLogger.debug("Unable to bind listener %s#%s on event bus %s, using method handle instead",
+							owner.getName(), method.getName(), name);
+				}
+			}
+			MethodHandle invoker = (instance != null ? handle.bindTo(instance) : handle).asType(CONSUMER_TYPE);
+			return event -> {
+				try {
+					invoker.invokeExact(event);
+				}
+				catch (RuntimeException | Error e) {
+					throw e;
+				}
+				catch (Throwable t) {
+					throw new IllegalStateException(t);
+				}
+			};
+		}
+		catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("Unable to access listener method " + method, e);
+		}
+	}
+
+	private static Consumer<?> metafactory(MethodHandles.Lookup caller, MethodHandle handle,
+										   @Nullable Object instance) throws LambdaConversionException {
+
+		MethodType type = handle.type();
+		MethodType eventType = MethodType.methodType(void.class, type.parameterType(type.parameterCount() - 1));
+		MethodType factoryType = instance != null ? MethodType.methodType(Consumer.class,
+				type.parameterType(0)) : MethodType.methodType(Consumer.class);
+
+		CallSite site = LambdaMetafactory.metafactory(caller, "accept", factoryType, CONSUMER_TYPE, handle, eventType);
+		try {
+			return instance != null ? (Consumer<?>) site.getTarget().invoke(instance)
+					: (Consumer<?>) site.getTarget().invoke();
+		}
+		catch (Throwable t) {
+			throw new LambdaConversionException(t.toString());
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("EventBus[%s, event types: %d]", name, listeners.size());
+	}
+}
@@ -17,84 +17,61 @@ import static io.yooksi.cocolib.gui.PlaneGeometry.*;
 
 public enum Alignment {
 
-	TOP_LEFT {
-		@Override
-		Coordinates getPosition(Dimensions frame, Dimensions size, Dimensions offset) {
-			return new Coordinates(offset.getWidth(), offset.getHeight());
-		}
-	},
-	TOP_RIGHT {
-		@Override
-		Coordinates getPosition(Dimensions frame, Dimensions size, Dimensions offset) {
-			return new Coordinates(Alignment.getOffsetX(frame, size, offset), offset.getHeight());
-		}
-	},
-	TOP_CENTER {
-		@Override
-		Coordinates getPosition(Dimensions frame, Dimensions size, Dimensions offset) {
-			return new Coordinates(Alignment.getCenterX(frame, size, offset), offset.getHeight());
-		}
-	},
-	BOTTOM_LEFT {
-		@Override
-		Coordinates getPosition(Dimensions frame, Dimensions size, Dimensions offset) {
-			return new Coordinates(offset.getWidth(), Alignment.getOffsetY(frame, size, offset));
-		}
-	},
-	BOTTOM_RIGHT {
-		@Override
-		Coordinates getPosition(Dimensions frame, Dimensions size, Dimensions offset) {
-			return new Coordinates(
-					Alignment.getOffsetX(frame, size, offset),
-					Alignment.getOffsetY(frame, size, offset)
-			);
-		}
-	},
-	BOTTOM_CENTER {
-		@Override
-		Coordinates getPosition(Dimensions frame, Dimensions size, Dimensions offset) {
-			return new Coordinates(
-					Alignment.getCenterX(frame, size, offset),
-					Alignment.getOffsetY(frame, size, offset)
-			);
-		}
-	},
-	CENTER {
-		@Override
-		Coordinates getPosition(Dimensions frame, Dimensions size, Dimensions offset) {
-			return new Coordinates(
-					Alignment.getCenterX(frame, size, offset),
-					Alignment.getCenterY(frame, size, offset)
-			);
-		}
-	};
+	TOP_LEFT(Anchor.START, Anchor.START),
+	TOP_RIGHT(Anchor.END, Anchor.START),
+	TOP_CENTER(Anchor.CENTER, Anchor.START),
+	BOTTOM_LEFT(Anchor.START, Anchor.END),
+	BOTTOM_RIGHT(Anchor.END, Anchor.END),
+	BOTTOM_CENTER(Anchor.CENTER, Anchor.END),
+	CENTER(Anchor.CENTER, Anchor.CENTER);
 
 	/**
-	 * @return coordinate along {@code x} axis with the given offset applied.
+	 * Position of an object along a single axis of the frame.
 	 */
-	private static int getOffsetX(Dimensions frame, Dimensions size, Dimensions offset) {
-		return frame.getWidth() - size.getWidth() - offset.getWidth();
+	private enum Anchor {
+
+		START, CENTER, END;
+
+		/**
+		 * @return coordinate along the axis with the given offset applied. Offset
+		 * 		is measured from the nearest edge, or from the center towards the end.
+		 */
+		private int getPosition(int frame, int size, int offset) {
+
+			switch (this) {
+				case END: return frame - size - offset;
+				case CENTER: return frame / 2 - size / 2 + offset;
+				default: return offset;
+			}
+		}
 	}
 
-	/**
-	 * @return coordinate along {@code y} axis with the given offset applied.
-	 */
-	private static int getOffsetY(Dimensions frame, Dimensions size, Dimensions offset) {
-		return frame.getHeight() - size.getHeight() - offset.getHeight();
+	private final Anchor horizontal, vertical;
+
+	Alignment(Anchor horizontal, Anchor vertical) {
+
+		this.horizontal = horizontal;
+		this.vertical = vertical;
 	}
 
 	/**
-	 * @return <b>centered</b> coordinate along {@code x} axis with the given offset applied.
+	 * Calculates the position along {@code x} axis for this alignment from primitive values,
+	 * which avoids allocating {@code Coordinates} when positioning many objects.
+	 *
+	 * @param frameWidth width of the outer frame that holds the object.
+	 * @param width width of the object we are trying to position.
+	 * @param offsetX coordinate offset from the edge of the frame.
 	 */
-	private static int getCenterX(Dimensions frame, Dimensions size, Dimensions offset) {
-		return frame.getWidth() / 2 - size.getWidth() / 2 + offset.getWidth();
+	public int getX(int frameWidth, int width, int offsetX) {
+		return horizontal.getPosition(frameWidth, width, offsetX);
 	}
 
 	/**
-	 * @return <b>centered</b> coordinate along {@code y} axis with the given offset applied.
+	 * Calculates the position along {@code y} axis for this alignment from primitive values.
+	 * @see #getX(int, int, int)
 	 */
-	private static int getCenterY(Dimensions frame, Dimensions size, Dimensions offset) {
-		return frame.getHeight() / 2 - size.getHeight() / 2 + offset.getHeight();
+	public int getY(int frameHeight, int height, int offsetY) {
+		return vertical.getPosition(frameHeight, height, offsetY);
 	}
 
 	/**
@@ -106,5 +83,8 @@ public enum Alignment {
 	 * @param size size of the object we are trying to position.
 	 * @param offset coordinate offset from the edge of the frame.
 	 */
-	abstract Coordinates getPosition(Dimensions frame, Dimensions size, Dimensions offset);
+	Coordinates getPosition(Dimensions frame, Dimensions size, Dimensions offset) {
+		return new Coordinates(getX(frame.getWidth(), size.getWidth(), offset.getWidth()),
+				getY(frame.getHeight(), size.getHeight(), offset.getHeight()));
+	}
 }
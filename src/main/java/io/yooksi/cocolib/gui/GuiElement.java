@@ -13,10 +13,7 @@
  */
 package io.yooksi.cocolib.gui;
 
-import net.minecraft.client.MainWindow;
-import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.AbstractGui;
-import net.minecraft.client.renderer.texture.TextureManager;
 import org.jetbrains.annotations.Contract;
 
 import static io.yooksi.cocolib.gui.PlaneGeometry.Dimensions;
@@ -32,26 +29,90 @@ public class GuiElement {
 	 */
 	private final Dimensions SCALED_WINDOW_SIZE = new Dimensions(427, 240);
 
+	/** Backend used for all window and render calls. */
+	private static RenderBackend backend = new MinecraftRenderBackend();
+
+	/**
+	 * Replace the backend used for all window and render calls, for example with
+	 * {@link RecordingRenderBackend} to run GUI logic without a game client.
+	 */
+	public static void setRenderBackend(RenderBackend backend) {
+
+		GuiElement.backend = backend;
+		RenderStateCache.invalidate();
+	}
+
+	public static RenderBackend getRenderBackend() {
+		return backend;
+	}
+
+	/**
+	 * Bind the sprite texture and draw the sprite, then rebind the HUD sprite map.
+	 * When drawing more then one sprite use {@link #drawSprites(SpriteObject...)}
+	 * or {@link #beginBatch()} to skip binding textures that are already bound.
+	 * <p>
+	 * This starts a batch of its own, since vanilla overlays drawn between two calls bind
+	 * textures without going through {@link RenderStateCache}. Invalidating only once per frame
+	 * would skip binding a sprite drawn from the HUD sprite map while another texture is bound.
+	 * Every other call binds the sprite texture and the HUD sprite map either way.
+	 */
 	public static void bindAndDrawTexture(SpriteObject sprite) {
 
-		Minecraft instance = Minecraft.getInstance();
-		TextureManager manager = instance.getTextureManager();
+		beginBatch();
+		drawSprite(sprite);
+		endBatch();
+	}
+
+	/**
+	 * Draw the given sprites as a single batch, which binds each texture
+	 * only when it differs from the texture of the previous sprite.
+	 *
+	 * @see #beginBatch()
+	 */
+	public static void drawSprites(SpriteObject... sprites) {
+
+		beginBatch();
+		for (SpriteObject sprite : sprites) {
+			drawSprite(sprite);
+		}
+		endBatch();
+	}
+
+	/**
+	 * Start a batch of draw calls. Between this call and {@link #endBatch()} texture, blend
+	 * and color state should only be changed through {@link RenderStateCache}, which skips
+	 * changes to state that is already set. Sprites that share a texture should be drawn
+	 * next to each other to get the most out of batching.
+	 */
+	public static void beginBatch() {
+		RenderStateCache.invalidate();
+	}
+
+	/**
+	 * Draw the given sprite in the current batch, binding the sprite texture if needed.
+	 * @see #beginBatch()
+	 */
+	public static void drawSprite(SpriteObject sprite) {
 
 		sprite.updateScaledPosition(false);
 
 		// Bind sprite map
-		manager.bindTexture(sprite.getTexture());
+		RenderStateCache.bindTexture(sprite.getTexture());
 
-		// Draw the texture on screen
-		drawTexturedModalRect(sprite.getX(), sprite.getY(), sprite.getU(), sprite.getV(),
-				sprite.getWidth(), sprite.getHeight());
+		// Draw the texture on screen with precomputed texture coordinates
+		backend.blitUV(sprite.getX(), sprite.getY(), sprite.getWidth(), sprite.getHeight(),
+				sprite.getMinU(), sprite.getMinV(), sprite.getMaxU(), sprite.getMaxV());
+	}
 
-		// Rebind HUD sprite map
-		manager.bindTexture(AbstractGui.GUI_ICONS_LOCATION);
+	/**
+	 * End the current batch and rebind the HUD sprite map expected by vanilla.
+	 */
+	public static void endBatch() {
+		RenderStateCache.bindTexture(AbstractGui.GUI_ICONS_LOCATION);
 	}
 
 	/**
-	 * Draws the texture bound to the screen.
+	 * Draws the texture bound to the screen, assuming the texture size is {@code 256x256}.
 	 *
 	 * @param x position to draw the texture along the {@code x} axis.
 	 * @param y position to draw the texture along the {@code y} axis.
@@ -61,22 +122,34 @@ public class GuiElement {
 	 * @param height height of the texture to draw.
 	 */
 	public static void drawTexturedModalRect(int x, int y, int u, int v, int width, int height) {
-		AbstractGui.blit(x, y, u, v, width, height, 256, 256);
+		drawTexturedModalRect(x, y, u, v, width, height, 256, 256);
+	}
+
+	/**
+	 * Draws the texture bound to the screen.
+	 *
+	 * @param textureWidth width of the whole bound texture in pixels.
+	 * @param textureHeight height of the whole bound texture in pixels.
+	 * @see #drawTexturedModalRect(int, int, int, int, int, int)
+	 */
+	public static void drawTexturedModalRect(int x, int y, int u, int v, int width,
+											 int height, int textureWidth, int textureHeight) {
+		backend.blit(x, y, u, v, width, height, textureWidth, textureHeight);
 	}
 
 	/**
-	 * Check if {@code MainWindow} size has changed since last time
+	 * Check if the main window size reported by the render backend has changed since last time
 	 * this method was called and update the dimension values if needed
 	 *
 	 * @return {@code true} if {@link #SCALED_WINDOW_SIZE} matches the {@code MainWindow} size.
 	 */
 	boolean doesScaledSizeMatch() {
 
-		MainWindow window = Minecraft.getInstance().getMainWindow();
+		int width = backend.getScaledWidth(), height = backend.getScaledHeight();
 
-		if (!SCALED_WINDOW_SIZE.isEqual(window.getScaledWidth(), window.getScaledHeight()))
+		if (!SCALED_WINDOW_SIZE.isEqual(width, height))
 		{
-			SCALED_WINDOW_SIZE.update(window.getScaledWidth(), window.getScaledHeight());
+			SCALED_WINDOW_SIZE.update(width, height);
 			return false;
 		}
 		else return true;
@@ -0,0 +1,104 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.gui;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.AbstractGui;
+import net.minecraft.client.renderer.BufferBuilder;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.WorldVertexBufferUploader;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.util.ResourceLocation;
+import org.lwjgl.opengl.GL11;
+
+/**
+ * Render backend that forwards all calls to the game client.
+ */
+public class MinecraftRenderBackend implements RenderBackend {
+
+	@Override
+	public int getScaledWidth() {
+		return Minecraft.getInstance().getMainWindow().getScaledWidth();
+	}
+
+	@Override
+	public int getScaledHeight() {
+		return Minecraft.getInstance().getMainWindow().getScaledHeight();
+	}
+
+	@Override
+	public void bindTexture(ResourceLocation location) {
+		Minecraft.getInstance().getTextureManager().bindTexture(location);
+	}
+
+	@Override
+	public void enableBlend() {
+
+		RenderSystem.enableBlend();
+		RenderSystem.defaultBlendFunc();
+	}
+
+	@Override
+	public void disableBlend() {
+		RenderSystem.disableBlend();
+	}
+
+	@Override
+	public void color(float red, float green, float blue, float alpha) {
+		RenderSystem.color4f(red, green, blue, alpha);
+	}
+
+	@Override
+	public void blit(int x, int y, float u, float v, int width, int height, int textureWidth, int textureHeight) {
+		AbstractGui.blit(x, y, u, v, width, height, textureWidth, textureHeight);
+	}
+
+	/**
+	 * Draws the same quad as {@code AbstractGui.blit} without converting pixel coordinates.
+	 */
+	@Override
+	public void blitUV(int x, int y, int width, int height, float u0, float v0, float u1, float v1) {
+
+		BufferBuilder buffer = Tessellator.getInstance().getBuffer();
+		buffer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX);
+		buffer.pos(x, y + height, 0).tex(u0, v1).endVertex();
+		buffer.pos(x + width, y + height, 0).tex(u1, v1).endVertex();
+		buffer.pos(x + width, y, 0).tex(u1, v0).endVertex();
+		buffer.pos(x, y, 0).tex(u0, v0).endVertex();
+		buffer.finishDrawing();
+		RenderSystem.enableAlphaTest();
+		WorldVertexBufferUploader.draw(buffer);
+	}
+
+	@Override
+	public void blitQuads(float[] quads, int from, int count) {
+
+		BufferBuilder buffer = Tessellator.getInstance().getBuffer();
+		buffer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX);
+		for (int i = from * QUAD_STRIDE, end = (from + count) * QUAD_STRIDE; i < end; i += QUAD_STRIDE)
+		{
+			float x0 = quads[i], y0 = quads[i + 1], x1 = quads[i + 2], y1 = quads[i + 3];
+			float u0 = quads[i + 4], v0 = quads[i + 5], u1 = quads[i + 6], v1 = quads[i + 7];
+
+			buffer.pos(x0, y1, 0).tex(u0, v1).endVertex();
+			buffer.pos(x1, y1, 0).tex(u1, v1).endVertex();
+			buffer.pos(x1, y0, 0).tex(u1, v0).endVertex();
+			buffer.pos(x0, y0, 0).tex(u0, v0).endVertex();
+		}
+		buffer.finishDrawing();
+		RenderSystem.enableAlphaTest();
+		WorldVertexBufferUploader.draw(buffer);
+	}
+}
@@ -0,0 +1,227 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.gui;
+
+import net.minecraft.util.ResourceLocation;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * <p>
+ *     Render backend that records calls in memory instead of drawing anything.
+ * <p>
+ *     This allows GUI layout and draw logic to run without a game client, so that positions of
+ *     drawn sprites and the number of draw and bind calls per frame can be checked in code.
+ *     The scaled window size is set with {@link #setScaledSize(int, int)} and
+ *     recorded commands are discarded with {@link #clear()}, usually once per frame.
+ * </p>
+ */
+public class RecordingRenderBackend implements RenderBackend {
+
+	public enum Type { BIND_TEXTURE, ENABLE_BLEND, DISABLE_BLEND, COLOR, BLIT, BLIT_UV, BLIT_QUADS }
+
+	/**
+	 * Single recorded call. Only fields used by the call type are set, {@code BLIT_UV}
+	 * calls store normalized coordinates of the top left corner in {@code u} and {@code v}
+	 * and coordinates of the bottom right corner in {@code u1} and {@code v1}. {@code BLIT_QUADS}
+	 * calls store the number of quads in {@code width} and a copy of quad values in {@code quads}.
+	 */
+	public static final class Command {
+
+		private static final float[] NO_COLOR = new float[0];
+
+		public final Type type;
+		public final @Nullable ResourceLocation texture;
+		public final int x, y, width, height, textureWidth, textureHeight;
+		public final float u, v, u1, v1;
+		public final float[] color, quads;
+
+		private Command(Type type, @Nullable ResourceLocation texture, int x, int y, float u, float v,
+						int width, int height, int textureWidth, int textureHeight, float[] color) {
+			this(type, texture, x, y, u, v, 0, 0, width, height, textureWidth, textureHeight, color, NO_COLOR);
+		}
+
+		private Command(Type type, @Nullable ResourceLocation texture, int x, int y, float u, float v, float u1, float v1,
+						int width, int height, int textureWidth, int textureHeight, float[] color, float[] quads) {
+
+			this.type = type;
+			this.texture = texture;
+			this.x = x;
+			this.y = y;
+			this.u = u;
+			this.v = v;
+			this.u1 = u1;
+			this.v1 = v1;
+			this.width = width;
+			this.height = height;
+			this.textureWidth = textureWidth;
+			this.textureHeight = textureHeight;
+			this.color = color;
+			this.quads = quads;
+		}
+
+		private static Command of(Type type) {
+			return new Command(type, null, 0, 0, 0, 0, 0, 0, 0, 0, NO_COLOR);
+		}
+
+		@Override
+		public String toString() {
+
+			switch (type) {
+				case BIND_TEXTURE: return "bind " + texture;
+				case COLOR: return String.format("color [%.2f, %.2f, %.2f, %.2f]", color[0], color[1], color[2], color[3]);
+				case BLIT: return String.format("blit [%d, %d] uv [%.1f, %.1f] size [%d, %d] texture [%d, %d]",
+						x, y, u, v, width, height, textureWidth, textureHeight);
+				case BLIT_UV: return String.format("blit [%d, %d] size [%d, %d] uv [%.4f, %.4f, %.4f, %.4f]",
+						x, y, width, height, u, v, u1, v1);
+				case BLIT_QUADS: return "blit " + width + " quads";
+				default: return type.name().toLowerCase(Locale.ROOT);
+			}
+		}
+	}
+
+	private final List<Command> commands = new ArrayList<>();
+	private final int[] counts = new int[Type.values().length];
+	private int scaledWidth, scaledHeight;
+
+	/**
+	 * Create a backend with the scaled window size of the default {@code 854x480} window.
+	 */
+	public RecordingRenderBackend() {
+		this(427, 240);
+	}
+
+	public RecordingRenderBackend(int scaledWidth, int scaledHeight) {
+		setScaledSize(scaledWidth, scaledHeight);
+	}
+
+	/**
+	 * Change the scaled window size reported by this backend, as if the window was resized.
+	 */
+	public void setScaledSize(int width, int height) {
+
+		scaledWidth = width;
+		scaledHeight = height;
+	}
+
+	@Override
+	public int getScaledWidth() {
+		return scaledWidth;
+	}
+
+	@Override
+	public int getScaledHeight() {
+		return scaledHeight;
+	}
+
+	@Override
+	public void bindTexture(ResourceLocation location) {
+		record(new Command(Type.BIND_TEXTURE, location, 0, 0, 0, 0, 0, 0, 0, 0, Command.NO_COLOR));
+	}
+
+	@Override
+	public void enableBlend() {
+		record(Command.of(Type.ENABLE_BLEND));
+	}
+
+	@Override
+	public void disableBlend() {
+		record(Command.of(Type.DISABLE_BLEND));
+	}
+
+	@Override
+	public void color(float red, float green, float blue, float alpha) {
+		record(new Command(Type.COLOR, null, 0, 0, 0, 0, 0, 0, 0, 0, new float[] { red, green, blue, alpha }));
+	}
+
+	@Override
+	public void blit(int x, int y, float u, float v, int width, int height, int textureWidth, int textureHeight) {
+		record(new Command(Type.BLIT, null, x, y, u, v, width, height, textureWidth, textureHeight, Command.NO_COLOR));
+	}
+
+	@Override
+	public void blitUV(int x, int y, int width, int height, float u0, float v0, float u1, float v1) {
+		record(new Command(Type.BLIT_UV, null, x, y, u0, v0, u1, v1, width, height, 0, 0, Command.NO_COLOR, Command.NO_COLOR));
+	}
+
+	/**
+	 * Records a single command with a copy of values of all drawn quads.
+	 * @see #getQuadCount()
+	 */
+	@Override
+	public void blitQuads(float[] quads, int from, int count) {
+
+		float[] copy = Arrays.copyOfRange(quads, from * QUAD_STRIDE, (from + count) * QUAD_STRIDE);
+		record(new Command(Type.BLIT_QUADS, null, 0, 0, 0, 0, 0, 0, count, 0, 0, 0, Command.NO_COLOR, copy));
+	}
+
+	private void record(Command command) {
+
+		commands.add(command);
+		counts[command.type.ordinal()]++;
+	}
+
+	/**
+	 * @return unmodifiable view of commands recorded since the last {@link #clear()}.
+	 */
+	@Contract(pure = true)
+	public List<Command> getCommands() {
+		return Collections.unmodifiableList(commands);
+	}
+
+	/**
+	 * @return number of recorded commands of the given type.
+	 */
+	public int getCount(Type type) {
+		return counts[type.ordinal()];
+	}
+
+	public int getBindCount() {
+		return getCount(Type.BIND_TEXTURE);
+	}
+
+	/**
+	 * @return number of recorded draw calls of {@code BLIT} and {@code BLIT_UV} types.
+	 * 		Quads drawn with {@code BLIT_QUADS} are not included, see {@link #getQuadCount()}.
+	 */
+	public int getDrawCount() {
+		return getCount(Type.BLIT) + getCount(Type.BLIT_UV);
+	}
+
+	/**
+	 * @return total number of quads drawn by recorded {@code BLIT_QUADS} calls.
+	 */
+	public int getQuadCount() {
+
+		int count = 0;
+		for (Command command : commands)
+		{
+			if (command.type == Type.BLIT_QUADS) {
+				count += command.width;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Discard all recorded commands and reset counters.
+	 */
+	public void clear() {
+
+		commands.clear();
+		Arrays.fill(counts, 0);
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.gui;
+
+import net.minecraft.util.ResourceLocation;
+
+/**
+ * <p>
+ *     Window and render calls used by CocoLib GUI classes.
+ * <p>
+ *     The default backend is {@link MinecraftRenderBackend} which forwards calls to the game
+ *     client. Other backends can be installed with {@link GuiElement#setRenderBackend(RenderBackend)},
+ *     for example {@link RecordingRenderBackend} which allows layout and draw logic to run
+ *     without a game client.
+ * </p>
+ */
+public interface RenderBackend {
+
+	/**
+	 * Number of values per quad in arrays passed to {@link #blitQuads(float[], int, int)}.
+	 */
+	int QUAD_STRIDE = 8;
+
+	/**
+	 * @return width of the main window in scaled GUI coordinates.
+	 */
+	int getScaledWidth();
+
+	/**
+	 * @return height of the main window in scaled GUI coordinates.
+	 */
+	int getScaledHeight();
+
+	/**
+	 * Bind the texture at the given location.
+	 */
+	void bindTexture(ResourceLocation location);
+
+	/**
+	 * Enable blending with the default blend function.
+	 */
+	void enableBlend();
+
+	void disableBlend();
+
+	/**
+	 * Set the color that drawn textures are multiplied with.
+	 */
+	void color(float red, float green, float blue, float alpha);
+
+	/**
+	 * Draw a region of the bound texture on screen.
+	 *
+	 * @param x position to draw the texture along the {@code x} axis.
+	 * @param y position to draw the texture along the {@code y} axis.
+	 * @param u texture {@code UV} mapping coordinate along {@code x} axis in pixels.
+	 * @param v texture {@code UV} mapping coordinate along {@code y} axis in pixels.
+	 * @param width width of the region to draw.
+	 * @param height height of the region to draw.
+	 * @param textureWidth width of the whole texture in pixels.
+	 * @param textureHeight height of the whole texture in pixels.
+	 */
+	void blit(int x, int y, float u, float v, int width, int height, int textureWidth, int textureHeight);
+
+	/**
+	 * Draw a region of the bound texture on screen using normalized texture coordinates
+	 * in range {@code [0, 1]}, which are usually computed once instead of on each draw.
+	 *
+	 * @param x position to draw the texture along the {@code x} axis.
+	 * @param y position to draw the texture along the {@code y} axis.
+	 * @param width width of the region to draw.
+	 * @param height height of the region to draw.
+	 * @param u0 texture coordinate of the left edge of the region.
+	 * @param v0 texture coordinate of the top edge of the region.
+	 * @param u1 texture coordinate of the right edge of the region.
+	 * @param v1 texture coordinate of the bottom edge of the region.
+	 */
+	void blitUV(int x, int y, int width, int height, float u0, float v0, float u1, float v1);
+
+	/**
+	 * Draw a number of regions of the bound texture on screen in a single call. Each quad is
+	 * described by {@value #QUAD_STRIDE} consecutive values in the given array: screen coordinates
+	 * of the top left and bottom right corner {@code (x0, y0, x1, y1)} followed by normalized
+	 * texture coordinates of the same corners {@code (u0, v0, u1, v1)}.
+	 *
+	 * @param quads array of quad values.
+	 * @param from index of the first quad to draw (not the array index).
+	 * @param count number of quads to draw.
+	 */
+	void blitQuads(float[] quads, int from, int count);
+}
@@ -0,0 +1,188 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.gui;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.client.event.RenderGameOverlayEvent;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+
+import javax.annotation.Nullable;
+
+/**
+ * <p>
+ *     Shadow of the texture, blend and color state set by CocoLib draw calls,
+ *     used to skip calls that would not change the current state.
+ * <p>
+ *     The shadow is only valid while no other code changes the render state, which is why
+ *     it is invalidated at the start of each frame and by {@link #invalidate()}, which is
+ *     called when a batch of sprites is started with {@link GuiElement#beginBatch()}.
+ *     The first call after the state is invalidated is never skipped.
+ * <p>
+ *     Counters of issued and skipped calls are shown on the debug screen.
+ *     This class should only be accessed from the render thread.
+ * </p>
+ */
+@OnlyIn(Dist.CLIENT)
+public final class RenderStateCache {
+
+	private static final int UNKNOWN = -1;
+
+	private static @Nullable ResourceLocation texture;
+	private static int blend = UNKNOWN;
+	private static boolean hasColor;
+	private static float red, green, blue, alpha;
+
+	private static int issued, elided;
+	private static int lastIssued, lastElided;
+
+	private RenderStateCache() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Forget the shadowed state, so that the next call of each kind is always issued.
+	 * This should be called whenever code outside of CocoLib could have changed the state.
+	 */
+	public static void invalidate() {
+
+		texture = null;
+		blend = UNKNOWN;
+		hasColor = false;
+	}
+
+	/**
+	 * Register listeners that reset the shadowed state on each frame
+	 * and show the counters on the debug screen. This is called by CocoLib.
+	 */
+	public static void register() {
+
+		MinecraftForge.EVENT_BUS.addListener(RenderStateCache::onRenderTick);
+		MinecraftForge.EVENT_BUS.addListener(RenderStateCache::onDebugText);
+	}
+
+	/**
+	 * Start a new frame by invalidating the shadowed state and publishing the counters of the previous frame.
+	 */
+	private static void onRenderTick(TickEvent.RenderTickEvent event) {
+
+		if (event.phase == TickEvent.Phase.START)
+		{
+			invalidate();
+			lastIssued = issued;
+			lastElided = elided;
+			issued = elided = 0;
+		}
+	}
+
+	private static void onDebugText(RenderGameOverlayEvent.Text event) {
+
+		if (Minecraft.getInstance().gameSettings.showDebugInfo) {
+			event.getLeft().add(getDebugInfo());
+		}
+	}
+
+	/**
+	 * Bind the given texture unless it is already bound.
+	 */
+	public static void bindTexture(ResourceLocation location) {
+
+		if (location.equals(texture)) {
+			elided++;
+		}
+		else {
+			GuiElement.getRenderBackend().bindTexture(location);
+			texture = location;
+			issued++;
+		}
+	}
+
+	/**
+	 * Enable blending with the default blend function unless it is already enabled.
+	 */
+	public static void enableBlend() {
+
+		if (blend == 1) {
+			elided++;
+		}
+		else {
+			GuiElement.getRenderBackend().enableBlend();
+			blend = 1;
+			issued++;
+		}
+	}
+
+	/**
+	 * Disable blending unless it is already disabled.
+	 */
+	public static void disableBlend() {
+
+		if (blend == 0) {
+			elided++;
+		}
+		else {
+			GuiElement.getRenderBackend().disableBlend();
+			blend = 0;
+			issued++;
+		}
+	}
+
+	/**
+	 * Set the shader color unless it is already set to the same values.
+	 */
+	public static void color(float r, float g, float b, float a) {
+
+		if (hasColor && r == red && g == green && b == blue && a == alpha) {
+			elided++;
+		}
+		else {
+			GuiElement.getRenderBackend().color(r, g, b, a);
+			red = r;
+			green = g;
+			blue = b;
+			alpha = a;
+			hasColor = true;
+			issued++;
+		}
+	}
+
+	/**
+	 * Reset the shader color to opaque white unless it is already white.
+	 */
+	public static void resetColor() {
+		color(1.0f, 1.0f, 1.0f, 1.0f);
+	}
+
+	/**
+	 * @return number of state changes issued in the previous frame.
+	 */
+	public static int getIssuedCount() {
+		return lastIssued;
+	}
+
+	/**
+	 * @return number of state changes skipped in the previous frame
+	 * 		because they would not change the current state.
+	 */
+	public static int getElidedCount() {
+		return lastElided;
+	}
+
+	public static String getDebugInfo() {
+		return String.format("Render state calls per frame: %d issued, %d elided", lastIssued, lastElided);
+	}
+}
@@ -14,6 +14,7 @@
 package io.yooksi.cocolib.gui;
 
 import io.yooksi.cocolib.CocoLogger;
+import io.yooksi.cocolib.util.RLHelper;
 import net.minecraft.util.ResourceLocation;
 import org.jetbrains.annotations.Contract;
 
@@ -46,29 +47,45 @@ public class SpriteObject extends GuiElement {
 	/** Set of 2D coordinates used for sprite {@code UV} mapping */
 	private final Coordinates uv;
 
-	private SpriteObject(ResourceLocation location, Alignment alignment, int offsetX,
-						 int offsetY, int u, int v, int width, int height) {
+	/** Size of the whole sprite sheet the sprite is mapped from */
+	private final Dimensions sheetSize;
+
+	/** Normalized texture coordinates of sprite edges, computed once on creation */
+	private final float minU, minV, maxU, maxV;
+
+	private SpriteObject(ResourceLocation location, Alignment alignment, int offsetX, int offsetY,
+						 int u, int v, int width, int height, int sheetWidth, int sheetHeight) {
 
 		this.location = location;
 		this.alignment = alignment;
 		this.offset = new Dimensions(offsetX, offsetY);
 
 		if (width <= 1 || height <= 1) {
-			CocoLogger.warn("Invalid sprite size [x: %d, y: %d", width, height);
+			CocoLogger.warn("Invalid sprite size [x: %d, y: %d]", width, height);
 		}
 		size = new Dimensions(width, height);
 		position = alignment.getPosition(getScaledWindowSize(), size, offset);
 		uv = new Coordinates(u, v);
+
+		if (u + width > sheetWidth || v + height > sheetHeight) {
+			CocoLogger.warn("Sprite region exceeds sheet size [x: %d, y: %d]", sheetWidth, sheetHeight);
+		}
+		sheetSize = new ConstantDimensions(sheetWidth, sheetHeight);
+		minU = u / (float) sheetWidth;
+		minV = v / (float) sheetHeight;
+		maxU = (u + width) / (float) sheetWidth;
+		maxV = (v + height) / (float) sheetHeight;
 	}
 
 	protected SpriteObject(Builder builder) {
-		this(builder.texture, builder.alignment, builder.offsetX,
-				builder.offsetY, builder.u, builder.v, builder.width, builder.height);
+		this(builder.texture, builder.alignment, builder.offsetX, builder.offsetY, builder.u,
+				builder.v, builder.width, builder.height, builder.sheetWidth, builder.sheetHeight);
 	}
 
 	public static class Builder {
 
 		private int width, height, offsetX, offsetY, u, v;
+		private int sheetWidth = 256, sheetHeight = 256;
 		private final ResourceLocation texture;
 		private Alignment alignment = Alignment.TOP_LEFT;
 
@@ -78,7 +95,7 @@ public class SpriteObject extends GuiElement {
 
 		@Contract(value = "_, _-> new", pure = true)
 		public static Builder create(String namespace, String path) {
-			return new Builder(new ResourceLocation(namespace, path));
+			return new Builder(RLHelper.getResourceLocation(namespace, path));
 		}
 		@Contract(value = "_-> new", pure = true)
 		public static Builder create(ResourceLocation location) {
@@ -127,9 +144,29 @@ public class SpriteObject extends GuiElement {
 			return this;
 		}
 
+		/**
+		 * Set the size of the whole sprite sheet, which is {@code 256x256} by default.
+		 * @throws IllegalArgumentException if width or height is less then {@code 1}.
+		 */
+		@Contract("_, _ -> this")
+		public Builder withSheetSize(int width, int height) {
+
+			if (width < 1 || height < 1) {
+				throw new IllegalArgumentException(String.format("Invalid sheet size [%d, %d]", width, height));
+			}
+			this.sheetWidth = width;
+			this.sheetHeight = height;
+			return this;
+		}
+
+		@Contract("_ -> this")
+		public Builder withSheetSize(Dimensions size) {
+			return withSheetSize(size.getWidth(), size.getHeight());
+		}
+
 		@Contract(value = "-> new", pure = true)
 		public SpriteObject build() {
-			return new SpriteObject(texture, alignment, offsetX, offsetY, u, v, width, height);
+			return new SpriteObject(this);
 		}
 	}
 
@@ -174,6 +211,13 @@ public class SpriteObject extends GuiElement {
 		offset(offsetX, offsetY);
 	}
 
+	/**
+	 * @return sprite alignment relative to main window screen
+	 */
+	public Alignment getAlignment() {
+		return alignment;
+	}
+
 	public ResourceLocation getTexture() {
 		return location;
 	}
@@ -228,4 +272,39 @@ public class SpriteObject extends GuiElement {
 	public int getHeight() {
 		return size.getHeight();
 	}
+
+	/**
+	 * @return size of the whole sprite sheet the sprite is mapped from
+	 */
+	public Dimensions getSheetSize() {
+		return sheetSize;
+	}
+
+	/**
+	 * @return normalized texture coordinate of the left sprite edge
+	 */
+	public float getMinU() {
+		return minU;
+	}
+
+	/**
+	 * @return normalized texture coordinate of the top sprite edge
+	 */
+	public float getMinV() {
+		return minV;
+	}
+
+	/**
+	 * @return normalized texture coordinate of the right sprite edge
+	 */
+	public float getMaxU() {
+		return maxU;
+	}
+
+	/**
+	 * @return normalized texture coordinate of the bottom sprite edge
+	 */
+	public float getMaxV() {
+		return maxV;
+	}
 }
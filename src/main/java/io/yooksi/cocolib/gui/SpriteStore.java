@@ -0,0 +1,427 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.gui;
+
+import io.yooksi.cocolib.lang.ParallelRange;
+import net.minecraft.util.ResourceLocation;
+import org.jetbrains.annotations.Range;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static io.yooksi.cocolib.gui.PlaneGeometry.Dimensions;
+import static io.yooksi.cocolib.gui.RenderBackend.QUAD_STRIDE;
+
+/**
+ * <p>
+ *     Store of a large number of sprites kept in parallel primitive arrays instead of
+ *     a {@link SpriteObject} with several objects for each sprite, meant for overlays that draw
+ *     thousands of icons like maps. Each sprite is identified by it's index in the store.
+ * <p>
+ *     Screen positions are computed for all sprites at once by {@link #layout(int, int)}, which
+ *     also writes quad values of each sprite into a buffer ordered by texture. Drawing the store
+ *     then binds each texture once and passes the buffer to {@link RenderBackend#blitQuads},
+ *     so nothing is computed per sprite on frames where no sprite was changed.
+ * <p>
+ *     Instances are not thread-safe and should only be accessed from the render thread.
+ *     Large stores can be laid out across a {@code ForkJoinPool} with {@link #parallelLayout}.
+ * </p>
+ */
+public class SpriteStore {
+
+	private static final Alignment[] ALIGNMENTS = Alignment.values();
+
+	private final List<ResourceLocation> textures = new ArrayList<>();
+	private final Map<ResourceLocation, Integer> textureIndexes = new HashMap<>();
+
+	private int[] x, y, width, height, offsetX, offsetY, texture;
+	private float[] u0, v0, u1, v1;
+	private byte[] alignment;
+
+	/** Sprite indexes ordered by texture, and position of each sprite in that order. */
+	private int[] order, slot;
+	/** Quad values of each sprite, stored in texture order. */
+	private float[] quads;
+
+	private int size;
+	private boolean dirty;
+	private int frameWidth = -1, frameHeight = -1;
+
+	public SpriteStore() {
+		this(64);
+	}
+
+	/**
+	 * @param capacity number of sprites the store can hold before growing.
+	 */
+	public SpriteStore(int capacity) {
+		allocate(Math.max(capacity, 1));
+	}
+
+	private void allocate(int capacity) {
+
+		x = grow(x, capacity);
+		y = grow(y, capacity);
+		width = grow(width, capacity);
+		height = grow(height, capacity);
+		offsetX = grow(offsetX, capacity);
+		offsetY = grow(offsetY, capacity);
+		texture = grow(texture, capacity);
+		order = grow(order, capacity);
+		slot = grow(slot, capacity);
+		u0 = grow(u0, capacity);
+		v0 = grow(v0, capacity);
+		u1 = grow(u1, capacity);
+		v1 = grow(v1, capacity);
+		alignment = alignment == null ? new byte[capacity] : Arrays.copyOf(alignment, capacity);
+		quads = quads == null ? new float[capacity * QUAD_STRIDE] : Arrays.copyOf(quads, capacity * QUAD_STRIDE);
+	}
+
+	private static int[] grow(int[] array, int capacity) {
+		return array == null ? new int[capacity] : Arrays.copyOf(array, capacity);
+	}
+
+	private static float[] grow(float[] array, int capacity) {
+		return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+	}
+
+	/**
+	 * Add a new sprite to the store.
+	 *
+	 * @param location location of the sprite sheet texture.
+	 * @param align alignment of the sprite relative to the frame.
+	 * @param offX offset from the edge of the frame along {@code x} axis.
+	 * @param offY offset from the edge of the frame along {@code y} axis.
+	 * @param u sprite {@code UV} mapping coordinate along {@code x} axis in pixels.
+	 * @param v sprite {@code UV} mapping coordinate along {@code y} axis in pixels.
+	 * @param w width of the sprite.
+	 * @param h height of the sprite.
+	 * @param sheetWidth width of the whole sprite sheet in pixels.
+	 * @param sheetHeight height of the whole sprite sheet in pixels.
+	 * @return index of the added sprite.
+	 *
+	 * @throws IllegalArgumentException if sheet width or height is less then {@code 1}.
+	 */
+	public int add(ResourceLocation location, Alignment align, int offX, int offY,
+				   int u, int v, int w, int h, int sheetWidth, int sheetHeight) {
+
+		if (sheetWidth < 1 || sheetHeight < 1) {
+			throw new IllegalArgumentException(String.format("Invalid sheet size [%d, %d]", sheetWidth, sheetHeight));
+		}
+		if (size == x.length) {
+			allocate(size * 2);
+		}
+		int index = size++;
+		texture[index] = textureIndexes.computeIfAbsent(location, l -> {
+			textures.add(l);
+			return textures.size() - 1;
+		});
+		alignment[index] = (byte) align.ordinal();
+		offsetX[index] = offX;
+		offsetY[index] = offY;
+		width[index] = w;
+		height[index] = h;
+		u0[index] = u / (float) sheetWidth;
+		v0[index] = v / (float) sheetHeight;
+		u1[index] = (u + w) / (float) sheetWidth;
+		v1[index] = (v + h) / (float) sheetHeight;
+		dirty = true;
+		return index;
+	}
+
+	/**
+	 * Add a sprite with the same texture, alignment, offset, size and mapping as the given sprite.
+	 * @return index of the added sprite.
+	 */
+	public int add(SpriteObject sprite) {
+
+		Dimensions sheet = sprite.getSheetSize();
+		return add(sprite.getTexture(), sprite.getAlignment(), sprite.offset.getWidth(), sprite.offset.getHeight(),
+				sprite.getU(), sprite.getV(), sprite.getWidth(), sprite.getHeight(), sheet.getWidth(), sheet.getHeight());
+	}
+
+	/**
+	 * Remove the sprite at the given index by moving the last sprite in its place.
+	 *
+	 * @return previous index of the sprite that was moved to the given index,
+	 * 		or {@code -1} if the removed sprite was the last sprite.
+	 */
+	public int remove(@Range(from = 0, to = Integer.MAX_VALUE) int index) {
+
+		checkIndex(index);
+		int last = --size;
+		dirty = true;
+		if (index == last) {
+			return -1;
+		}
+		texture[index] = texture[last];
+		alignment[index] = alignment[last];
+		offsetX[index] = offsetX[last];
+		offsetY[index] = offsetY[last];
+		width[index] = width[last];
+		height[index] = height[last];
+		u0[index] = u0[last];
+		v0[index] = v0[last];
+		u1[index] = u1[last];
+		v1[index] = v1[last];
+		return last;
+	}
+
+	/**
+	 * Remove all sprites and textures while keeping the allocated capacity.
+	 */
+	public void clear() {
+
+		size = 0;
+		textures.clear();
+		textureIndexes.clear();
+		dirty = true;
+	}
+
+	/**
+	 * Update sprite offset relative to the frame.
+	 */
+	public void setOffset(int index, int offX, int offY) {
+
+		checkIndex(index);
+		offsetX[index] = offX;
+		offsetY[index] = offY;
+		dirty = true;
+	}
+
+	/**
+	 * Update sprite alignment relative to the frame.
+	 */
+	public void setAlignment(int index, Alignment align) {
+
+		checkIndex(index);
+		alignment[index] = (byte) align.ordinal();
+		dirty = true;
+	}
+
+	/**
+	 * Compute the screen position of each sprite in the given frame and
+	 * fill the quad buffer. This is done on the calling thread.
+	 */
+	public void layout(int frameWidth, int frameHeight) {
+
+		sortByTexture();
+		layoutRange(0, size, frameWidth, frameHeight);
+		finishLayout(frameWidth, frameHeight);
+	}
+
+	/**
+	 * Variant of {@link #layout(int, int)} that splits sprites across the given pool.
+	 * Sorting sprites by texture is still done on the calling thread.
+	 */
+	public void parallelLayout(ForkJoinPool pool, int frameWidth, int frameHeight) {
+
+		sortByTexture();
+		ParallelRange.forEach(pool, 0, size, ParallelRange.DEFAULT_THRESHOLD,
+				(from, to) -> layoutRange(from, to, frameWidth, frameHeight));
+		finishLayout(frameWidth, frameHeight);
+	}
+
+	private void finishLayout(int frameWidth, int frameHeight) {
+
+		this.frameWidth = frameWidth;
+		this.frameHeight = frameHeight;
+		dirty = false;
+	}
+
+	/**
+	 * Order sprites by texture index with a counting sort, keeping
+	 * the order of sprites that share a texture. Textures no longer
+	 * used by any sprite are removed from the store first.
+	 */
+	private void sortByTexture() {
+
+		int[] counts = new int[textures.size()];
+		for (int i = 0; i < size; i++) {
+			counts[texture[i]]++;
+		}
+		counts = pruneTextures(counts);
+
+		int[] starts = new int[counts.length];
+		for (int t = 1; t < starts.length; t++) {
+			starts[t] = starts[t - 1] + counts[t - 1];
+		}
+		for (int i = 0; i < size; i++)
+		{
+			int position = starts[texture[i]]++;
+			order[position] = i;
+			slot[i] = position;
+		}
+	}
+
+	/**
+	 * Remove textures that are not used by any sprite after sprites were removed,
+	 * keeping the order of remaining textures and updating texture indexes of sprites.
+	 *
+	 * @param counts number of sprites that use each texture.
+	 * @return number of sprites that use each remaining texture.
+	 */
+	private int[] pruneTextures(int[] counts) {
+
+		int used = 0;
+		for (int count : counts)
+		{
+			if (count > 0) {
+				used++;
+			}
+		}
+		if (used == counts.length) {
+			return counts;
+		}
+		int[] remap = new int[counts.length];
+		int[] result = new int[used];
+		int next = 0;
+		for (int t = 0; t < counts.length; t++)
+		{
+			ResourceLocation location = textures.get(t);
+			if (counts[t] > 0)
+			{
+				textures.set(next, location);
+				textureIndexes.put(location, next);
+				result[next] = counts[t];
+				remap[t] = next++;
+			}
+			else textureIndexes.remove(location);
+		}
+		textures.subList(used, textures.size()).clear();
+		for (int i = 0; i < size; i++) {
+			texture[i] = remap[texture[i]];
+		}
+		return result;
+	}
+
+	private void layoutRange(int from, int to, int frameWidth, int frameHeight) {
+
+		for (int i = from; i < to; i++)
+		{
+			Alignment align = ALIGNMENTS[alignment[i]];
+			int sx = align.getX(frameWidth, width[i], offsetX[i]);
+			int sy = align.getY(frameHeight, height[i], offsetY[i]);
+			x[i] = sx;
+			y[i] = sy;
+
+			int q = slot[i] * QUAD_STRIDE;
+			quads[q] = sx;
+			quads[q + 1] = sy;
+			quads[q + 2] = sx + width[i];
+			quads[q + 3] = sy + height[i];
+			quads[q + 4] = u0[i];
+			quads[q + 5] = v0[i];
+			quads[q + 6] = u1[i];
+			quads[q + 7] = v1[i];
+		}
+	}
+
+	/**
+	 * Draw all sprites with the current render backend in a single batch, binding each texture
+	 * once and rebinding the HUD sprite map expected by vanilla at the end. The store is laid out
+	 * again first if any sprite changed or the window was resized, in parallel when the store
+	 * is larger then {@link ParallelRange#DEFAULT_THRESHOLD}.
+	 */
+	public void draw() {
+
+		RenderBackend backend = GuiElement.getRenderBackend();
+		int fw = backend.getScaledWidth(), fh = backend.getScaledHeight();
+		if (dirty || fw != frameWidth || fh != frameHeight)
+		{
+			if (size > ParallelRange.DEFAULT_THRESHOLD) {
+				parallelLayout(ForkJoinPool.commonPool(), fw, fh);
+			}
+			else layout(fw, fh);
+		}
+		GuiElement.beginBatch();
+		int from = 0;
+		while (from < size)
+		{
+			int current = texture[order[from]];
+			int to = from + 1;
+			while (to < size && texture[order[to]] == current) {
+				to++;
+			}
+			RenderStateCache.bindTexture(textures.get(current));
+			backend.blitQuads(quads, from, to - from);
+			from = to;
+		}
+		GuiElement.endBatch();
+	}
+
+	private void checkIndex(int index) {
+
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Sprite index " + index + " out of bounds for size " + size);
+		}
+	}
+
+	/**
+	 * @return number of sprites in the store.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return number of textures in the store. Textures of removed sprites
+	 * 		are only counted until the store is laid out again.
+	 */
+	public int getTextureCount() {
+		return textures.size();
+	}
+
+	/**
+	 * @return sprite position along {@code x} axis computed by the last layout.
+	 */
+	public int getX(int index) {
+
+		checkIndex(index);
+		return x[index];
+	}
+
+	/**
+	 * @return sprite position along {@code y} axis computed by the last layout.
+	 */
+	public int getY(int index) {
+
+		checkIndex(index);
+		return y[index];
+	}
+
+	public int getWidth(int index) {
+
+		checkIndex(index);
+		return width[index];
+	}
+
+	public int getHeight(int index) {
+
+		checkIndex(index);
+		return height[index];
+	}
+
+	public ResourceLocation getTexture(int index) {
+
+		checkIndex(index);
+		return textures.get(texture[index]);
+	}
+
+	public Alignment getAlignment(int index) {
+
+		checkIndex(index);
+		return ALIGNMENTS[alignment[index]];
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.lang;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * <p>
+ *     Set of common easing curves used to animate values over time.
+ * <p>
+ *     Each curve is sampled {@code 1024} times when the class is loaded and {@link #apply(float)}
+ *     linearly interpolates between samples, which avoids calling {@code Math.pow} and
+ *     {@code Math.sin} each frame. The maximum absolute error of the interpolated value is
+ *     listed next to each curve. Use {@link #applyExact(double)} when exact values are required.
+ * </p>
+ *
+ * @see <a href="https://easings.net/">Easing Functions Cheat Sheet</a>
+ */
+public enum Easing {
+
+	LINEAR(t -> t),                                                                 // exact
+	QUAD_IN(t -> t * t),                                                            // 2.7E-7
+	QUAD_OUT(t -> 1 - (1 - t) * (1 - t)),                                           // 2.7E-7
+	QUAD_IN_OUT(t -> t < 0.5 ? 2 * t * t : 1 - Math.pow(-2 * t + 2, 2) / 2),        // 5.1E-7
+	CUBIC_IN(t -> t * t * t),                                                       // 7.7E-7
+	CUBIC_OUT(t -> 1 - Math.pow(1 - t, 3)),                                         // 7.2E-7
+	CUBIC_IN_OUT(t -> t < 0.5 ? 4 * t * t * t : 1 - Math.pow(-2 * t + 2, 3) / 2),   // 1.5E-6
+	SINE_IN(t -> 1 - Math.cos(t * Math.PI / 2)),                                    // 3.0E-7
+	SINE_OUT(t -> Math.sin(t * Math.PI / 2)),                                       // 3.6E-7
+	SINE_IN_OUT(t -> -(Math.cos(Math.PI * t) - 1) / 2),                             // 6.5E-7
+	EXPO_IN(t -> t == 0 ? 0 : Math.pow(2, 10 * t - 10)),                            // 9.8E-4 near 0
+	EXPO_OUT(t -> t == 1 ? 1 : 1 - Math.pow(2, -10 * t)),                           // 9.8E-4 near 1
+	BACK_OUT(t -> 1 + 2.70158 * Math.pow(t - 1, 3) + 1.70158 * Math.pow(t - 1, 2)), // 1.6E-6
+	BOUNCE_OUT(Easing::bounceOut);                                                  // 1.9E-3
+
+	private static final int SAMPLES = 1024;
+
+	private final DoubleUnaryOperator function;
+	private final float[] table = new float[SAMPLES + 1];
+
+	Easing(DoubleUnaryOperator function) {
+
+		this.function = function;
+		for (int i = 0; i <= SAMPLES; i++) {
+			table[i] = (float) function.applyAsDouble((double) i / SAMPLES);
+		}
+	}
+
+	private static double bounceOut(double t) {
+
+		final double n = 7.5625, d = 2.75;
+		if (t < 1 / d) {
+			return n * t * t;
+		}
+		else if (t < 2 / d) {
+			return n * (t -= 1.5 / d) * t + 0.75;
+		}
+		else if (t < 2.5 / d) {
+			return n * (t -= 2.25 / d) * t + 0.9375;
+		}
+		else return n * (t -= 2.625 / d) * t + 0.984375;
+	}
+
+	/**
+	 * Interpolate the precomputed curve at the given progress.
+	 *
+	 * @param t animation progress, values outside range {@code [0, 1]} are clamped.
+	 * @return eased progress value.
+	 */
+	public float apply(float t) {
+
+		float index = Math.min(Math.max(t, 0f), 1f) * SAMPLES;
+		int i = (int) index;
+		if (i == SAMPLES) {
+			return table[SAMPLES];
+		}
+		return table[i] + (table[i + 1] - table[i]) * (index - i);
+	}
+
+	/**
+	 * @see #apply(float)
+	 */
+	public float apply(float from, float to, float t) {
+		return from + (to - from) * apply(t);
+	}
+
+	/**
+	 * Compute the exact curve value at the given progress.
+	 *
+	 * @param t animation progress, values outside range {@code [0, 1]} are clamped.
+	 * @return eased progress value.
+	 */
+	public double applyExact(double t) {
+		return function.applyAsDouble(Math.min(Math.max(t, 0.0), 1.0));
+	}
+}
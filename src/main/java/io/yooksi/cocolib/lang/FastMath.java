@@ -0,0 +1,139 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.lang;
+
+/**
+ * <p>
+ *     Fast approximate math functions intended for animation and rendering,
+ *     where a small error is not noticeable but calls are made many times per frame.
+ * <p>
+ *     Error bounds documented for each method are absolute unless stated otherwise.
+ *     Use {@link Math} when exact results are required.
+ * </p>
+ */
+public final class FastMath {
+
+	private static final int SIN_BITS = 12;
+	private static final int SIN_SIZE = 1 << SIN_BITS;
+	private static final int SIN_MASK = SIN_SIZE - 1;
+
+	private static final float TWO_PI = (float) (Math.PI * 2);
+	private static final float HALF_PI = (float) (Math.PI / 2);
+	private static final float SIN_SCALE = SIN_SIZE / TWO_PI;
+
+	/*
+	 * Sine values for one full period with an additional entry at the end
+	 * so that interpolation never has to wrap around the table
+	 */
+	private static final float[] SIN_TABLE = new float[SIN_SIZE + 1];
+
+	/** Fixed-point representation of {@code 1.0} used by {@link #lerpFixed(int, int, int)}. */
+	public static final int FIXED_ONE = 1 << 16;
+
+	static
+	{
+		for (int i = 0; i <= SIN_SIZE; i++) {
+			SIN_TABLE[i] = (float) Math.sin(i * Math.PI * 2 / SIN_SIZE);
+		}
+	}
+
+	private FastMath() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Table-driven sine function with linear interpolation between {@code 4096} samples.
+	 * <p>
+	 *     The maximum error is {@code 6.5E-7} for angles within {@code ±2π} and grows with
+	 *     the magnitude of the angle due to {@code float} precision, reaching about {@code 1.0E-4}
+	 *     at {@code ±1000} radians. Keep angles wrapped when animating over long periods of time.
+	 * </p>
+	 * @param radians angle expressed in radians.
+	 */
+	public static float sin(float radians) {
+
+		float index = radians * SIN_SCALE;
+		int i = (int) index;
+		if (index < i) {
+			i--;
+		}
+		float fraction = index - i;
+		i &= SIN_MASK;
+		return SIN_TABLE[i] + (SIN_TABLE[i + 1] - SIN_TABLE[i]) * fraction;
+	}
+
+	/**
+	 * Table-driven cosine function with the same error bounds as {@link #sin(float)}.
+	 * @param radians angle expressed in radians.
+	 */
+	public static float cos(float radians) {
+		return sin(radians + HALF_PI);
+	}
+
+	/**
+	 * Approximate {@code 1 / sqrt(x)} using the bit-level initial guess followed by one
+	 * iteration of Newton's method. The maximum <b>relative</b> error is {@code 1.8E-3}.
+	 * <p>
+	 *     Note that on modern hardware {@code 1 / (float) Math.sqrt(x)} is an intrinsic and
+	 *     usually just as fast, so prefer this method only where the error is acceptable
+	 *     and measurements show a benefit.
+	 * </p>
+	 * @param x positive number, results for zero and negative numbers are undefined.
+	 */
+	public static float invSqrt(float x) {
+
+		float half = 0.5f * x;
+		float y = Float.intBitsToFloat(0x5f3759df - (Float.floatToRawIntBits(x) >> 1));
+		return y * (1.5f - half * y * y);
+	}
+
+	/**
+	 * Linearly interpolate between two values.
+	 *
+	 * @param from value returned when {@code t} is {@code 0}.
+	 * @param to value returned when {@code t} is {@code 1}.
+	 * @param t interpolation progress, usually in range {@code [0, 1]}.
+	 */
+	public static float lerp(float from, float to, float t) {
+		return from + (to - from) * t;
+	}
+
+	/**
+	 * Linearly interpolate between two integer values using {@code 16.16} fixed-point progress.
+	 * The result is rounded toward negative infinity, so the error is less then {@code 1}.
+	 *
+	 * @param from value returned when {@code t} is {@code 0}.
+	 * @param to value returned when {@code t} is {@link #FIXED_ONE}.
+	 * @param t fixed-point interpolation progress in range {@code [0, FIXED_ONE]}.
+	 *
+	 * @see #toFixed(float)
+	 */
+	public static int lerpFixed(int from, int to, int t) {
+		return from + (int) (((long) to - from) * t >> 16);
+	}
+
+	/**
+	 * @return given value converted to {@code 16.16} fixed-point representation.
+	 */
+	public static int toFixed(float value) {
+		return (int) (value * FIXED_ONE);
+	}
+
+	/**
+	 * @return given {@code 16.16} fixed-point value converted to {@code float}.
+	 */
+	public static float fromFixed(int value) {
+		return value / (float) FIXED_ONE;
+	}
+}
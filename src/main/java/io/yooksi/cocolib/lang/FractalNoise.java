@@ -0,0 +1,121 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.lang;
+
+/**
+ * <p>
+ *     Fractal (fractional Brownian motion) noise that sums multiple octaves of
+ *     the source noise, each with higher frequency and lower amplitude.
+ * <p>
+ *     The result is normalized by the sum of octave amplitudes so values stay within
+ *     {@code [-1, 1]}. Instances are immutable and safe to share between threads.
+ * </p>
+ */
+public final class FractalNoise implements NoiseGenerator {
+
+	private final NoiseGenerator source;
+	private final int octaves;
+	private final double lacunarity, persistence;
+	private final double normalizer;
+
+	/**
+	 * @param source noise generator used to sample each octave.
+	 * @param octaves number of octaves to sum.
+	 * @param lacunarity frequency multiplier applied to each following octave.
+	 * @param persistence amplitude multiplier applied to each following octave.
+	 *
+	 * @throws IllegalArgumentException if number of octaves is less then {@code 1}
+	 * 		or persistence is not a positive number.
+	 */
+	public FractalNoise(NoiseGenerator source, int octaves, double lacunarity, double persistence) {
+
+		if (octaves < 1) {
+			throw new IllegalArgumentException("Invalid number of octaves " + octaves);
+		}
+		if (!(persistence > 0)) {
+			throw new IllegalArgumentException("Invalid persistence " + persistence);
+		}
+		this.source = source;
+		this.octaves = octaves;
+		this.lacunarity = lacunarity;
+		this.persistence = persistence;
+
+		double amplitude = 1, sum = 0;
+		for (int i = 0; i < octaves; i++)
+		{
+			sum += amplitude;
+			amplitude *= persistence;
+		}
+		this.normalizer = 1 / sum;
+	}
+
+	/**
+	 * Create fractal noise with commonly used lacunarity of {@code 2} and persistence of {@code 0.5}.
+	 * @see #FractalNoise(NoiseGenerator, int, double, double)
+	 */
+	public FractalNoise(NoiseGenerator source, int octaves) {
+		this(source, octaves, 2.0, 0.5);
+	}
+
+	@Override
+	public double sample(double x, double y) {
+
+		double result = 0, frequency = 1, amplitude = 1;
+		for (int i = 0; i < octaves; i++)
+		{
+			result += source.sample(x * frequency, y * frequency) * amplitude;
+			frequency *= lacunarity;
+			amplitude *= persistence;
+		}
+		return result * normalizer;
+	}
+
+	@Override
+	public double sample(double x, double y, double z) {
+
+		double result = 0, frequency = 1, amplitude = 1;
+		for (int i = 0; i < octaves; i++)
+		{
+			result += source.sample(x * frequency, y * frequency, z * frequency) * amplitude;
+			frequency *= lacunarity;
+			amplitude *= persistence;
+		}
+		return result * normalizer;
+	}
+
+	@Override
+	public double sample(double x, double y, double z, double w) {
+
+		double result = 0, frequency = 1, amplitude = 1;
+		for (int i = 0; i < octaves; i++)
+		{
+			result += source.sample(x * frequency, y * frequency, z * frequency, w * frequency) * amplitude;
+			frequency *= lacunarity;
+			amplitude *= persistence;
+		}
+		return result * normalizer;
+	}
+
+	public int getOctaves() {
+		return octaves;
+	}
+
+	public double getLacunarity() {
+		return lacunarity;
+	}
+
+	public double getPersistence() {
+		return persistence;
+	}
+}
@@ -13,6 +13,19 @@
  */
 package io.yooksi.cocolib.lang;
 
+/**
+ * <p>
+ *     Collection of general purpose math methods.
+ * <p>
+ *     Array methods are written as simple counted loops without method calls or branches
+ *     in the loop body. HotSpot can auto-vectorize the element-wise methods that write each
+ *     value on its own, like {@code setValuesInRange} and {@code getPercentages}. Reductions
+ *     that combine values into a single result are not guaranteed to be vectorized, and floating
+ *     point sums never are, as Java requires the additions to happen in order. Methods prefixed with
+ *     {@code parallel} split large arrays across the common {@code ForkJoinPool}
+ *     with {@link ParallelRange} and fall back to sequential processing for small arrays.
+ * </p>
+ */
 public class MathTools {
 
 	/** Prevent class instantiation */
@@ -32,6 +45,22 @@ public class MathTools {
 		return Math.min(Math.max(value, min), max);
 	}
 
+	/**
+	 * Ensure the given {@code float} value is within specified {@code min-max} range.
+	 * @see #getValueInRange(int, int, int)
+	 */
+	public static float getValueInRange(float value, float min, float max) {
+		return Math.min(Math.max(value, min), max);
+	}
+
+	/**
+	 * Ensure the given {@code double} value is within specified {@code min-max} range.
+	 * @see #getValueInRange(int, int, int)
+	 */
+	public static double getValueInRange(double value, double min, double max) {
+		return Math.min(Math.max(value, min), max);
+	}
+
 	/**
 	 * @return {@code true} if the given value is within specified {@code min-max} range.
 	 */
@@ -45,4 +74,645 @@ public class MathTools {
 	public static double getPercentage(double value, double from) {
 		return value / from * 100;
 	}
+
+	/**
+	 * Ensure all {@code int} array values are within specified {@code min-max} range.
+	 * @see #setValuesInRange(int[], int, int, int, int)
+	 */
+	public static void setValuesInRange(int[] values, int min, int max) {
+		setValuesInRange(values, 0, values.length, min, max);
+	}
+
+	/**
+	 * Ensure {@code int} array values in the given index range are within specified
+	 * {@code min-max} range. Values outside the range are replaced in-place.
+	 *
+	 * @param values array of values to process
+	 * @param fromIndex index of the first element (inclusive)
+	 * @param toIndex index of the last element (exclusive)
+	 * @param min minimum allowed value
+	 * @param max maximum allowed value
+	 *
+	 * @see #getValueInRange(int, int, int)
+	 */
+	public static void setValuesInRange(int[] values, int fromIndex, int toIndex, int min, int max) {
+
+		checkRange(values.length, fromIndex, toIndex);
+		for (int i = fromIndex; i < toIndex; i++) {
+			values[i] = Math.min(Math.max(values[i], min), max);
+		}
+	}
+
+	/**
+	 * Parallel variant of {@link #setValuesInRange(int[], int, int)} that splits
+	 * arrays larger then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static void parallelSetValuesInRange(int[] values, int min, int max) {
+		ParallelRange.forEach(0, values.length, (from, to) -> setValuesInRange(values, from, to, min, max));
+	}
+
+	/**
+	 * @return number of {@code int} array values that are within specified {@code min-max} range.
+	 * @see #countValuesInRange(int[], int, int, int, int)
+	 */
+	public static int countValuesInRange(int[] values, int min, int max) {
+		return countValuesInRange(values, 0, values.length, min, max);
+	}
+
+	/**
+	 * @param values array of values to process
+	 * @param fromIndex index of the first element (inclusive)
+	 * @param toIndex index of the last element (exclusive)
+	 * @param min minimum allowed value
+	 * @param max maximum allowed value
+	 *
+	 * @return number of {@code int} array values in the given index range
+	 * 		that are within specified {@code min-max} range.
+	 */
+	public static int countValuesInRange(int[] values, int fromIndex, int toIndex, int min, int max) {
+
+		checkRange(values.length, fromIndex, toIndex);
+		int count = 0;
+		for (int i = fromIndex; i < toIndex; i++) {
+			count += (values[i] >= min) & (values[i] <= max) ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Parallel variant of {@link #countValuesInRange(int[], int, int)} that splits
+	 * arrays larger then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static int parallelCountValuesInRange(int[] values, int min, int max) {
+		return (int) ParallelRange.reduceToLong(0, values.length,
+				(from, to) -> countValuesInRange(values, from, to, min, max), Long::sum);
+	}
+
+	/**
+	 * Calculate what percent each {@code int} array value is from param {@code from}.
+	 * @see #getPercentages(int[], int, int, double, double[])
+	 */
+	public static void getPercentages(int[] values, double from, double[] dest) {
+		getPercentages(values, 0, values.length, from, dest);
+	}
+
+	/**
+	 * Calculate what percent each {@code int} array value in the given index range is from param
+	 * {@code from} and store the results at the same indexes in the destination array.
+	 *
+	 * @param values array of values to process
+	 * @param fromIndex index of the first element (inclusive)
+	 * @param toIndex index of the last element (exclusive)
+	 * @param from value that represents one hundred percent
+	 * @param dest array to store the percentages in
+	 *
+	 * @see #getPercentage(double, double)
+	 */
+	public static void getPercentages(int[] values, int fromIndex, int toIndex, double from, double[] dest) {
+
+		checkRange(values.length, fromIndex, toIndex);
+		checkRange(dest.length, fromIndex, toIndex);
+		for (int i = fromIndex; i < toIndex; i++) {
+			dest[i] = values[i] / from * 100;
+		}
+	}
+
+	/**
+	 * Parallel variant of {@link #getPercentages(int[], double, double[])} that splits
+	 * arrays larger then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static void parallelGetPercentages(int[] values, double from, double[] dest) {
+		ParallelRange.forEach(0, values.length, (start, end) -> getPercentages(values, start, end, from, dest));
+	}
+
+	/**
+	 * @return smallest value in the given {@code int} array.
+	 * @throws IllegalArgumentException if the array is empty.
+	 */
+	public static int min(int[] values) {
+		return min(values, 0, values.length);
+	}
+
+	/**
+	 * @return smallest value in the given index range of {@code int} array.
+	 * @throws IllegalArgumentException if the index range is empty.
+	 */
+	public static int min(int[] values, int fromIndex, int toIndex) {
+
+		checkNonEmptyRange(values.length, fromIndex, toIndex);
+		int result = values[fromIndex];
+		for (int i = fromIndex + 1; i < toIndex; i++) {
+			result = Math.min(result, values[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Parallel variant of {@link #min(int[])} that splits arrays larger
+	 * then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static int parallelMin(int[] values) {
+
+		checkNonEmptyRange(values.length, 0, values.length);
+		return (int) ParallelRange.reduceToLong(0, values.length, (from, to) -> min(values, from, to), Math::min);
+	}
+
+	/**
+	 * @return largest value in the given {@code int} array.
+	 * @throws IllegalArgumentException if the array is empty.
+	 */
+	public static int max(int[] values) {
+		return max(values, 0, values.length);
+	}
+
+	/**
+	 * @return largest value in the given index range of {@code int} array.
+	 * @throws IllegalArgumentException if the index range is empty.
+	 */
+	public static int max(int[] values, int fromIndex, int toIndex) {
+
+		checkNonEmptyRange(values.length, fromIndex, toIndex);
+		int result = values[fromIndex];
+		for (int i = fromIndex + 1; i < toIndex; i++) {
+			result = Math.max(result, values[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Parallel variant of {@link #max(int[])} that splits arrays larger
+	 * then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static int parallelMax(int[] values) {
+
+		checkNonEmptyRange(values.length, 0, values.length);
+		return (int) ParallelRange.reduceToLong(0, values.length, (from, to) -> max(values, from, to), Math::max);
+	}
+
+	/**
+	 * @return sum of all values in the given {@code int} array.
+	 */
+	public static long sum(int[] values) {
+		return sum(values, 0, values.length);
+	}
+
+	/**
+	 * @return sum of values in the given index range of {@code int} array.
+	 */
+	public static long sum(int[] values, int fromIndex, int toIndex) {
+
+		checkRange(values.length, fromIndex, toIndex);
+		long result = 0;
+		for (int i = fromIndex; i < toIndex; i++) {
+			result += values[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Parallel variant of {@link #sum(int[])} that splits arrays larger
+	 * then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static long parallelSum(int[] values) {
+		return ParallelRange.reduceToLong(0, values.length, (from, to) -> sum(values, from, to), Long::sum);
+	}
+
+	/**
+	 * Ensure all {@code float} array values are within specified {@code min-max} range.
+	 * @see #setValuesInRange(float[], int, int, float, float)
+	 */
+	public static void setValuesInRange(float[] values, float min, float max) {
+		setValuesInRange(values, 0, values.length, min, max);
+	}
+
+	/**
+	 * Ensure {@code float} array values in the given index range are within specified
+	 * {@code min-max} range. Values outside the range are replaced in-place.
+	 *
+	 * @param values array of values to process
+	 * @param fromIndex index of the first element (inclusive)
+	 * @param toIndex index of the last element (exclusive)
+	 * @param min minimum allowed value
+	 * @param max maximum allowed value
+	 *
+	 * @see #getValueInRange(float, float, float)
+	 */
+	public static void setValuesInRange(float[] values, int fromIndex, int toIndex, float min, float max) {
+
+		checkRange(values.length, fromIndex, toIndex);
+		for (int i = fromIndex; i < toIndex; i++) {
+			values[i] = Math.min(Math.max(values[i], min), max);
+		}
+	}
+
+	/**
+	 * Parallel variant of {@link #setValuesInRange(float[], float, float)} that splits
+	 * arrays larger then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static void parallelSetValuesInRange(float[] values, float min, float max) {
+		ParallelRange.forEach(0, values.length, (from, to) -> setValuesInRange(values, from, to, min, max));
+	}
+
+	/**
+	 * @return number of {@code float} array values that are within specified {@code min-max} range.
+	 * @see #countValuesInRange(float[], int, int, float, float)
+	 */
+	public static int countValuesInRange(float[] values, float min, float max) {
+		return countValuesInRange(values, 0, values.length, min, max);
+	}
+
+	/**
+	 * @param values array of values to process
+	 * @param fromIndex index of the first element (inclusive)
+	 * @param toIndex index of the last element (exclusive)
+	 * @param min minimum allowed value
+	 * @param max maximum allowed value
+	 *
+	 * @return number of {@code float} array values in the given index range
+	 * 		that are within specified {@code min-max} range.
+	 */
+	public static int countValuesInRange(float[] values, int fromIndex, int toIndex, float min, float max) {
+
+		checkRange(values.length, fromIndex, toIndex);
+		int count = 0;
+		for (int i = fromIndex; i < toIndex; i++) {
+			count += (values[i] >= min) & (values[i] <= max) ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Parallel variant of {@link #countValuesInRange(float[], float, float)} that splits
+	 * arrays larger then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static int parallelCountValuesInRange(float[] values, float min, float max) {
+		return (int) ParallelRange.reduceToLong(0, values.length,
+				(from, to) -> countValuesInRange(values, from, to, min, max), Long::sum);
+	}
+
+	/**
+	 * Calculate what percent each {@code float} array value is from param {@code from}.
+	 * @see #getPercentages(float[], int, int, double, float[])
+	 */
+	public static void getPercentages(float[] values, double from, float[] dest) {
+		getPercentages(values, 0, values.length, from, dest);
+	}
+
+	/**
+	 * Calculate what percent each {@code float} array value in the given index range is from param
+	 * {@code from} and store the results at the same indexes in the destination array.
+	 *
+	 * @param values array of values to process
+	 * @param fromIndex index of the first element (inclusive)
+	 * @param toIndex index of the last element (exclusive)
+	 * @param from value that represents one hundred percent
+	 * @param dest array to store the percentages in, can be the same as {@code values}
+	 *
+	 * @see #getPercentage(double, double)
+	 */
+	public static void getPercentages(float[] values, int fromIndex, int toIndex, double from, float[] dest) {
+
+		checkRange(values.length, fromIndex, toIndex);
+		checkRange(dest.length, fromIndex, toIndex);
+		for (int i = fromIndex; i < toIndex; i++) {
+			dest[i] = (float) (values[i] / from * 100);
+		}
+	}
+
+	/**
+	 * Parallel variant of {@link #getPercentages(float[], double, float[])} that splits
+	 * arrays larger then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static void parallelGetPercentages(float[] values, double from, float[] dest) {
+		ParallelRange.forEach(0, values.length, (start, end) -> getPercentages(values, start, end, from, dest));
+	}
+
+	/**
+	 * @return smallest value in the given {@code float} array.
+	 * @throws IllegalArgumentException if the array is empty.
+	 */
+	public static float min(float[] values) {
+		return min(values, 0, values.length);
+	}
+
+	/**
+	 * @return smallest value in the given index range of {@code float} array.
+	 * @throws IllegalArgumentException if the index range is empty.
+	 */
+	public static float min(float[] values, int fromIndex, int toIndex) {
+
+		checkNonEmptyRange(values.length, fromIndex, toIndex);
+		float result = values[fromIndex];
+		for (int i = fromIndex + 1; i < toIndex; i++) {
+			result = Math.min(result, values[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Parallel variant of {@link #min(float[])} that splits arrays larger
+	 * then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static float parallelMin(float[] values) {
+
+		checkNonEmptyRange(values.length, 0, values.length);
+		return (float) ParallelRange.reduceToDouble(0, values.length, (from, to) -> min(values, from, to), Math::min);
+	}
+
+	/**
+	 * @return largest value in the given {@code float} array.
+	 * @throws IllegalArgumentException if the array is empty.
+	 */
+	public static float max(float[] values) {
+		return max(values, 0, values.length);
+	}
+
+	/**
+	 * @return largest value in the given index range of {@code float} array.
+	 * @throws IllegalArgumentException if the index range is empty.
+	 */
+	public static float max(float[] values, int fromIndex, int toIndex) {
+
+		checkNonEmptyRange(values.length, fromIndex, toIndex);
+		float result = values[fromIndex];
+		for (int i = fromIndex + 1; i < toIndex; i++) {
+			result = Math.max(result, values[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Parallel variant of {@link #max(float[])} that splits arrays larger
+	 * then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static float parallelMax(float[] values) {
+
+		checkNonEmptyRange(values.length, 0, values.length);
+		return (float) ParallelRange.reduceToDouble(0, values.length, (from, to) -> max(values, from, to), Math::max);
+	}
+
+	/**
+	 * @return sum of all values in the given {@code float} array.
+	 */
+	public static double sum(float[] values) {
+		return sum(values, 0, values.length);
+	}
+
+	/**
+	 * @return sum of values in the given index range of {@code float} array, accumulated in {@code double} precision.
+	 */
+	public static double sum(float[] values, int fromIndex, int toIndex) {
+
+		checkRange(values.length, fromIndex, toIndex);
+		double result = 0;
+		for (int i = fromIndex; i < toIndex; i++) {
+			result += values[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Parallel variant of {@link #sum(float[])} that splits arrays larger
+	 * then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 * <p>
+	 *     Note that floating point addition is not associative, so the result can differ
+	 *     from the sequential variant in the last bits, but is always the same for the same array.
+	 */
+	public static double parallelSum(float[] values) {
+		return ParallelRange.reduceToDouble(0, values.length, (from, to) -> sum(values, from, to), Double::sum);
+	}
+
+	/**
+	 * Ensure all {@code double} array values are within specified {@code min-max} range.
+	 * @see #setValuesInRange(double[], int, int, double, double)
+	 */
+	public static void setValuesInRange(double[] values, double min, double max) {
+		setValuesInRange(values, 0, values.length, min, max);
+	}
+
+	/**
+	 * Ensure {@code double} array values in the given index range are within specified
+	 * {@code min-max} range. Values outside the range are replaced in-place.
+	 *
+	 * @param values array of values to process
+	 * @param fromIndex index of the first element (inclusive)
+	 * @param toIndex index of the last element (exclusive)
+	 * @param min minimum allowed value
+	 * @param max maximum allowed value
+	 *
+	 * @see #getValueInRange(double, double, double)
+	 */
+	public static void setValuesInRange(double[] values, int fromIndex, int toIndex, double min, double max) {
+
+		checkRange(values.length, fromIndex, toIndex);
+		for (int i = fromIndex; i < toIndex; i++) {
+			values[i] = Math.min(Math.max(values[i], min), max);
+		}
+	}
+
+	/**
+	 * Parallel variant of {@link #setValuesInRange(double[], double, double)} that splits
+	 * arrays larger then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static void parallelSetValuesInRange(double[] values, double min, double max) {
+		ParallelRange.forEach(0, values.length, (from, to) -> setValuesInRange(values, from, to, min, max));
+	}
+
+	/**
+	 * @return number of {@code double} array values that are within specified {@code min-max} range.
+	 * @see #countValuesInRange(double[], int, int, double, double)
+	 */
+	public static int countValuesInRange(double[] values, double min, double max) {
+		return countValuesInRange(values, 0, values.length, min, max);
+	}
+
+	/**
+	 * @param values array of values to process
+	 * @param fromIndex index of the first element (inclusive)
+	 * @param toIndex index of the last element (exclusive)
+	 * @param min minimum allowed value
+	 * @param max maximum allowed value
+	 *
+	 * @return number of {@code double} array values in the given index range
+	 * 		that are within specified {@code min-max} range.
+	 */
+	public static int countValuesInRange(double[] values, int fromIndex, int toIndex, double min, double max) {
+
+		checkRange(values.length, fromIndex, toIndex);
+		int count = 0;
+		for (int i = fromIndex; i < toIndex; i++) {
+			count += (values[i] >= min) & (values[i] <= max) ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Parallel variant of {@link #countValuesInRange(double[], double, double)} that splits
+	 * arrays larger then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static int parallelCountValuesInRange(double[] values, double min, double max) {
+		return (int) ParallelRange.reduceToLong(0, values.length,
+				(from, to) -> countValuesInRange(values, from, to, min, max), Long::sum);
+	}
+
+	/**
+	 * Calculate what percent each {@code double} array value is from param {@code from}.
+	 * @see #getPercentages(double[], int, int, double, double[])
+	 */
+	public static void getPercentages(double[] values, double from, double[] dest) {
+		getPercentages(values, 0, values.length, from, dest);
+	}
+
+	/**
+	 * Calculate what percent each {@code double} array value in the given index range is from param
+	 * {@code from} and store the results at the same indexes in the destination array.
+	 *
+	 * @param values array of values to process
+	 * @param fromIndex index of the first element (inclusive)
+	 * @param toIndex index of the last element (exclusive)
+	 * @param from value that represents one hundred percent
+	 * @param dest array to store the percentages in, can be the same as {@code values}
+	 *
+	 * @see #getPercentage(double, double)
+	 */
+	public static void getPercentages(double[] values, int fromIndex, int toIndex, double from, double[] dest) {
+
+		checkRange(values.length, fromIndex, toIndex);
+		checkRange(dest.length, fromIndex, toIndex);
+		for (int i = fromIndex; i < toIndex; i++) {
+			dest[i] = values[i] / from * 100;
+		}
+	}
+
+	/**
+	 * Parallel variant of {@link #getPercentages(double[], double, double[])} that splits
+	 * arrays larger then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static void parallelGetPercentages(double[] values, double from, double[] dest) {
+		ParallelRange.forEach(0, values.length, (start, end) -> getPercentages(values, start, end, from, dest));
+	}
+
+	/**
+	 * @return smallest value in the given {@code double} array.
+	 * @throws IllegalArgumentException if the array is empty.
+	 */
+	public static double min(double[] values) {
+		return min(values, 0, values.length);
+	}
+
+	/**
+	 * @return smallest value in the given index range of {@code double} array.
+	 * @throws IllegalArgumentException if the index range is empty.
+	 */
+	public static double min(double[] values, int fromIndex, int toIndex) {
+
+		checkNonEmptyRange(values.length, fromIndex, toIndex);
+		double result = values[fromIndex];
+		for (int i = fromIndex + 1; i < toIndex; i++) {
+			result = Math.min(result, values[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Parallel variant of {@link #min(double[])} that splits arrays larger
+	 * then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static double parallelMin(double[] values) {
+
+		checkNonEmptyRange(values.length, 0, values.length);
+		return ParallelRange.reduceToDouble(0, values.length, (from, to) -> min(values, from, to), Math::min);
+	}
+
+	/**
+	 * @return largest value in the given {@code double} array.
+	 * @throws IllegalArgumentException if the array is empty.
+	 */
+	public static double max(double[] values) {
+		return max(values, 0, values.length);
+	}
+
+	/**
+	 * @return largest value in the given index range of {@code double} array.
+	 * @throws IllegalArgumentException if the index range is empty.
+	 */
+	public static double max(double[] values, int fromIndex, int toIndex) {
+
+		checkNonEmptyRange(values.length, fromIndex, toIndex);
+		double result = values[fromIndex];
+		for (int i = fromIndex + 1; i < toIndex; i++) {
+			result = Math.max(result, values[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Parallel variant of {@link #max(double[])} that splits arrays larger
+	 * then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 */
+	public static double parallelMax(double[] values) {
+
+		checkNonEmptyRange(values.length, 0, values.length);
+		return ParallelRange.reduceToDouble(0, values.length, (from, to) -> max(values, from, to), Math::max);
+	}
+
+	/**
+	 * @return sum of all values in the given {@code double} array.
+	 */
+	public static double sum(double[] values) {
+		return sum(values, 0, values.length);
+	}
+
+	/**
+	 * @return sum of values in the given index range of {@code double} array.
+	 */
+	public static double sum(double[] values, int fromIndex, int toIndex) {
+
+		checkRange(values.length, fromIndex, toIndex);
+		double result = 0;
+		for (int i = fromIndex; i < toIndex; i++) {
+			result += values[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Parallel variant of {@link #sum(double[])} that splits arrays larger
+	 * then {@link ParallelRange#DEFAULT_THRESHOLD} across the common pool.
+	 * <p>
+	 *     Note that floating point addition is not associative, so the result can differ
+	 *     from the sequential variant in the last bits, but is always the same for the same array.
+	 */
+	public static double parallelSum(double[] values) {
+		return ParallelRange.reduceToDouble(0, values.length, (from, to) -> sum(values, from, to), Double::sum);
+	}
+
+	/**
+	 * @throws ArrayIndexOutOfBoundsException if the index range is outside array bounds.
+	 * @throws IllegalArgumentException if {@code fromIndex} is greater then {@code toIndex}.
+	 */
+	private static void checkRange(int length, int fromIndex, int toIndex) {
+
+		if (fromIndex > toIndex) {
+			throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+		}
+		if (fromIndex < 0) {
+			throw new ArrayIndexOutOfBoundsException(fromIndex);
+		}
+		if (toIndex > length) {
+			throw new ArrayIndexOutOfBoundsException(toIndex);
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the index range is empty.
+	 * @see #checkRange(int, int, int)
+	 */
+	private static void checkNonEmptyRange(int length, int fromIndex, int toIndex) {
+
+		checkRange(length, fromIndex, toIndex);
+		if (fromIndex == toIndex) {
+			throw new IllegalArgumentException("Index range is empty");
+		}
+	}
 }
@@ -0,0 +1,137 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.lang;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>
+ *     Source of coherent noise values in range {@code [-1, 1]}.
+ * <p>
+ *     Implementations are expected to be immutable and thread-safe, which allows bulk fill
+ *     methods to split large regions across a {@code ForkJoinPool}. Each value is computed
+ *     independently from it's own coordinates, so parallel fills always produce exactly
+ *     the same results as sequential fills regardless of the number of threads used.
+ * </p>
+ */
+public interface NoiseGenerator {
+
+	/**
+	 * @return noise value at the given {@code 2D} coordinates.
+	 */
+	double sample(double x, double y);
+
+	/**
+	 * @return noise value at the given {@code 3D} coordinates.
+	 */
+	double sample(double x, double y, double z);
+
+	/**
+	 * @return noise value at the given {@code 4D} coordinates.
+	 */
+	double sample(double x, double y, double z, double w);
+
+	/**
+	 * Fill a region of the given array with {@code 2D} noise values in row-major order,
+	 * so that the value for column {@code c} and row {@code r} is stored at index
+	 * {@code offset + r * width + c} and sampled at {@code (x + c * step, y + r * step)}.
+	 *
+	 * @param dest array to store noise values in.
+	 * @param offset index in the array of the first value.
+	 * @param width number of columns in the region.
+	 * @param height number of rows in the region.
+	 * @param x noise coordinate of the first column.
+	 * @param y noise coordinate of the first row.
+	 * @param step distance between two adjacent samples in noise coordinates.
+	 *
+	 * @throws ArrayIndexOutOfBoundsException if the region does not fit in the array.
+	 * @throws ArithmeticException if the number of values in the region overflows an {@code int}.
+	 */
+	default void fill(float[] dest, int offset, int width, int height, double x, double y, double step) {
+
+		NoiseRegions.checkRegion(dest, offset, width, height);
+		fillRows(dest, offset, width, 0, height, x, y, step);
+	}
+
+	/**
+	 * Fill a region of the given array with {@code 3D} noise values of a single slice
+	 * on the {@code z} axis. The layout is the same as for {@code 2D} regions.
+	 *
+	 * @param z noise coordinate of the slice.
+	 * @see #fill(float[], int, int, int, double, double, double)
+	 */
+	default void fill(float[] dest, int offset, int width, int height,
+					  double x, double y, double z, double step) {
+
+		NoiseRegions.checkRegion(dest, offset, width, height);
+		fillRows(dest, offset, width, 0, height, x, y, z, step);
+	}
+
+	/**
+	 * Parallel variant of {@link #fill(float[], int, int, int, double, double, double)}
+	 * that splits large regions by rows across the common {@code ForkJoinPool}.
+	 */
+	default void parallelFill(float[] dest, int offset, int width, int height, double x, double y, double step) {
+
+		NoiseRegions.checkRegion(dest, offset, width, height);
+		ParallelRange.forEach(ForkJoinPool.commonPool(), 0, height, NoiseRegions.getRowThreshold(width),
+				(from, to) -> fillRows(dest, offset, width, from, to, x, y, step));
+	}
+
+	/**
+	 * Parallel variant of {@link #fill(float[], int, int, int, double, double, double, double)}
+	 * that splits large regions by rows across the common {@code ForkJoinPool}.
+	 */
+	default void parallelFill(float[] dest, int offset, int width, int height,
+							  double x, double y, double z, double step) {
+
+		NoiseRegions.checkRegion(dest, offset, width, height);
+		ParallelRange.forEach(ForkJoinPool.commonPool(), 0, height, NoiseRegions.getRowThreshold(width),
+				(from, to) -> fillRows(dest, offset, width, from, to, x, y, z, step));
+	}
+
+	/**
+	 * Fill the given range of rows in a {@code 2D} region.
+	 * @see #fill(float[], int, int, int, double, double, double)
+	 */
+	default void fillRows(float[] dest, int offset, int width, int fromRow,
+						  int toRow, double x, double y, double step) {
+
+		for (int row = fromRow; row < toRow; row++)
+		{
+			int index = offset + row * width;
+			double sy = y + row * step;
+			for (int col = 0; col < width; col++) {
+				dest[index + col] = (float) sample(x + col * step, sy);
+			}
+		}
+	}
+
+	/**
+	 * Fill the given range of rows in a {@code 3D} region slice.
+	 * @see #fill(float[], int, int, int, double, double, double, double)
+	 */
+	default void fillRows(float[] dest, int offset, int width, int fromRow,
+						  int toRow, double x, double y, double z, double step) {
+
+		for (int row = fromRow; row < toRow; row++)
+		{
+			int index = offset + row * width;
+			double sy = y + row * step;
+			for (int col = 0; col < width; col++) {
+				dest[index + col] = (float) sample(x + col * step, sy, z);
+			}
+		}
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.lang;
+
+/**
+ * Helper methods used by {@link NoiseGenerator} bulk fill methods.
+ */
+final class NoiseRegions {
+
+	private NoiseRegions() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * @return number of rows processed in a single task so that each task
+	 * 		covers around {@link ParallelRange#DEFAULT_THRESHOLD} values.
+	 */
+	static int getRowThreshold(int width) {
+		return Math.max(1, ParallelRange.DEFAULT_THRESHOLD / Math.max(width, 1));
+	}
+
+	/**
+	 * @throws ArrayIndexOutOfBoundsException if the region does not fit in the array.
+	 * @throws ArithmeticException if the number of values in the region overflows an {@code int}.
+	 */
+	static void checkRegion(float[] dest, int offset, int width, int height) {
+
+		if (width < 0 || height < 0) {
+			throw new ArrayIndexOutOfBoundsException(String.format("Invalid region size %dx%d", width, height));
+		}
+		int length = Math.multiplyExact(width, height);
+		if (offset < 0 || length > dest.length - offset) {
+			throw new ArrayIndexOutOfBoundsException(String.format("Region [%d, %d) " +
+					"is out of bounds for array of length %d", offset, (long) offset + length, dest.length));
+		}
+	}
+}
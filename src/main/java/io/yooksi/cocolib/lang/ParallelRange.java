@@ -0,0 +1,228 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.lang;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * <p>
+ *     Helper class to split work on a range of indexes across a {@link ForkJoinPool}.
+ * <p>
+ *     Ranges are always split in halves until they are no larger then the given threshold.
+ *     Since split points depend only on the range and threshold, the same sub-ranges are
+ *     processed (and reduction results combined in the same order) regardless of the number
+ *     of threads in the pool, which keeps results deterministic.
+ * </p>
+ */
+public final class ParallelRange {
+
+	/** Default size of a range below which work is not split any further. */
+	public static final int DEFAULT_THRESHOLD = 8192;
+
+	private ParallelRange() {
+		throw new UnsupportedOperationException();
+	}
+
+	@FunctionalInterface
+	public interface Action {
+		/**
+		 * Process the given range of indexes.
+		 *
+		 * @param from index of the first element (inclusive).
+		 * @param to index of the last element (exclusive).
+		 */
+		void apply(int from, int to);
+	}
+
+	@FunctionalInterface
+	public interface ToLongFunction {
+		/**
+		 * @return result of processing the given range of indexes.
+		 * @see Action#apply(int, int)
+		 */
+		long apply(int from, int to);
+	}
+
+	@FunctionalInterface
+	public interface ToDoubleFunction {
+		/**
+		 * @return result of processing the given range of indexes.
+		 * @see Action#apply(int, int)
+		 */
+		double apply(int from, int to);
+	}
+
+	/**
+	 * Apply the given action to the range of indexes in the common pool.
+	 * @see #forEach(ForkJoinPool, int, int, int, Action)
+	 */
+	public static void forEach(int from, int to, Action action) {
+		forEach(ForkJoinPool.commonPool(), from, to, DEFAULT_THRESHOLD, action);
+	}
+
+	/**
+	 * Apply the given action to the range of indexes. If the range is not larger then the
+	 * threshold the action is applied on the calling thread, otherwise the range is split
+	 * into sub-ranges that are processed in the given pool.
+	 *
+	 * @param pool pool to execute sub-range tasks in.
+	 * @param from index of the first element (inclusive).
+	 * @param to index of the last element (exclusive).
+	 * @param threshold largest sub-range that will not be split.
+	 * @param action action to apply to each sub-range.
+	 */
+	public static void forEach(ForkJoinPool pool, int from, int to, int threshold, Action action) {
+
+		if (to - from <= threshold) {
+			action.apply(from, to);
+		}
+		else pool.invoke(new ActionTask(from, to, Math.max(threshold, 1), action));
+	}
+
+	/**
+	 * Reduce the range of indexes to a single {@code long} value in the common pool.
+	 * @see #reduceToLong(ForkJoinPool, int, int, int, ToLongFunction, LongBinaryOperator)
+	 */
+	public static long reduceToLong(int from, int to, ToLongFunction function, LongBinaryOperator combiner) {
+		return reduceToLong(ForkJoinPool.commonPool(), from, to, DEFAULT_THRESHOLD, function, combiner);
+	}
+
+	/**
+	 * Reduce the range of indexes to a single {@code long} value. Sub-range results
+	 * are combined in index order, left result being the first combiner argument.
+	 *
+	 * @param function function that computes the result of a sub-range.
+	 * @param combiner function that combines results of two adjacent sub-ranges.
+	 * @see #forEach(ForkJoinPool, int, int, int, Action)
+	 */
+	public static long reduceToLong(ForkJoinPool pool, int from, int to, int threshold,
+									ToLongFunction function, LongBinaryOperator combiner) {
+
+		if (to - from <= threshold) {
+			return function.apply(from, to);
+		}
+		return pool.invoke(new LongTask(from, to, Math.max(threshold, 1), function, combiner));
+	}
+
+	/**
+	 * Reduce the range of indexes to a single {@code double} value in the common pool.
+	 * @see #reduceToDouble(ForkJoinPool, int, int, int, ToDoubleFunction, DoubleBinaryOperator)
+	 */
+	public static double reduceToDouble(int from, int to, ToDoubleFunction function, DoubleBinaryOperator combiner) {
+		return reduceToDouble(ForkJoinPool.commonPool(), from, to, DEFAULT_THRESHOLD, function, combiner);
+	}
+
+	/**
+	 * Reduce the range of indexes to a single {@code double} value. Sub-range results
+	 * are combined in index order, left result being the first combiner argument.
+	 *
+	 * @param function function that computes the result of a sub-range.
+	 * @param combiner function that combines results of two adjacent sub-ranges.
+	 * @see #forEach(ForkJoinPool, int, int, int, Action)
+	 */
+	public static double reduceToDouble(ForkJoinPool pool, int from, int to, int threshold,
+										ToDoubleFunction function, DoubleBinaryOperator combiner) {
+
+		if (to - from <= threshold) {
+			return function.apply(from, to);
+		}
+		return pool.invoke(new DoubleTask(from, to, Math.max(threshold, 1), function, combiner));
+	}
+
+	private static class ActionTask extends RecursiveAction {
+
+		private final int from, to, threshold;
+		private final Action action;
+
+		private ActionTask(int from, int to, int threshold, Action action) {
+
+			this.from = from; this.to = to;
+			this.threshold = threshold;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+
+			if (to - from <= threshold) {
+				action.apply(from, to);
+			}
+			else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new ActionTask(from, mid, threshold, action),
+						new ActionTask(mid, to, threshold, action));
+			}
+		}
+	}
+
+	private static class LongTask extends RecursiveTask<Long> {
+
+		private final int from, to, threshold;
+		private final ToLongFunction function;
+		private final LongBinaryOperator combiner;
+
+		private LongTask(int from, int to, int threshold, ToLongFunction function, LongBinaryOperator combiner) {
+
+			this.from = from; this.to = to;
+			this.threshold = threshold;
+			this.function = function;
+			this.combiner = combiner;
+		}
+
+		@Override
+		protected Long compute() {
+
+			if (to - from <= threshold) {
+				return function.apply(from, to);
+			}
+			int mid = (from + to) >>> 1;
+			LongTask left = new LongTask(from, mid, threshold, function, combiner);
+			left.fork();
+			long right = new LongTask(mid, to, threshold, function, combiner).compute();
+			return combiner.applyAsLong(left.join(), right);
+		}
+	}
+
+	private static class DoubleTask extends RecursiveTask<Double> {
+
+		private final int from, to, threshold;
+		private final ToDoubleFunction function;
+		private final DoubleBinaryOperator combiner;
+
+		private DoubleTask(int from, int to, int threshold, ToDoubleFunction function, DoubleBinaryOperator combiner) {
+
+			this.from = from; this.to = to;
+			this.threshold = threshold;
+			this.function = function;
+			this.combiner = combiner;
+		}
+
+		@Override
+		protected Double compute() {
+
+			if (to - from <= threshold) {
+				return function.apply(from, to);
+			}
+			int mid = (from + to) >>> 1;
+			DoubleTask left = new DoubleTask(from, mid, threshold, function, combiner);
+			left.fork();
+			double right = new DoubleTask(mid, to, threshold, function, combiner).compute();
+			return combiner.applyAsDouble(left.join(), right);
+		}
+	}
+}
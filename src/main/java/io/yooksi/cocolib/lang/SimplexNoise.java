@@ -0,0 +1,315 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.lang;
+
+import java.util.Random;
+
+/**
+ * <p>
+ *     Seeded simplex noise generator for {@code 2D}, {@code 3D} and {@code 4D} space.
+ * <p>
+ *     Permutation tables are built once from the seed when the generator is created
+ *     and are never modified afterwards, which makes instances immutable and safe to
+ *     share between threads. Generators created with the same seed always produce
+ *     the same values.
+ * </p>
+ *
+ * @see <a href="https://weber.itn.liu.se/~stegu/simplexnoise/simplexnoise.pdf">
+ * 		Simplex noise demystified (Stefan Gustavson)</a>
+ */
+public final class SimplexNoise implements NoiseGenerator {
+
+	private static final double F2 = 0.5 * (Math.sqrt(3.0) - 1.0);
+	private static final double G2 = (3.0 - Math.sqrt(3.0)) / 6.0;
+	private static final double F3 = 1.0 / 3.0;
+	private static final double G3 = 1.0 / 6.0;
+	private static final double F4 = (Math.sqrt(5.0) - 1.0) / 4.0;
+	private static final double G4 = (5.0 - Math.sqrt(5.0)) / 20.0;
+
+	private static final byte[][] GRAD3 = {
+			{ 1, 1, 0 }, { -1, 1, 0 }, { 1, -1, 0 }, { -1, -1, 0 },
+			{ 1, 0, 1 }, { -1, 0, 1 }, { 1, 0, -1 }, { -1, 0, -1 },
+			{ 0, 1, 1 }, { 0, -1, 1 }, { 0, 1, -1 }, { 0, -1, -1 }
+	};
+
+	private static final byte[][] GRAD4 = {
+			{ 0, 1, 1, 1 }, { 0, 1, 1, -1 }, { 0, 1, -1, 1 }, { 0, 1, -1, -1 },
+			{ 0, -1, 1, 1 }, { 0, -1, 1, -1 }, { 0, -1, -1, 1 }, { 0, -1, -1, -1 },
+			{ 1, 0, 1, 1 }, { 1, 0, 1, -1 }, { 1, 0, -1, 1 }, { 1, 0, -1, -1 },
+			{ -1, 0, 1, 1 }, { -1, 0, 1, -1 }, { -1, 0, -1, 1 }, { -1, 0, -1, -1 },
+			{ 1, 1, 0, 1 }, { 1, 1, 0, -1 }, { 1, -1, 0, 1 }, { 1, -1, 0, -1 },
+			{ -1, 1, 0, 1 }, { -1, 1, 0, -1 }, { -1, -1, 0, 1 }, { -1, -1, 0, -1 },
+			{ 1, 1, 1, 0 }, { 1, 1, -1, 0 }, { 1, -1, 1, 0 }, { 1, -1, -1, 0 },
+			{ -1, 1, 1, 0 }, { -1, 1, -1, 0 }, { -1, -1, 1, 0 }, { -1, -1, -1, 0 }
+	};
+
+	private final long seed;
+
+	/*
+	 * Permutation table repeated twice to avoid index wrapping
+	 * and the same table with values pre-wrapped to 3D gradient count
+	 */
+	private final short[] perm = new short[512];
+	private final short[] permMod12 = new short[512];
+
+	public SimplexNoise(long seed) {
+
+		this.seed = seed;
+		short[] p = new short[256];
+		for (short i = 0; i < 256; i++) {
+			p[i] = i;
+		}
+		Random random = new Random(seed);
+		for (int i = 255; i > 0; i--)
+		{
+			int j = random.nextInt(i + 1);
+			short tmp = p[i];
+			p[i] = p[j];
+			p[j] = tmp;
+		}
+		for (int i = 0; i < 512; i++)
+		{
+			perm[i] = p[i & 255];
+			permMod12[i] = (short) (perm[i] % 12);
+		}
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	private static int fastFloor(double x) {
+
+		int i = (int) x;
+		return x < i ? i - 1 : i;
+	}
+
+	private static double dot(byte[] g, double x, double y) {
+		return g[0] * x + g[1] * y;
+	}
+
+	private static double dot(byte[] g, double x, double y, double z) {
+		return g[0] * x + g[1] * y + g[2] * z;
+	}
+
+	private static double dot(byte[] g, double x, double y, double z, double w) {
+		return g[0] * x + g[1] * y + g[2] * z + g[3] * w;
+	}
+
+	@Override
+	public double sample(double xin, double yin) {
+
+		// Skew the input space to determine which simplex cell we're in
+		double s = (xin + yin) * F2;
+		int i = fastFloor(xin + s);
+		int j = fastFloor(yin + s);
+		double t = (i + j) * G2;
+		double x0 = xin - (i - t);
+		double y0 = yin - (j - t);
+
+		// Determine which simplex (triangle) we are in
+		int i1, j1;
+		if (x0 > y0) {
+			i1 = 1; j1 = 0;
+		}
+		else {
+			i1 = 0; j1 = 1;
+		}
+		double x1 = x0 - i1 + G2;
+		double y1 = y0 - j1 + G2;
+		double x2 = x0 - 1.0 + 2.0 * G2;
+		double y2 = y0 - 1.0 + 2.0 * G2;
+
+		int ii = i & 255;
+		int jj = j & 255;
+
+		// Calculate the contribution from the three corners
+		double n0 = 0, n1 = 0, n2 = 0;
+		double t0 = 0.5 - x0 * x0 - y0 * y0;
+		if (t0 >= 0)
+		{
+			t0 *= t0;
+			n0 = t0 * t0 * dot(GRAD3[permMod12[ii + perm[jj]]], x0, y0);
+		}
+		double t1 = 0.5 - x1 * x1 - y1 * y1;
+		if (t1 >= 0)
+		{
+			t1 *= t1;
+			n1 = t1 * t1 * dot(GRAD3[permMod12[ii + i1 + perm[jj + j1]]], x1, y1);
+		}
+		double t2 = 0.5 - x2 * x2 - y2 * y2;
+		if (t2 >= 0)
+		{
+			t2 *= t2;
+			n2 = t2 * t2 * dot(GRAD3[permMod12[ii + 1 + perm[jj + 1]]], x2, y2);
+		}
+		// Scale the result to stay within [-1, 1]
+		return 70.0 * (n0 + n1 + n2);
+	}
+
+	@Override
+	public double sample(double xin, double yin, double zin) {
+
+		// Skew the input space to determine which simplex cell we're in
+		double s = (xin + yin + zin) * F3;
+		int i = fastFloor(xin + s);
+		int j = fastFloor(yin + s);
+		int k = fastFloor(zin + s);
+		double t = (i + j + k) * G3;
+		double x0 = xin - (i - t);
+		double y0 = yin - (j - t);
+		double z0 = zin - (k - t);
+
+		// Determine which simplex (tetrahedron) we are in
+		int i1, j1, k1, i2, j2, k2;
+		if (x0 >= y0)
+		{
+			if (y0 >= z0) {
+				i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 1; k2 = 0;
+			}
+			else if (x0 >= z0) {
+				i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 0; k2 = 1;
+			}
+			else {
+				i1 = 0; j1 = 0; k1 = 1; i2 = 1; j2 = 0; k2 = 1;
+			}
+		}
+		else {
+			if (y0 < z0) {
+				i1 = 0; j1 = 0; k1 = 1; i2 = 0; j2 = 1; k2 = 1;
+			}
+			else if (x0 < z0) {
+				i1 = 0; j1 = 1; k1 = 0; i2 = 0; j2 = 1; k2 = 1;
+			}
+			else {
+				i1 = 0; j1 = 1; k1 = 0; i2 = 1; j2 = 1; k2 = 0;
+			}
+		}
+		double x1 = x0 - i1 + G3, y1 = y0 - j1 + G3, z1 = z0 - k1 + G3;
+		double x2 = x0 - i2 + 2.0 * G3, y2 = y0 - j2 + 2.0 * G3, z2 = z0 - k2 + 2.0 * G3;
+		double x3 = x0 - 1.0 + 3.0 * G3, y3 = y0 - 1.0 + 3.0 * G3, z3 = z0 - 1.0 + 3.0 * G3;
+
+		int ii = i & 255;
+		int jj = j & 255;
+		int kk = k & 255;
+
+		// Calculate the contribution from the four corners
+		double n0 = 0, n1 = 0, n2 = 0, n3 = 0;
+		double t0 = 0.6 - x0 * x0 - y0 * y0 - z0 * z0;
+		if (t0 >= 0)
+		{
+			t0 *= t0;
+			n0 = t0 * t0 * dot(GRAD3[permMod12[ii + perm[jj + perm[kk]]]], x0, y0, z0);
+		}
+		double t1 = 0.6 - x1 * x1 - y1 * y1 - z1 * z1;
+		if (t1 >= 0)
+		{
+			t1 *= t1;
+			n1 = t1 * t1 * dot(GRAD3[permMod12[ii + i1 + perm[jj + j1 + perm[kk + k1]]]], x1, y1, z1);
+		}
+		double t2 = 0.6 - x2 * x2 - y2 * y2 - z2 * z2;
+		if (t2 >= 0)
+		{
+			t2 *= t2;
+			n2 = t2 * t2 * dot(GRAD3[permMod12[ii + i2 + perm[jj + j2 + perm[kk + k2]]]], x2, y2, z2);
+		}
+		double t3 = 0.6 - x3 * x3 - y3 * y3 - z3 * z3;
+		if (t3 >= 0)
+		{
+			t3 *= t3;
+			n3 = t3 * t3 * dot(GRAD3[permMod12[ii + 1 + perm[jj + 1 + perm[kk + 1]]]], x3, y3, z3);
+		}
+		// Scale the result to stay within [-1, 1]
+		return 32.0 * (n0 + n1 + n2 + n3);
+	}
+
+	@Override
+	public double sample(double x, double y, double z, double w) {
+
+		// Skew the input space to determine which simplex cell we're in
+		double s = (x + y + z + w) * F4;
+		int i = fastFloor(x + s);
+		int j = fastFloor(y + s);
+		int k = fastFloor(z + s);
+		int l = fastFloor(w + s);
+		double t = (i + j + k + l) * G4;
+		double x0 = x - (i - t);
+		double y0 = y - (j - t);
+		double z0 = z - (k - t);
+		double w0 = w - (l - t);
+
+		// Rank coordinates by magnitude to determine which simplex we are in
+		int rankx = 0, ranky = 0, rankz = 0, rankw = 0;
+		if (x0 > y0) rankx++; else ranky++;
+		if (x0 > z0) rankx++; else rankz++;
+		if (x0 > w0) rankx++; else rankw++;
+		if (y0 > z0) ranky++; else rankz++;
+		if (y0 > w0) ranky++; else rankw++;
+		if (z0 > w0) rankz++; else rankw++;
+
+		int i1 = rankx >= 3 ? 1 : 0, j1 = ranky >= 3 ? 1 : 0, k1 = rankz >= 3 ? 1 : 0, l1 = rankw >= 3 ? 1 : 0;
+		int i2 = rankx >= 2 ? 1 : 0, j2 = ranky >= 2 ? 1 : 0, k2 = rankz >= 2 ? 1 : 0, l2 = rankw >= 2 ? 1 : 0;
+		int i3 = rankx >= 1 ? 1 : 0, j3 = ranky >= 1 ? 1 : 0, k3 = rankz >= 1 ? 1 : 0, l3 = rankw >= 1 ? 1 : 0;
+
+		double x1 = x0 - i1 + G4, y1 = y0 - j1 + G4, z1 = z0 - k1 + G4, w1 = w0 - l1 + G4;
+		double x2 = x0 - i2 + 2.0 * G4, y2 = y0 - j2 + 2.0 * G4, z2 = z0 - k2 + 2.0 * G4, w2 = w0 - l2 + 2.0 * G4;
+		double x3 = x0 - i3 + 3.0 * G4, y3 = y0 - j3 + 3.0 * G4, z3 = z0 - k3 + 3.0 * G4, w3 = w0 - l3 + 3.0 * G4;
+		double x4 = x0 - 1.0 + 4.0 * G4, y4 = y0 - 1.0 + 4.0 * G4, z4 = z0 - 1.0 + 4.0 * G4, w4 = w0 - 1.0 + 4.0 * G4;
+
+		int ii = i & 255;
+		int jj = j & 255;
+		int kk = k & 255;
+		int ll = l & 255;
+
+		// Calculate the contribution from the five corners
+		double n0 = 0, n1 = 0, n2 = 0, n3 = 0, n4 = 0;
+		double t0 = 0.6 - x0 * x0 - y0 * y0 - z0 * z0 - w0 * w0;
+		if (t0 >= 0)
+		{
+			t0 *= t0;
+			int gi = perm[ii + perm[jj + perm[kk + perm[ll]]]] & 31;
+			n0 = t0 * t0 * dot(GRAD4[gi], x0, y0, z0, w0);
+		}
+		double t1 = 0.6 - x1 * x1 - y1 * y1 - z1 * z1 - w1 * w1;
+		if (t1 >= 0)
+		{
+			t1 *= t1;
+			int gi = perm[ii + i1 + perm[jj + j1 + perm[kk + k1 + perm[ll + l1]]]] & 31;
+			n1 = t1 * t1 * dot(GRAD4[gi], x1, y1, z1, w1);
+		}
+		double t2 = 0.6 - x2 * x2 - y2 * y2 - z2 * z2 - w2 * w2;
+		if (t2 >= 0)
+		{
+			t2 *= t2;
+			int gi = perm[ii + i2 + perm[jj + j2 + perm[kk + k2 + perm[ll + l2]]]] & 31;
+			n2 = t2 * t2 * dot(GRAD4[gi], x2, y2, z2, w2);
+		}
+		double t3 = 0.6 - x3 * x3 - y3 * y3 - z3 * z3 - w3 * w3;
+		if (t3 >= 0)
+		{
+			t3 *= t3;
+			int gi = perm[ii + i3 + perm[jj + j3 + perm[kk + k3 + perm[ll + l3]]]] & 31;
+			n3 = t3 * t3 * dot(GRAD4[gi], x3, y3, z3, w3);
+		}
+		double t4 = 0.6 - x4 * x4 - y4 * y4 - z4 * z4 - w4 * w4;
+		if (t4 >= 0)
+		{
+			t4 *= t4;
+			int gi = perm[ii + 1 + perm[jj + 1 + perm[kk + 1 + perm[ll + 1]]]] & 31;
+			n4 = t4 * t4 * dot(GRAD4[gi], x4, y4, z4, w4);
+		}
+		// Scale the result to stay within [-1, 1]
+		return 27.0 * (n0 + n1 + n2 + n3 + n4);
+	}
+}
@@ -0,0 +1,259 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.network;
+
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.fml.event.server.FMLServerStoppedEvent;
+import net.minecraftforge.fml.network.NetworkEvent;
+import net.minecraftforge.fml.network.NetworkRegistry;
+import net.minecraftforge.fml.network.PacketDistributor;
+import net.minecraftforge.fml.network.simple.SimpleChannel;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ *     Network channel that synchronizes keyed {@code long} values from the server to players
+ *     and sends all updates made for a player in one tick as a single compact packet.
+ * <p>
+ *     Keys are registered in the same order on both sides, usually from the mod constructor,
+ *     together with a handler that receives new values on the client main thread.
+ *     Updates sent from the server thread are merged per key until the end of the tick,
+ *     when changed values are delta encoded with {@link DeltaEncoder} against the values
+ *     in the previous packet sent to that player and flushed.
+ * </p>
+ * <pre>{@code
+ * BatchedChannel channel = new BatchedChannel(new ResourceLocation(MOD_ID, "hud"), "1");
+ * int health = channel.register(value -> HudState.health = (int) value);
+ * // on server thread
+ * channel.send(player, health, Math.round(player.getHealth()));
+ * }</pre>
+ */
+public class BatchedChannel {
+
+	private final SimpleChannel channel;
+	private final List<LongConsumer> handlers = new ArrayList<>();
+
+	/** Encoders of players that have been sent at least one update, only accessed on the server thread. */
+	private final Map<UUID, PlayerState> players = new HashMap<>();
+
+	private @Nullable DeltaDecoder decoder;
+	private boolean frozen;
+
+	/* Statistics updated on the server thread */
+	private long packetsSent, updatesSent, bytesSent;
+
+	/**
+	 * Create and register a new network channel. This has to be done during mod construction.
+	 *
+	 * @param name unique name of the channel.
+	 * @param version protocol version, clients and servers with different versions are rejected.
+	 */
+	public BatchedChannel(ResourceLocation name, String version) {
+
+		channel = NetworkRegistry.newSimpleChannel(name, () -> version, version::equals, version::equals);
+		channel.registerMessage(0, Batch.class, this::encode, this::decode, this::handle);
+
+		MinecraftForge.EVENT_BUS.addListener(this::onServerTick);
+		MinecraftForge.EVENT_BUS.addListener(this::onPlayerLoggedOut);
+		MinecraftForge.EVENT_BUS.addListener(this::onServerStopped);
+	}
+
+	/**
+	 * Register a new key. Keys have to be registered in the same order on both sides
+	 * before any update is sent or received.
+	 *
+	 * @param handler handler that receives new values on the client main thread.
+	 * @return id of the registered key.
+	 * @throws IllegalStateException if updates have already been sent or received.
+	 */
+	public synchronized int register(LongConsumer handler) {
+
+		if (frozen) {
+			throw new IllegalStateException("Cannot register keys after channel is in use");
+		}
+		handlers.add(handler);
+		return handlers.size() - 1;
+	}
+
+	private synchronized int freeze() {
+
+		frozen = true;
+		return handlers.size();
+	}
+
+	/**
+	 * Queue an update for the given player. The update replaces any update of the same key queued
+	 * in this tick and is only sent if the value differs from the value last sent to the player.
+	 * This method has to be called on the server thread.
+	 *
+	 * @param key id of a registered key.
+	 * @param value new value of the key.
+	 */
+	public void send(ServerPlayerEntity player, int key, long value) {
+
+		PlayerState state = players.get(player.getUniqueID());
+		if (state == null) {
+			players.put(player.getUniqueID(), state = new PlayerState(player, new DeltaEncoder(freeze())));
+		}
+		// Players are recreated when they respawn or change dimension
+		state.player = player;
+		state.encoder.put(key, value);
+	}
+
+	/**
+	 * Queue an update of a {@code double} value, which the client handler
+	 * should convert back with {@link Double#longBitsToDouble(long)}.
+	 *
+	 * @see #send(ServerPlayerEntity, int, long)
+	 */
+	public void send(ServerPlayerEntity player, int key, double value) {
+		send(player, key, Double.doubleToRawLongBits(value));
+	}
+
+	/**
+	 * Send queued updates for all players. This is done automatically at the end of each server tick.
+	 */
+	public void flush() {
+
+		for (PlayerState state : players.values())
+		{
+			if (state.encoder.hasChanges()) {
+				channel.send(PacketDistributor.PLAYER.with(() -> state.player), new Batch(state.encoder));
+			}
+		}
+	}
+
+	private void onServerTick(final TickEvent.ServerTickEvent event) {
+
+		if (event.phase == TickEvent.Phase.END) {
+			flush();
+		}
+	}
+
+	private void onPlayerLoggedOut(final PlayerEvent.PlayerLoggedOutEvent event) {
+		players.remove(event.getPlayer().getUniqueID());
+	}
+
+	private void onServerStopped(final FMLServerStoppedEvent event) {
+		players.clear();
+	}
+
+	private void encode(Batch batch, PacketBuffer buf) {
+
+		int start = buf.writerIndex();
+		int updates = batch.encoder != null ? batch.encoder.getChangeCount() : 0;
+		if (batch.encoder != null && batch.encoder.encode(buf))
+		{
+			packetsSent++;
+			updatesSent += updates;
+			bytesSent += buf.writerIndex() - start;
+		}
+	}
+
+	private Batch decode(PacketBuffer buf) {
+
+		if (decoder == null) {
+			decoder = new DeltaDecoder(freeze());
+		}
+		Batch batch = new Batch(decoder.getKeyCount());
+		// Decoding happens on the network thread in the order packets were received
+		decoder.decode(buf, batch::add);
+		return batch;
+	}
+
+	private void handle(Batch batch, Supplier<NetworkEvent.Context> context) {
+
+		context.get().enqueueWork(() -> {
+			for (int i = 0; i < batch.size; i++) {
+				handlers.get(batch.keys[i]).accept(batch.values[i]);
+			}
+		});
+		context.get().setPacketHandled(true);
+	}
+
+	/**
+	 * @return number of packets sent by this channel.
+	 */
+	public long getPacketsSent() {
+		return packetsSent;
+	}
+
+	/**
+	 * @return number of key updates sent by this channel, which is less then the
+	 * 		number of {@link #send} calls when updates were merged or unchanged.
+	 */
+	public long getUpdatesSent() {
+		return updatesSent;
+	}
+
+	/**
+	 * @return number of payload bytes sent by this channel.
+	 */
+	public long getBytesSent() {
+		return bytesSent;
+	}
+
+	/**
+	 * Batch of updates sent from the server, or decoded on the client.
+	 */
+	private static final class Batch {
+
+		private final @Nullable DeltaEncoder encoder;
+		private final int[] keys;
+		private final long[] values;
+		private int size;
+
+		/** Outgoing batch encoded when the packet is written. */
+		private Batch(DeltaEncoder encoder) {
+
+			this.encoder = encoder;
+			this.keys = new int[0];
+			this.values = new long[0];
+		}
+
+		/** Incoming batch with space for the given number of updates. */
+		private Batch(int capacity) {
+
+			this.encoder = null;
+			this.keys = new int[capacity];
+			this.values = new long[capacity];
+		}
+
+		private void add(int key, long value) {
+
+			keys[size] = key;
+			values[size++] = value;
+		}
+	}
+
+	private static final class PlayerState {
+
+		private ServerPlayerEntity player;
+		private final DeltaEncoder encoder;
+
+		private PlayerState(ServerPlayerEntity player, DeltaEncoder encoder) {
+			this.player = player;
+			this.encoder = encoder;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.DecoderException;
+
+import java.util.Arrays;
+
+/**
+ * Decodes batches written by {@link DeltaEncoder} and keeps track of the current value of each key.
+ * Instances are not thread-safe.
+ */
+public class DeltaDecoder {
+
+	@FunctionalInterface
+	public interface UpdateConsumer {
+		void accept(int key, long value);
+	}
+
+	private final long[] values;
+
+	/**
+	 * @param keys number of keys that can be decoded.
+	 */
+	public DeltaDecoder(int keys) {
+		values = new long[keys];
+	}
+
+	/**
+	 * Decode a single batch from the given buffer.
+	 *
+	 * @param consumer consumer notified with the new value of each changed key.
+	 * @return number of changed keys.
+	 * @throws DecoderException if the batch is malformed or contains an unknown key.
+	 */
+	public int decode(ByteBuf buf, UpdateConsumer consumer) {
+
+		if (buf.readBoolean()) {
+			Arrays.fill(values, 0L);
+		}
+		int count = VarInts.readVarInt(buf);
+		if (count < 0 || count > values.length) {
+			throw new DecoderException("Invalid number of updates " + count);
+		}
+		int key = -1;
+		for (int i = 0; i < count; i++)
+		{
+			key += VarInts.readVarInt(buf) + 1;
+			if (key < 0 || key >= values.length) {
+				throw new DecoderException("Unknown key " + key);
+			}
+			long value = values[key] + VarInts.unZigZag(VarInts.readVarLong(buf));
+			values[key] = value;
+			consumer.accept(key, value);
+		}
+		return count;
+	}
+
+	/**
+	 * @return current value of the given key.
+	 */
+	public long get(int key) {
+		return values[key];
+	}
+
+	/**
+	 * @return number of keys that can be decoded.
+	 */
+	public int getKeyCount() {
+		return values.length;
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.network;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *     Collects updates of keyed {@code long} values and encodes them as
+ *     differences from the values sent in the previous batch.
+ * <p>
+ *     Keys are dense integer ids in range {@code [0, keys)}. Updates to the same key
+ *     made before the next {@link #encode(ByteBuf)} are merged, and keys whose value did
+ *     not change since the last batch are left out. The batch format is:
+ *     <ul>
+ *         <li>{@code boolean} reset flag, set for the first batch which is
+ *         encoded against all values being {@code 0}.</li>
+ *         <li>{@code varint} number of changed keys.</li>
+ *         <li>For each changed key in ascending order, {@code varint} distance from the previous
+ *         changed key and {@code varlong} zig-zag encoded difference from the previous value.</li>
+ *     </ul>
+ *     Batches must be decoded by a {@link DeltaDecoder} in the same order they were
+ *     encoded, which holds when they are sent over a single connection.
+ *     Instances are not thread-safe.
+ * </p>
+ */
+public class DeltaEncoder {
+
+	private final long[] sent, pending;
+	private final long[] dirty;
+	private boolean reset = true;
+
+	/**
+	 * @param keys number of keys that can be encoded.
+	 */
+	public DeltaEncoder(int keys) {
+
+		sent = new long[keys];
+		pending = new long[keys];
+		dirty = new long[(keys + 63) >>> 6];
+	}
+
+	/**
+	 * Set the value of the given key, replacing any value set since the last batch.
+	 *
+	 * @throws ArrayIndexOutOfBoundsException if the key is out of range.
+	 */
+	public void put(int key, long value) {
+
+		pending[key] = value;
+		dirty[key >>> 6] |= 1L << key;
+	}
+
+	/**
+	 * @return value of the given key that will be sent in the next batch.
+	 */
+	public long get(int key) {
+		return pending[key];
+	}
+
+	/**
+	 * @return number of keys with a value different from the one in the last batch.
+	 */
+	public int getChangeCount() {
+
+		int count = 0;
+		for (int key = nextDirty(0); key >= 0; key = nextDirty(key + 1))
+		{
+			if (pending[key] != sent[key]) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return {@code true} if the next batch would contain any data.
+	 */
+	public boolean hasChanges() {
+		return reset || getChangeCount() > 0;
+	}
+
+	/**
+	 * Encode all values that changed since the last batch to the given buffer.
+	 * Nothing is written if there are no changes.
+	 *
+	 * @return {@code true} if a batch was written to the buffer.
+	 */
+	public boolean encode(ByteBuf buf) {
+
+		int count = getChangeCount();
+		if (count == 0 && !reset)
+		{
+			Arrays.fill(dirty, 0L);
+			return false;
+		}
+		buf.writeBoolean(reset);
+		VarInts.writeVarInt(buf, count);
+
+		int previous = -1;
+		for (int key = nextDirty(0); key >= 0; key = nextDirty(key + 1))
+		{
+			long value = pending[key];
+			if (value != sent[key])
+			{
+				VarInts.writeVarInt(buf, key - previous - 1);
+				VarInts.writeVarLong(buf, VarInts.zigZag(value - sent[key]));
+				sent[key] = value;
+				previous = key;
+			}
+		}
+		Arrays.fill(dirty, 0L);
+		reset = false;
+		return true;
+	}
+
+	/**
+	 * Start over as if no batch was sent, so the next batch resets the decoder state.
+	 */
+	public void reset() {
+
+		Arrays.fill(sent, 0L);
+		reset = true;
+		for (int key = 0; key < pending.length; key++)
+		{
+			if (pending[key] != 0) {
+				dirty[key >>> 6] |= 1L << key;
+			}
+		}
+	}
+
+	private int nextDirty(int from) {
+
+		int word = from >>> 6;
+		if (word >= dirty.length) {
+			return -1;
+		}
+		long bits = dirty[word] & (-1L << from);
+		while (bits == 0)
+		{
+			if (++word == dirty.length) {
+				return -1;
+			}
+			bits = dirty[word];
+		}
+		return (word << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * @return number of keys that can be encoded.
+	 */
+	public int getKeyCount() {
+		return pending.length;
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.DecoderException;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Range;
+
+/**
+ * <p>
+ *     Variable-length encoding of integers, compatible with {@code PacketBuffer#writeVarInt}.
+ * <p>
+ *     Each byte stores {@code 7} bits of the value and uses the highest bit to mark that more
+ *     bytes follow, so small values take fewer bytes. Signed values that may be negative should be
+ *     {@link #zigZag(long) zig-zag} encoded first, otherwise they always take the maximum length.
+ * </p>
+ */
+public final class VarInts {
+
+	private VarInts() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Map signed integers to unsigned integers so that values with small
+	 * magnitude have small encodings: {@code 0, -1, 1, -2, 2} map to {@code 0, 1, 2, 3, 4}.
+	 */
+	@Contract(pure = true)
+	public static int zigZag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	@Contract(pure = true)
+	public static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	/**
+	 * Reverse the mapping done by {@link #zigZag(int)}.
+	 */
+	@Contract(pure = true)
+	public static int unZigZag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	@Contract(pure = true)
+	public static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * @return number of bytes needed to encode the given value.
+	 */
+	@Contract(pure = true)
+	public static @Range(from = 1, to = 5) int getVarIntSize(int value) {
+		return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+	}
+
+	/**
+	 * @return number of bytes needed to encode the given value.
+	 */
+	@Contract(pure = true)
+	public static @Range(from = 1, to = 10) int getVarLongSize(long value) {
+		return (63 - Long.numberOfLeadingZeros(value | 1)) / 7 + 1;
+	}
+
+	public static void writeVarInt(ByteBuf buf, int value) {
+
+		while ((value & ~0x7F) != 0)
+		{
+			buf.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf.writeByte(value);
+	}
+
+	public static void writeVarLong(ByteBuf buf, long value) {
+
+		while ((value & ~0x7FL) != 0)
+		{
+			buf.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf.writeByte((int) value);
+	}
+
+	/**
+	 * @throws DecoderException if the encoded value is longer then {@code 5} bytes.
+	 */
+	public static int readVarInt(ByteBuf buf) {
+
+		int result = 0;
+		for (int shift = 0; shift < 35; shift += 7)
+		{
+			byte b = buf.readByte();
+			result |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new DecoderException("VarInt is too big");
+	}
+
+	/**
+	 * @throws DecoderException if the encoded value is longer then {@code 10} bytes.
+	 */
+	public static long readVarLong(ByteBuf buf) {
+
+		long result = 0;
+		for (int shift = 0; shift < 70; shift += 7)
+		{
+			byte b = buf.readByte();
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new DecoderException("VarLong is too big");
+	}
+}
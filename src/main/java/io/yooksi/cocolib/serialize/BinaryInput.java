@@ -0,0 +1,113 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.serialize;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Source of binary data read by a {@link Schema}.
+ * @see BinaryOutput
+ */
+public interface BinaryInput {
+
+	/**
+	 * @throws IllegalArgumentException if the buffer is not in big-endian order.
+	 */
+	static BinaryInput of(ByteBuffer buffer) {
+
+		if (buffer.order() != ByteOrder.BIG_ENDIAN) {
+			throw new IllegalArgumentException("Buffer has to be in big-endian order");
+		}
+		return new Buffers.ByteBufferInput(buffer);
+	}
+
+	/**
+	 * Use this to read directly from a {@code PacketBuffer}.
+	 */
+	static BinaryInput of(ByteBuf buffer) {
+		return new Buffers.ByteBufInput(buffer);
+	}
+
+	/**
+	 * @return number of bytes that can still be read.
+	 */
+	int remaining();
+
+	byte readByte();
+
+	int readInt();
+
+	long readLong();
+
+	float readFloat();
+
+	double readDouble();
+
+	void readBytes(byte[] dest, int offset, int length);
+
+	default boolean readBoolean() {
+		return readByte() != 0;
+	}
+
+	/**
+	 * @throws IllegalStateException if the encoded value is longer then {@code 5} bytes.
+	 */
+	default int readVarInt() {
+
+		int result = 0;
+		for (int shift = 0; shift < 35; shift += 7)
+		{
+			byte b = readByte();
+			result |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IllegalStateException("VarInt is too big");
+	}
+
+	/**
+	 * @throws IllegalStateException if the encoded value is longer then {@code 10} bytes.
+	 */
+	default long readVarLong() {
+
+		long result = 0;
+		for (int shift = 0; shift < 70; shift += 7)
+		{
+			byte b = readByte();
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IllegalStateException("VarLong is too big");
+	}
+
+	default void readFloats(float[] dest) {
+
+		for (int i = 0; i < dest.length; i++) {
+			dest[i] = readFloat();
+		}
+	}
+
+	default void readDoubles(double[] dest) {
+
+		for (int i = 0; i < dest.length; i++) {
+			dest[i] = readDouble();
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.serialize;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * <p>
+ *     Destination of binary data written by a {@link Schema}.
+ * <p>
+ *     Multi-byte values are always written in big-endian order, which
+ *     is the default for both {@code ByteBuffer} and {@code ByteBuf}, so data
+ *     written to one kind of buffer can be read from the other.
+ * </p>
+ */
+public interface BinaryOutput {
+
+	/**
+	 * @throws IllegalArgumentException if the buffer is not in big-endian order.
+	 */
+	static BinaryOutput of(ByteBuffer buffer) {
+
+		if (buffer.order() != ByteOrder.BIG_ENDIAN) {
+			throw new IllegalArgumentException("Buffer has to be in big-endian order");
+		}
+		return new Buffers.ByteBufferOutput(buffer);
+	}
+
+	/**
+	 * Use this to write directly to a {@code PacketBuffer}.
+	 */
+	static BinaryOutput of(ByteBuf buffer) {
+		return new Buffers.ByteBufOutput(buffer);
+	}
+
+	void writeByte(int value);
+
+	void writeInt(int value);
+
+	void writeLong(long value);
+
+	void writeFloat(float value);
+
+	void writeDouble(double value);
+
+	void writeBytes(byte[] values, int offset, int length);
+
+	default void writeBoolean(boolean value) {
+		writeByte(value ? 1 : 0);
+	}
+
+	/**
+	 * Write the given value with variable-length encoding, using {@code 7}
+	 * bits per byte and the highest bit to mark that more bytes follow.
+	 */
+	default void writeVarInt(int value) {
+
+		while ((value & ~0x7F) != 0)
+		{
+			writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		writeByte(value);
+	}
+
+	/**
+	 * @see #writeVarInt(int)
+	 */
+	default void writeVarLong(long value) {
+
+		while ((value & ~0x7FL) != 0)
+		{
+			writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		writeByte((int) value);
+	}
+
+	default void writeFloats(float[] values) {
+
+		for (float value : values) {
+			writeFloat(value);
+		}
+	}
+
+	default void writeDoubles(double[] values) {
+
+		for (double value : values) {
+			writeDouble(value);
+		}
+	}
+}
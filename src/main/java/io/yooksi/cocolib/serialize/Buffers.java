@@ -0,0 +1,289 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.serialize;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Implementations of binary input and output for supported buffer types.
+ */
+final class Buffers {
+
+	private Buffers() {
+		throw new UnsupportedOperationException();
+	}
+
+	static final class ByteBufferOutput implements BinaryOutput {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferOutput(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public void writeByte(int value) {
+			buffer.put((byte) value);
+		}
+
+		@Override
+		public void writeInt(int value) {
+			buffer.putInt(value);
+		}
+
+		@Override
+		public void writeLong(long value) {
+			buffer.putLong(value);
+		}
+
+		@Override
+		public void writeFloat(float value) {
+			buffer.putFloat(value);
+		}
+
+		@Override
+		public void writeDouble(double value) {
+			buffer.putDouble(value);
+		}
+
+		@Override
+		public void writeBytes(byte[] values, int offset, int length) {
+			buffer.put(values, offset, length);
+		}
+
+		@Override
+		public void writeFloats(float[] values) {
+
+			buffer.asFloatBuffer().put(values);
+			buffer.position(buffer.position() + values.length * Float.BYTES);
+		}
+
+		@Override
+		public void writeDoubles(double[] values) {
+
+			buffer.asDoubleBuffer().put(values);
+			buffer.position(buffer.position() + values.length * Double.BYTES);
+		}
+	}
+
+	static final class ByteBufferInput implements BinaryInput {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInput(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int remaining() {
+			return buffer.remaining();
+		}
+
+		@Override
+		public byte readByte() {
+			return buffer.get();
+		}
+
+		@Override
+		public int readInt() {
+			return buffer.getInt();
+		}
+
+		@Override
+		public long readLong() {
+			return buffer.getLong();
+		}
+
+		@Override
+		public float readFloat() {
+			return buffer.getFloat();
+		}
+
+		@Override
+		public double readDouble() {
+			return buffer.getDouble();
+		}
+
+		@Override
+		public void readBytes(byte[] dest, int offset, int length) {
+			buffer.get(dest, offset, length);
+		}
+
+		@Override
+		public void readFloats(float[] dest) {
+
+			buffer.asFloatBuffer().get(dest);
+			buffer.position(buffer.position() + dest.length * Float.BYTES);
+		}
+
+		@Override
+		public void readDoubles(double[] dest) {
+
+			buffer.asDoubleBuffer().get(dest);
+			buffer.position(buffer.position() + dest.length * Double.BYTES);
+		}
+	}
+
+	static final class ByteBufOutput implements BinaryOutput {
+
+		private final ByteBuf buffer;
+
+		ByteBufOutput(ByteBuf buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public void writeByte(int value) {
+			buffer.writeByte(value);
+		}
+
+		@Override
+		public void writeInt(int value) {
+			buffer.writeInt(value);
+		}
+
+		@Override
+		public void writeLong(long value) {
+			buffer.writeLong(value);
+		}
+
+		@Override
+		public void writeFloat(float value) {
+			buffer.writeFloat(value);
+		}
+
+		@Override
+		public void writeDouble(double value) {
+			buffer.writeDouble(value);
+		}
+
+		@Override
+		public void writeBytes(byte[] values, int offset, int length) {
+			buffer.writeBytes(values, offset, length);
+		}
+	}
+
+	static final class ByteBufInput implements BinaryInput {
+
+		private final ByteBuf buffer;
+
+		ByteBufInput(ByteBuf buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int remaining() {
+			return buffer.readableBytes();
+		}
+
+		@Override
+		public byte readByte() {
+			return buffer.readByte();
+		}
+
+		@Override
+		public int readInt() {
+			return buffer.readInt();
+		}
+
+		@Override
+		public long readLong() {
+			return buffer.readLong();
+		}
+
+		@Override
+		public float readFloat() {
+			return buffer.readFloat();
+		}
+
+		@Override
+		public double readDouble() {
+			return buffer.readDouble();
+		}
+
+		@Override
+		public void readBytes(byte[] dest, int offset, int length) {
+			buffer.readBytes(dest, offset, length);
+		}
+	}
+
+	/**
+	 * Output that writes to a growable byte array.
+	 */
+	static final class ByteArrayOutput implements BinaryOutput {
+
+		private byte[] bytes;
+		private int size;
+
+		ByteArrayOutput(int capacity) {
+			bytes = new byte[Math.max(capacity, 16)];
+		}
+
+		private void ensureCapacity(int extra) {
+
+			if (size + extra > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+			}
+		}
+
+		@Override
+		public void writeByte(int value) {
+
+			ensureCapacity(1);
+			bytes[size++] = (byte) value;
+		}
+
+		@Override
+		public void writeInt(int value) {
+
+			ensureCapacity(4);
+			bytes[size++] = (byte) (value >>> 24);
+			bytes[size++] = (byte) (value >>> 16);
+			bytes[size++] = (byte) (value >>> 8);
+			bytes[size++] = (byte) value;
+		}
+
+		@Override
+		public void writeLong(long value) {
+
+			writeInt((int) (value >>> 32));
+			writeInt((int) value);
+		}
+
+		@Override
+		public void writeFloat(float value) {
+			writeInt(Float.floatToRawIntBits(value));
+		}
+
+		@Override
+		public void writeDouble(double value) {
+			writeLong(Double.doubleToRawLongBits(value));
+		}
+
+		@Override
+		public void writeBytes(byte[] values, int offset, int length) {
+
+			ensureCapacity(length);
+			System.arraycopy(values, offset, bytes, size, length);
+			size += length;
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(bytes, size);
+		}
+	}
+}
@@ -0,0 +1,506 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.serialize;
+
+import io.netty.buffer.ByteBuf;
+import io.yooksi.cocolib.network.VarInts;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.*;
+
+/**
+ * <p>
+ *     Compact binary format of a data class, declared as an ordered list of fields.
+ * <p>
+ *     Field names and types are not stored, only the schema version followed by field values
+ *     in declaration order. Integers are written with zig-zag variable-length encoding, so small
+ *     values take a single byte. Strings and arrays are prefixed with their length (plus one, where
+ *     {@code 0} stands for {@code null}), integer arrays use variable-length encoding and
+ *     floating point arrays are copied in bulk when writing to a {@code ByteBuffer}.
+ * <p>
+ *     Schemas are versioned. New fields are declared after {@link Builder#since(int)}, and fields
+ *     no longer written are marked with {@link Builder#removed(int)} but kept in the schema so
+ *     older data can still be read. Data written with an older version is read field by field as
+ *     it was written, after which migration hooks registered for newer versions are applied.
+ *     Schemas are immutable and can be shared between threads.
+ * </p>
+ * <pre>{@code
+ * static final Schema<Claim> SCHEMA = Schema.builder(Claim::new, 2)
+ *         .varInt(c -> c.owner, (c, v) -> c.owner = v)
+ *         .longArray(c -> c.chunks, (c, v) -> c.chunks = v)
+ *         .since(2).string(c -> c.name, (c, v) -> c.name = v)
+ *         .migrate(2, c -> c.name = "Claim " + c.owner)
+ *         .build();
+ * }</pre>
+ * @param <T> type of serialized objects.
+ */
+public final class Schema<T> {
+
+	@FunctionalInterface
+	public interface BooleanGetter<T> {
+		boolean get(T object);
+	}
+
+	@FunctionalInterface
+	public interface BooleanSetter<T> {
+		void set(T object, boolean value);
+	}
+
+	@FunctionalInterface
+	public interface FloatGetter<T> {
+		float get(T object);
+	}
+
+	@FunctionalInterface
+	public interface FloatSetter<T> {
+		void set(T object, float value);
+	}
+
+	@FunctionalInterface
+	private interface FieldWriter<T> {
+		void write(T object, BinaryOutput out);
+	}
+
+	@FunctionalInterface
+	private interface FieldReader<T> {
+		void read(T object, BinaryInput in);
+	}
+
+	private final Supplier<T> factory;
+	private final int version;
+	private final List<Field<T>> fields;
+	private final List<Migration<T>> migrations;
+
+	private Schema(Builder<T> builder) {
+
+		this.factory = builder.factory;
+		this.version = builder.version;
+		this.fields = Collections.unmodifiableList(new ArrayList<>(builder.fields));
+		this.migrations = new ArrayList<>(builder.migrations);
+		this.migrations.sort((a, b) -> Integer.compare(a.version, b.version));
+	}
+
+	/**
+	 * @param factory supplier of new objects to read data into.
+	 * @param version current version of the schema, starting with {@code 1}.
+	 * @throws IllegalArgumentException if the version is less then {@code 1}.
+	 */
+	public static <T> Builder<T> builder(Supplier<T> factory, int version) {
+		return new Builder<>(factory, version);
+	}
+
+	/**
+	 * Write the given object with the current schema version.
+	 */
+	public void write(T object, BinaryOutput out) {
+
+		out.writeVarInt(version);
+		for (Field<T> field : fields)
+		{
+			if (field.isPresentIn(version)) {
+				field.writer.write(object, out);
+			}
+		}
+	}
+
+	/**
+	 * Read an object written with the current or any older schema version.
+	 *
+	 * @throws IllegalStateException if the data was written with an unknown schema version.
+	 */
+	public T read(BinaryInput in) {
+
+		int dataVersion = in.readVarInt();
+		if (dataVersion < 1 || dataVersion > version) {
+			throw new IllegalStateException("Unknown schema version " + dataVersion + ", expected " + version + " or less");
+		}
+		T object = factory.get();
+		for (Field<T> field : fields)
+		{
+			if (field.isPresentIn(dataVersion)) {
+				field.reader.read(object, in);
+			}
+		}
+		for (Migration<T> migration : migrations)
+		{
+			if (migration.version > dataVersion) {
+				migration.hook.accept(object);
+			}
+		}
+		return object;
+	}
+
+	public void write(T object, ByteBuffer buffer) {
+		write(object, BinaryOutput.of(buffer));
+	}
+
+	public T read(ByteBuffer buffer) {
+		return read(BinaryInput.of(buffer));
+	}
+
+	/**
+	 * Use this to write directly to a {@code PacketBuffer}.
+	 */
+	public void write(T object, ByteBuf buffer) {
+		write(object, BinaryOutput.of(buffer));
+	}
+
+	/**
+	 * Use this to read directly from a {@code PacketBuffer}.
+	 */
+	public T read(ByteBuf buffer) {
+		return read(BinaryInput.of(buffer));
+	}
+
+	/**
+	 * @return new byte array that holds the given object written with the current schema version.
+	 */
+	public byte[] toByteArray(T object) {
+
+		Buffers.ByteArrayOutput out = new Buffers.ByteArrayOutput(64);
+		write(object, out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * @see #read(BinaryInput)
+	 */
+	public T fromByteArray(byte[] bytes) {
+		return read(ByteBuffer.wrap(bytes));
+	}
+
+	/**
+	 * @return current version of the schema.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return number of fields declared in this schema, including removed fields.
+	 */
+	public int getFieldCount() {
+		return fields.size();
+	}
+
+	/**
+	 * Read the length prefix of a string or an array.
+	 *
+	 * @return decoded length or {@code -1} for {@code null}.
+	 * @throws IllegalStateException if there are less then {@code length * elementSize} bytes left.
+	 */
+	private static int readLength(BinaryInput in, int elementSize) {
+
+		int length = in.readVarInt() - 1;
+		if (length < -1 || (long) length * elementSize > in.remaining()) {
+			throw new IllegalStateException("Invalid length " + length + " with " + in.remaining() + " bytes remaining");
+		}
+		return length;
+	}
+
+	private static void writeLength(BinaryOutput out, @Nullable Object value, int length) {
+		out.writeVarInt(value == null ? 0 : length + 1);
+	}
+
+	private static final class Field<T> {
+
+		private final int since, until;
+		private final FieldWriter<T> writer;
+		private final FieldReader<T> reader;
+
+		private Field(int since, int until, FieldWriter<T> writer, FieldReader<T> reader) {
+
+			this.since = since;
+			this.until = until;
+			this.writer = writer;
+			this.reader = reader;
+		}
+
+		private boolean isPresentIn(int version) {
+			return version >= since && version < until;
+		}
+	}
+
+	private static final class Migration<T> {
+
+		private final int version;
+		private final Consumer<T> hook;
+
+		private Migration(int version, Consumer<T> hook) {
+			this.version = version;
+			this.hook = hook;
+		}
+	}
+
+	public static class Builder<T> {
+
+		private final Supplier<T> factory;
+		private final int version;
+		private final List<Field<T>> fields = new ArrayList<>();
+		private final List<Migration<T>> migrations = new ArrayList<>();
+		private int since = 1;
+
+		private Builder(Supplier<T> factory, int version) {
+
+			if (version < 1) {
+				throw new IllegalArgumentException("Invalid schema version " + version);
+			}
+			this.factory = factory;
+			this.version = version;
+		}
+
+		private Builder<T> add(FieldWriter<T> writer, FieldReader<T> reader) {
+
+			fields.add(new Field<>(since, Integer.MAX_VALUE, writer, reader));
+			return this;
+		}
+
+		/**
+		 * Declare that fields added after this call were introduced in the given schema version.
+		 *
+		 * @throws IllegalArgumentException if the version is not in range {@code [1, version]}.
+		 */
+		public Builder<T> since(int version) {
+
+			if (version < 1 || version > this.version) {
+				throw new IllegalArgumentException("Invalid field version " + version);
+			}
+			since = version;
+			return this;
+		}
+
+		/**
+		 * Declare that the last added field is no longer written since the given schema version.
+		 * The field is still read from data written with older versions, so the setter can
+		 * store the value somewhere a migration hook can find it.
+		 *
+		 * @throws IllegalStateException if no field has been added yet.
+		 * @throws IllegalArgumentException if the version is not greater then the version the
+		 * 		field was introduced in, or is greater then the schema version.
+		 */
+		public Builder<T> removed(int version) {
+
+			if (fields.isEmpty()) {
+				throw new IllegalStateException("No field to mark as removed");
+			}
+			Field<T> last = fields.get(fields.size() - 1);
+			if (version <= last.since || version > this.version) {
+				throw new IllegalArgumentException(String.format("Invalid removal version %d for " +
+						"field added in version %d of schema version %d", version, last.since, this.version));
+			}
+			fields.set(fields.size() - 1, new Field<>(last.since, version, last.writer, last.reader));
+			return this;
+		}
+
+		/**
+		 * Register a hook that upgrades objects read from data written
+		 * before the given schema version. Hooks run in version order.
+		 *
+		 * @throws IllegalArgumentException if the version is not in range {@code [2, version]},
+		 * 		since no data can be written before the first version.
+		 */
+		public Builder<T> migrate(int version, Consumer<T> hook) {
+
+			if (version < 2 || version > this.version) {
+				throw new IllegalArgumentException("Invalid migration version " + version);
+			}
+			migrations.add(new Migration<>(version, hook));
+			return this;
+		}
+
+		public Builder<T> bool(BooleanGetter<T> getter, BooleanSetter<T> setter) {
+			return add((o, out) -> out.writeBoolean(getter.get(o)), (o, in) -> setter.set(o, in.readBoolean()));
+		}
+
+		public Builder<T> varInt(ToIntFunction<T> getter, ObjIntConsumer<T> setter) {
+
+			return add((o, out) -> out.writeVarInt(VarInts.zigZag(getter.applyAsInt(o))),
+					(o, in) -> setter.accept(o, VarInts.unZigZag(in.readVarInt())));
+		}
+
+		public Builder<T> varLong(ToLongFunction<T> getter, ObjLongConsumer<T> setter) {
+
+			return add((o, out) -> out.writeVarLong(VarInts.zigZag(getter.applyAsLong(o))),
+					(o, in) -> setter.accept(o, VarInts.unZigZag(in.readVarLong())));
+		}
+
+		/**
+		 * Add an {@code int} field written with fixed length, which is more compact for large values.
+		 */
+		public Builder<T> fixedInt(ToIntFunction<T> getter, ObjIntConsumer<T> setter) {
+			return add((o, out) -> out.writeInt(getter.applyAsInt(o)), (o, in) -> setter.accept(o, in.readInt()));
+		}
+
+		/**
+		 * Add a {@code long} field written with fixed length, which is more compact for large values.
+		 */
+		public Builder<T> fixedLong(ToLongFunction<T> getter, ObjLongConsumer<T> setter) {
+			return add((o, out) -> out.writeLong(getter.applyAsLong(o)), (o, in) -> setter.accept(o, in.readLong()));
+		}
+
+		public Builder<T> floatField(FloatGetter<T> getter, FloatSetter<T> setter) {
+			return add((o, out) -> out.writeFloat(getter.get(o)), (o, in) -> setter.set(o, in.readFloat()));
+		}
+
+		public Builder<T> doubleField(ToDoubleFunction<T> getter, ObjDoubleConsumer<T> setter) {
+			return add((o, out) -> out.writeDouble(getter.applyAsDouble(o)), (o, in) -> setter.accept(o, in.readDouble()));
+		}
+
+		public Builder<T> string(Function<T, String> getter, BiConsumer<T, String> setter) {
+
+			return add((o, out) -> {
+				String value = getter.apply(o);
+				byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+				writeLength(out, bytes, bytes != null ? bytes.length : 0);
+				if (bytes != null) {
+					out.writeBytes(bytes, 0, bytes.length);
+				}
+			}, (o, in) -> {
+				int length = readLength(in, 1);
+				if (length >= 0)
+				{
+					byte[] bytes = new byte[length];
+					in.readBytes(bytes, 0, length);
+					setter.accept(o, new String(bytes, StandardCharsets.UTF_8));
+				}
+				else setter.accept(o, null);
+			});
+		}
+
+		public Builder<T> byteArray(Function<T, byte[]> getter, BiConsumer<T, byte[]> setter) {
+
+			return add((o, out) -> {
+				byte[] value = getter.apply(o);
+				writeLength(out, value, value != null ? value.length : 0);
+				if (value != null) {
+					out.writeBytes(value, 0, value.length);
+				}
+			}, (o, in) -> {
+				int length = readLength(in, 1);
+				byte[] value = length >= 0 ? new byte[length] : null;
+				if (value != null) {
+					in.readBytes(value, 0, length);
+				}
+				setter.accept(o, value);
+			});
+		}
+
+		/**
+		 * Add an {@code int} array field with each element written with variable-length encoding.
+		 */
+		public Builder<T> intArray(Function<T, int[]> getter, BiConsumer<T, int[]> setter) {
+
+			return add((o, out) -> {
+				int[] value = getter.apply(o);
+				writeLength(out, value, value != null ? value.length : 0);
+				if (value != null)
+				{
+					for (int element : value) {
+						out.writeVarInt(VarInts.zigZag(element));
+					}
+				}
+			}, (o, in) -> {
+				int length = readLength(in, 1);
+				int[] value = length >= 0 ? new int[length] : null;
+				for (int i = 0; i < length; i++) {
+					value[i] = VarInts.unZigZag(in.readVarInt());
+				}
+				setter.accept(o, value);
+			});
+		}
+
+		/**
+		 * Add a {@code long} array field with each element written with variable-length encoding.
+		 */
+		public Builder<T> longArray(Function<T, long[]> getter, BiConsumer<T, long[]> setter) {
+
+			return add((o, out) -> {
+				long[] value = getter.apply(o);
+				writeLength(out, value, value != null ? value.length : 0);
+				if (value != null)
+				{
+					for (long element : value) {
+						out.writeVarLong(VarInts.zigZag(element));
+					}
+				}
+			}, (o, in) -> {
+				int length = readLength(in, 1);
+				long[] value = length >= 0 ? new long[length] : null;
+				for (int i = 0; i < length; i++) {
+					value[i] = VarInts.unZigZag(in.readVarLong());
+				}
+				setter.accept(o, value);
+			});
+		}
+
+		public Builder<T> floatArray(Function<T, float[]> getter, BiConsumer<T, float[]> setter) {
+
+			return add((o, out) -> {
+				float[] value = getter.apply(o);
+				writeLength(out, value, value != null ? value.length : 0);
+				if (value != null) {
+					out.writeFloats(value);
+				}
+			}, (o, in) -> {
+				int length = readLength(in, Float.BYTES);
+				float[] value = length >= 0 ? new float[length] : null;
+				if (value != null) {
+					in.readFloats(value);
+				}
+				setter.accept(o, value);
+			});
+		}
+
+		public Builder<T> doubleArray(Function<T, double[]> getter, BiConsumer<T, double[]> setter) {
+
+			return add((o, out) -> {
+				double[] value = getter.apply(o);
+				writeLength(out, value, value != null ? value.length : 0);
+				if (value != null) {
+					out.writeDoubles(value);
+				}
+			}, (o, in) -> {
+				int length = readLength(in, Double.BYTES);
+				double[] value = length >= 0 ? new double[length] : null;
+				if (value != null) {
+					in.readDoubles(value);
+				}
+				setter.accept(o, value);
+			});
+		}
+
+		/**
+		 * Add a field that holds an object written with its own schema and version.
+		 */
+		public <V> Builder<T> object(Schema<V> schema, Function<T, V> getter, BiConsumer<T, V> setter) {
+
+			return add((o, out) -> {
+				V value = getter.apply(o);
+				out.writeBoolean(value != null);
+				if (value != null) {
+					schema.write(value, out);
+				}
+			}, (o, in) -> setter.accept(o, in.readBoolean() ? schema.read(in) : null));
+		}
+
+		public Schema<T> build() {
+			return new Schema<>(this);
+		}
+	}
+}
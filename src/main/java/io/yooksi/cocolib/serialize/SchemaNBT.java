@@ -0,0 +1,58 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.serialize;
+
+import net.minecraft.nbt.ByteArrayNBT;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraftforge.common.util.Constants;
+
+import javax.annotation.Nullable;
+
+/**
+ * Bridge that stores objects written by a {@link Schema} as a single NBT byte array,
+ * for example in capability or world saved data, instead of a tree of NBT tags.
+ */
+public final class SchemaNBT {
+
+	private SchemaNBT() {
+		throw new UnsupportedOperationException();
+	}
+
+	public static <T> ByteArrayNBT write(Schema<T> schema, T object) {
+		return new ByteArrayNBT(schema.toByteArray(object));
+	}
+
+	public static <T> T read(Schema<T> schema, ByteArrayNBT tag) {
+		return schema.fromByteArray(tag.getByteArray());
+	}
+
+	/**
+	 * Write the given object to the compound under the given key.
+	 */
+	public static <T> void write(Schema<T> schema, T object, CompoundNBT compound, String key) {
+		compound.putByteArray(key, schema.toByteArray(object));
+	}
+
+	/**
+	 * @return object read from the compound under the given key, or
+	 * 		{@code null} if the compound does not contain a byte array with that key.
+	 */
+	public static <T> @Nullable T read(Schema<T> schema, CompoundNBT compound, String key) {
+
+		if (!compound.contains(key, Constants.NBT.TAG_BYTE_ARRAY)) {
+			return null;
+		}
+		return schema.fromByteArray(compound.getByteArray(key));
+	}
+}
@@ -0,0 +1,304 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.setup;
+
+import io.yooksi.cocolib.CocoLogger;
+import net.minecraftforge.fml.DeferredWorkQueue;
+import net.minecraftforge.fml.loading.FMLPaths;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ *     Registry of mod setup tasks executed in parallel during common setup.
+ * <p>
+ *     Mods register their tasks from the mod constructor. When CocoLib receives the common setup
+ *     event the tasks are scheduled according to their dependencies: independent worker tasks start
+ *     right away on a dedicated thread pool, while main thread tasks are executed from the Forge
+ *     deferred work queue once all of their dependencies complete. Setup is considered complete when
+ *     all tasks have finished, after which a timing report is logged and written to
+ *     {@value #REPORT_FILE} in the game directory.
+ * <p>
+ *     If a task fails all tasks that depend on it are skipped and the failure is
+ *     rethrown from the deferred work queue, which stops the mod loading process.
+ * </p>
+ */
+public final class SetupRegistry {
+
+	/** Location of the timing report relative to the game directory. */
+	public static final String REPORT_FILE = "logs/cocolib-setup.tsv";
+
+	private static final List<SetupTask> TASKS = new ArrayList<>();
+	private static boolean started;
+
+	private SetupRegistry() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Register a new setup task. Tasks have to be registered
+	 * before common setup starts, preferably in the mod constructor.
+	 *
+	 * @throws IllegalStateException if common setup has already started.
+	 * @throws IllegalArgumentException if a task with the same name is already registered.
+	 */
+	public static synchronized void register(SetupTask task) {
+
+		if (started) {
+			throw new IllegalStateException("Unable to register setup task " + task + ", common setup has already started");
+		}
+		for (SetupTask registered : TASKS)
+		{
+			if (registered.getName().equals(task.getName())) {
+				throw new IllegalArgumentException("Setup task " + task + " is already registered");
+			}
+		}
+		TASKS.add(task);
+	}
+
+	/**
+	 * @see #register(SetupTask)
+	 */
+	public static void register(SetupTask.Builder builder) {
+		register(builder.build());
+	}
+
+	/**
+	 * Schedule all registered tasks. This is called by CocoLib while handling
+	 * the common setup event and should not be called by other mods.
+	 *
+	 * @throws IllegalStateException if tasks have already been scheduled, a dependency
+	 * 		is not registered or there is a circular dependency between tasks.
+	 */
+	public static void execute() {
+
+		List<SetupTask> tasks;
+		synchronized (SetupRegistry.class)
+		{
+			if (started) {
+				throw new IllegalStateException("Setup tasks have already been scheduled");
+			}
+			started = true;
+			tasks = new ArrayList<>(TASKS);
+			TASKS.clear();
+		}
+		if (tasks.isEmpty()) {
+			return;
+		}
+		List<Execution> order = sort(tasks);
+		long start = System.nanoTime();
+
+		ExecutorService workers = Executors.newFixedThreadPool(Math.min(
+				Runtime.getRuntime().availableProcessors(), order.size()), new WorkerFactory());
+		BlockingQueue<Runnable> mainQueue = new LinkedBlockingQueue<>();
+
+		Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+		for (Execution execution : order)
+		{
+			CompletableFuture<?>[] dependencies = execution.task.getDependencies()
+					.stream().map(futures::get).toArray(CompletableFuture[]::new);
+
+			Executor executor = execution.task.isMainThread() ? mainQueue::add : workers;
+			futures.put(execution.task.getName(), CompletableFuture.allOf(dependencies)
+					.thenRunAsync(() -> execution.run(start), executor));
+		}
+		CompletableFuture<Void> all = CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]));
+		// Wake up the main thread when the last task completes
+		all.whenComplete((v, t) -> mainQueue.add(() -> {}));
+
+		DeferredWorkQueue.runLater(() -> {
+
+			try {
+				while (!all.isDone()) {
+					mainQueue.take().run();
+				}
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for setup tasks", e);
+			}
+			finally {
+				workers.shutdown();
+			}
+			report(order, System.nanoTime() - start);
+
+			for (Execution execution : order)
+			{
+				if (execution.error != null) {
+					throw new IllegalStateException("Setup task " + execution.task + " failed", execution.error);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Sort the given tasks so that each task comes after all of its dependencies.
+	 *
+	 * @throws IllegalStateException if a dependency is not registered or
+	 * 		there is a circular dependency between tasks.
+	 */
+	private static List<Execution> sort(List<SetupTask> tasks) {
+
+		Map<String, SetupTask> byName = new HashMap<>();
+		Map<String, List<SetupTask>> dependants = new HashMap<>();
+		Map<String, Integer> pending = new HashMap<>();
+
+		for (SetupTask task : tasks) {
+			byName.put(task.getName(), task);
+		}
+		Deque<SetupTask> ready = new ArrayDeque<>();
+		for (SetupTask task : tasks)
+		{
+			for (String dependency : task.getDependencies())
+			{
+				if (!byName.containsKey(dependency)) {
+					throw new IllegalStateException("Setup task " + task + " depends on unknown task " + dependency);
+				}
+				dependants.computeIfAbsent(dependency, k -> new ArrayList<>()).add(task);
+			}
+			pending.put(task.getName(), task.getDependencies().size());
+			if (task.getDependencies().isEmpty()) {
+				ready.add(task);
+			}
+		}
+		List<Execution> order = new ArrayList<>(tasks.size());
+		while (!ready.isEmpty())
+		{
+			SetupTask task = ready.poll();
+			order.add(new Execution(task));
+			for (SetupTask dependant : dependants.getOrDefault(task.getName(), Collections.emptyList()))
+			{
+				if (pending.merge(dependant.getName(), -1, Integer::sum) == 0) {
+					ready.add(dependant);
+				}
+			}
+		}
+		if (order.size() != tasks.size())
+		{
+			StringJoiner cycle = new StringJoiner(", ");
+			pending.forEach((name, count) -> {
+				if (count > 0) cycle.add(name);
+			});
+			throw new IllegalStateException("Circular dependency between setup tasks: " + cycle);
+		}
+		return order;
+	}
+
+	private static void report(List<Execution> order, long wallTime) {
+
+		long serialTime = 0;
+		int failed = 0, skipped = 0;
+		for (Execution execution : order)
+		{
+			serialTime += execution.getDuration();
+			if (execution.error != null) {
+				failed++;
+			}
+			else if (execution.thread == null) {
+				skipped++;
+			}
+		}
+		CocoLogger.info(String.format("Executed %d setup tasks in %.1f ms (%.1f ms serial, %.2fx speedup), " +
+				"%d failed, %d skipped", order.size(), wallTime / 1e6, serialTime / 1e6,
+				wallTime > 0 ? serialTime / (double) wallTime : 1.0, failed, skipped));
+
+		List<Execution> sorted = new ArrayList<>(order);
+		sorted.sort(Comparator.comparingLong(Execution::getDuration).reversed());
+
+		Path path = FMLPaths.GAMEDIR.get().resolve(REPORT_FILE);
+		try {
+			Files.createDirectories(path.getParent());
+			try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8)))
+			{
+				writer.println("task\tthread\tstatus\tstart_ms\tduration_ms");
+				for (Execution execution : sorted)
+				{
+					writer.printf(Locale.ROOT, "%s\t%s\t%s\t%.3f\t%.3f%n", execution.task,
+							execution.thread != null ? execution.thread : "-", execution.getStatus(),
+							execution.startTime / 1e6, execution.getDuration() / 1e6);
+				}
+				writer.printf(Locale.ROOT, "total\t-\t-\t0.000\t%.3f%n", wallTime / 1e6);
+			}
+		}
+		catch (IOException e) {
+			CocoLogger.error("Unable to write setup report to " + path, e);
+		}
+	}
+
+	/**
+	 * Timing and outcome of a single task execution.
+	 */
+	private static final class Execution {
+
+		private final SetupTask task;
+
+		/** Start time relative to the start of setup and duration in nanoseconds. */
+		private long startTime, duration;
+
+		private @Nullable String thread;
+		private @Nullable Throwable error;
+
+		private Execution(SetupTask task) {
+			this.task = task;
+		}
+
+		private void run(long setupStart) {
+
+			thread = Thread.currentThread().getName();
+			long start = System.nanoTime();
+			startTime = start - setupStart;
+			try {
+				task.getAction().run();
+			}
+			catch (RuntimeException | Error e)
+			{
+				error = e;
+				throw e;
+			}
+			finally {
+				duration = System.nanoTime() - start;
+			}
+		}
+
+		private long getDuration() {
+			return duration;
+		}
+
+		private String getStatus() {
+			return error != null ? "FAILED" : thread != null ? "DONE" : "SKIPPED";
+		}
+	}
+
+	private static final class WorkerFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+
+			Thread thread = new Thread(runnable, "CocoLib Setup Worker-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.setup;
+
+import org.jetbrains.annotations.Contract;
+
+import java.util.*;
+
+/**
+ * <p>
+ *     Unit of mod setup work that is executed by {@link SetupRegistry} during common setup.
+ * <p>
+ *     Each task is identified by a name in {@code modid:task} format and declares names of
+ *     tasks it depends on. Tasks run on a worker thread by default, tasks that have to interact
+ *     with game state that is not thread-safe should be marked to run on the main thread.
+ *     Use {@link Builder} to create a new {@code SetupTask}.
+ * </p>
+ */
+public final class SetupTask {
+
+	private final String name;
+	private final Set<String> dependencies;
+	private final boolean mainThread;
+	private final Runnable action;
+
+	private SetupTask(Builder builder) {
+
+		this.name = builder.name;
+		this.dependencies = Collections.unmodifiableSet(new LinkedHashSet<>(builder.dependencies));
+		this.mainThread = builder.mainThread;
+		this.action = builder.action;
+	}
+
+	public static class Builder {
+
+		private final String name;
+		private final Runnable action;
+		private final Set<String> dependencies = new LinkedHashSet<>();
+		private boolean mainThread;
+
+		private Builder(String name, Runnable action) {
+			this.name = name;
+			this.action = action;
+		}
+
+		/**
+		 * @param modId id of the mod that owns the task.
+		 * @param name name of the task unique within the mod.
+		 * @param action work to execute when all dependencies complete.
+		 */
+		@Contract(value = "_, _, _ -> new", pure = true)
+		public static Builder create(String modId, String name, Runnable action) {
+			return new Builder(modId + ':' + name, action);
+		}
+
+		/**
+		 * Run the task only after the given tasks complete successfully.
+		 *
+		 * @param tasks names of tasks in {@code modid:task} format.
+		 */
+		public Builder after(String... tasks) {
+
+			dependencies.addAll(Arrays.asList(tasks));
+			return this;
+		}
+
+		/**
+		 * Run the task on the main thread through the Forge deferred work queue.
+		 */
+		public Builder onMainThread() {
+
+			mainThread = true;
+			return this;
+		}
+
+		public SetupTask build() {
+			return new SetupTask(this);
+		}
+	}
+
+	/**
+	 * @return name of the task in {@code modid:task} format.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return unmodifiable set of names of tasks this task depends on.
+	 */
+	public Set<String> getDependencies() {
+		return dependencies;
+	}
+
+	/**
+	 * @return {@code true} if the task has to run on the main thread.
+	 */
+	public boolean isMainThread() {
+		return mainThread;
+	}
+
+	Runnable getAction() {
+		return action;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
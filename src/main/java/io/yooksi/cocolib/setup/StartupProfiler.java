@@ -0,0 +1,228 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.setup;
+
+import io.yooksi.cocolib.CocoLogger;
+import net.minecraftforge.event.RegistryEvent;
+import net.minecraftforge.eventbus.api.Event;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.IEventBus;
+import net.minecraftforge.fml.ModList;
+import net.minecraftforge.fml.event.lifecycle.*;
+import net.minecraftforge.fml.javafmlmod.FMLModContainer;
+import net.minecraftforge.fml.loading.FMLPaths;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ *     Opt-in profiler that measures how much time, class loading and memory allocation
+ *     each mod spends in its listeners for each mod loading phase.
+ * <p>
+ *     The profiler is enabled with {@value #PROPERTY} system property. When enabled, CocoLib
+ *     registers a listener with the highest and lowest priority for each lifecycle event on the
+ *     event bus of every mod, and records the difference in measured values between the two.
+ *     When all mods complete loading the results are logged and written to {@value #REPORT_FILE}
+ *     in the game directory as tab separated values that can be sorted by any column.
+ * <p>
+ *     Keep the following limitations in mind when reading the report:
+ *     <ul>
+ *         <li>Mod construction can not be measured because mods are constructed in
+ *         parallel with CocoLib, before any of its listeners can be registered.</li>
+ *         <li>Listeners registered with the same priority before CocoLib was
+ *         constructed run outside the measured window.</li>
+ *         <li>Class loading is counted globally and mods load in parallel, so the number
+ *         of classes loaded by one mod may include classes loaded by other mods at the same
+ *         time. Allocated bytes are counted per thread and are not affected by this.</li>
+ *     </ul>
+ * </p>
+ */
+public final class StartupProfiler {
+
+	/** Name of the system property that enables the profiler. */
+	public static final String PROPERTY = "cocolib.profileStartup";
+
+	/** Location of the profiler report relative to the game directory. */
+	public static final String REPORT_FILE = "logs/cocolib-startup.tsv";
+
+	private static final ClassLoadingMXBean CLASS_LOADING = ManagementFactory.getClassLoadingMXBean();
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private static final Queue<Sample> SAMPLES = new ConcurrentLinkedQueue<>();
+	private static final AtomicInteger PENDING = new AtomicInteger();
+	private static boolean installed;
+
+	private StartupProfiler() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * @return {@code true} if the profiler was enabled with {@value #PROPERTY} system property.
+	 */
+	public static boolean isEnabled() {
+		return Boolean.getBoolean(PROPERTY);
+	}
+
+	/**
+	 * Register profiler listeners on the event bus of every mod. This is called
+	 * by CocoLib during construction and should not be called by other mods.
+	 */
+	public static synchronized void install() {
+
+		if (installed) {
+			return;
+		}
+		installed = true;
+		ModList.get().forEachModContainer((modId, container) -> {
+			if (container instanceof FMLModContainer)
+			{
+				PENDING.incrementAndGet();
+				install(modId, ((FMLModContainer) container).getEventBus());
+			}
+		});
+		CocoLogger.info(String.format("Startup profiler enabled for %d mods", PENDING.get()));
+	}
+
+	private static void install(String modId, IEventBus bus) {
+
+		Probe probe = new Probe(modId);
+		probe.listen(bus, RegistryEvent.NewRegistry.class, "new_registry");
+		probe.listen(bus, FMLCommonSetupEvent.class, "common_setup");
+		probe.listen(bus, FMLClientSetupEvent.class, "client_setup");
+		probe.listen(bus, FMLDedicatedServerSetupEvent.class, "server_setup");
+		probe.listen(bus, InterModEnqueueEvent.class, "imc_enqueue");
+		probe.listen(bus, InterModProcessEvent.class, "imc_process");
+		probe.listen(bus, FMLLoadCompleteEvent.class, "load_complete");
+
+		bus.addListener(EventPriority.LOWEST, false, FMLLoadCompleteEvent.class, event -> {
+			if (PENDING.decrementAndGet() == 0) {
+				report();
+			}
+		});
+	}
+
+	private static long getAllocatedBytes() {
+
+		if (THREADS instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+
+	private static void report() {
+
+		Map<String, Sample> totals = new TreeMap<>();
+		List<Sample> rows = new ArrayList<>(SAMPLES);
+		for (Sample sample : rows) {
+			totals.computeIfAbsent(sample.modId, id -> new Sample(id, "total", 0, 0, 0)).add(sample);
+		}
+		rows.addAll(totals.values());
+		rows.sort(Comparator.comparingLong((Sample s) -> s.wallTime).reversed());
+
+		List<Sample> slowest = new ArrayList<>(totals.values());
+		slowest.sort(Comparator.comparingLong((Sample s) -> s.wallTime).reversed());
+		StringBuilder summary = new StringBuilder("Slowest mods during loading:");
+		for (int i = 0; i < Math.min(10, slowest.size()); i++)
+		{
+			Sample sample = slowest.get(i);
+			summary.append(String.format(Locale.ROOT, "%n  %-24s %8.1f ms %6d classes %8d KB",
+					sample.modId, sample.wallTime / 1e6, sample.classes, sample.allocated / 1024));
+		}
+		CocoLogger.info(summary.toString());
+
+		Path path = FMLPaths.GAMEDIR.get().resolve(REPORT_FILE);
+		try {
+			Files.createDirectories(path.getParent());
+			try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8)))
+			{
+				writer.println("mod\tphase\twall_ms\tclasses\tallocated_kb");
+				for (Sample sample : rows)
+				{
+					writer.printf(Locale.ROOT, "%s\t%s\t%.3f\t%d\t%d%n", sample.modId,
+							sample.phase, sample.wallTime / 1e6, sample.classes, sample.allocated / 1024);
+				}
+			}
+			CocoLogger.info("Startup profiler report written to " + path);
+		}
+		catch (IOException e) {
+			CocoLogger.error("Unable to write startup profiler report to " + path, e);
+		}
+	}
+
+	/**
+	 * Measures the listeners of a single mod. Mod events are dispatched to each
+	 * mod from one thread at a time, so the start values are not shared between threads.
+	 */
+	private static final class Probe {
+
+		private final String modId;
+		private long wallTime, classes, allocated;
+
+		private Probe(String modId) {
+			this.modId = modId;
+		}
+
+		private <T extends Event> void listen(IEventBus bus, Class<T> type, String phase) {
+
+			bus.addListener(EventPriority.HIGHEST, true, type, event -> start());
+			bus.addListener(EventPriority.LOWEST, true, type, event -> stop(phase));
+		}
+
+		private void start() {
+
+			classes = CLASS_LOADING.getTotalLoadedClassCount();
+			allocated = getAllocatedBytes();
+			wallTime = System.nanoTime();
+		}
+
+		private void stop(String phase) {
+
+			long now = System.nanoTime();
+			SAMPLES.add(new Sample(modId, phase, now - wallTime,
+					CLASS_LOADING.getTotalLoadedClassCount() - classes, getAllocatedBytes() - allocated));
+		}
+	}
+
+	private static final class Sample {
+
+		private final String modId, phase;
+		private long wallTime, classes, allocated;
+
+		private Sample(String modId, String phase, long wallTime, long classes, long allocated) {
+
+			this.modId = modId;
+			this.phase = phase;
+			this.wallTime = wallTime;
+			this.classes = classes;
+			this.allocated = allocated;
+		}
+
+		private void add(Sample other) {
+
+			wallTime += other.wallTime;
+			classes += other.classes;
+			allocated += other.allocated;
+		}
+	}
+}
@@ -0,0 +1,286 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.storage;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     Persistent per-chunk data store kept in its own region files, outside of chunk NBT.
+ * <p>
+ *     Data of each {@code 32x32} chunk region is stored in a separate memory-mapped file named
+ *     {@code r.<x>.<z>.ccr} in the store directory. Reads return read-only views of the mapped
+ *     file without copying, and writes copy data to free sectors so previously committed data is
+ *     never overwritten. Changes are committed to disk by {@link #flush()}, which a background thread
+ *     calls periodically, and on {@link #close()}. After a crash each region file is restored to its
+ *     state at the last commit. See {@link RegionFile} for details about the file format.
+ * <p>
+ *     At most {@value #MAX_OPEN_FILES} region files are kept open, like vanilla region files.
+ *     Opening another file commits and closes the least recently used one.
+ * <p>
+ *     The store does not depend on the game and can be used from any thread.
+ *     A typical location is a mod-specific folder in the dimension data directory.
+ * </p>
+ */
+public class RegionDataStore implements Closeable {
+
+	/** Default number of region files kept open at the same time. */
+	public static final int MAX_OPEN_FILES = 256;
+
+	@FunctionalInterface
+	private interface RegionAction<T> {
+		@Nullable T apply(RegionFile file, int index) throws IOException;
+	}
+
+	private final Path directory;
+	private final int maxOpenFiles;
+	/** Open region files in access order, the least recently used first. */
+	private final Map<Long, RegionFile> files = new LinkedHashMap<>(16, 0.75f, true);
+	private final @Nullable ScheduledExecutorService flusher;
+	private boolean closed;
+
+	/**
+	 * Create a store without a background flush thread, changes are only
+	 * committed when {@link #flush()} or {@link #close()} is called.
+	 *
+	 * @param directory directory that holds the region files, created if it does not exist.
+	 * @throws IOException if the directory could not be created.
+	 */
+	public RegionDataStore(Path directory) throws IOException {
+		this(directory, 0, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * @param directory directory that holds the region files, created if it does not exist.
+	 * @param flushInterval interval between background commits, {@code 0} to disable the flush thread.
+	 * @param unit time unit of the flush interval.
+	 * @throws IOException if the directory could not be created.
+	 */
+	public RegionDataStore(Path directory, long flushInterval, TimeUnit unit) throws IOException {
+		this(directory, flushInterval, unit, MAX_OPEN_FILES);
+	}
+
+	/**
+	 * @param maxOpenFiles maximum number of region files kept open at the same time.
+	 * @see #RegionDataStore(Path, long, TimeUnit)
+	 */
+	RegionDataStore(Path directory, long flushInterval, TimeUnit unit, int maxOpenFiles) throws IOException {
+
+		if (maxOpenFiles < 1) {
+			throw new IllegalArgumentException("Invalid open file limit " + maxOpenFiles);
+		}
+		this.directory = Files.createDirectories(directory);
+		this.maxOpenFiles = maxOpenFiles;
+		if (flushInterval > 0)
+		{
+			flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "CocoLib Region Flush - " + directory.getFileName());
+				thread.setDaemon(true);
+				return thread;
+			});
+			flusher.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, unit);
+		}
+		else flusher = null;
+	}
+
+	private static long getRegionKey(int regionX, int regionZ) {
+		return (long) regionX << 32 | regionZ & 0xFFFFFFFFL;
+	}
+
+	private static int getChunkIndex(int chunkX, int chunkZ) {
+		return (chunkX & 31) | (chunkZ & 31) << 5;
+	}
+
+	/**
+	 * @return path of the file that holds data of the region at the given region coordinates.
+	 */
+	public Path getRegionPath(int regionX, int regionZ) {
+		return directory.resolve("r." + regionX + "." + regionZ + ".ccr");
+	}
+
+	/**
+	 * Open the region file that holds data of the given chunk if it is not open yet,
+	 * closing the least recently used file when the open file limit is reached.
+	 *
+	 * @param create whether to create the region file if it does not exist.
+	 * @return region file that holds data of the given chunk, or {@code null} if it does not exist.
+	 * @throws IOException if the region file could not be opened, or the evicted file could not be closed.
+	 */
+	private synchronized @Nullable RegionFile getFile(int chunkX, int chunkZ, boolean create) throws IOException {
+
+		if (closed) {
+			throw new IllegalStateException("Region data store is closed");
+		}
+		long key = getRegionKey(chunkX >> 5, chunkZ >> 5);
+		RegionFile file = files.get(key);
+		if (file == null)
+		{
+			Path path = getRegionPath(chunkX >> 5, chunkZ >> 5);
+			if (!create && !Files.exists(path)) {
+				return null;
+			}
+			if (files.size() >= maxOpenFiles)
+			{
+				Iterator<RegionFile> eldest = files.values().iterator();
+				RegionFile evicted = eldest.next();
+				eldest.remove();
+				evicted.close();
+			}
+			file = new RegionFile(path);
+			files.put(key, file);
+		}
+		return file;
+	}
+
+	/**
+	 * Apply the given action to the region file that holds data of the given chunk. The action is
+	 * applied again to a newly opened file if another thread closed the file to stay under the
+	 * open file limit, so the action should not have side effects when the file is closed.
+	 *
+	 * @return result of the action, or {@code null} if the region file does not exist.
+	 */
+	private <T> @Nullable T access(int chunkX, int chunkZ, boolean create, RegionAction<T> action) throws IOException {
+
+		for (;;)
+		{
+			RegionFile file = getFile(chunkX, chunkZ, create);
+			if (file == null) {
+				return null;
+			}
+			try {
+				return action.apply(file, getChunkIndex(chunkX, chunkZ));
+			}
+			catch (ClosedChannelException e) {
+				// Closed by another thread after it was returned, open it again
+			}
+		}
+	}
+
+	/**
+	 * @return read-only view of the data stored for the chunk at the given chunk coordinates,
+	 * 		or {@code null} if no data is stored. The view should be consumed right away,
+	 * 		as its content may change after the next flush.
+	 * @throws IOException if the region file could not be opened or the data is corrupted.
+	 */
+	public @Nullable ByteBuffer read(int chunkX, int chunkZ) throws IOException {
+		return access(chunkX, chunkZ, false, RegionFile::read);
+	}
+
+	/**
+	 * Store the remaining bytes of the given buffer as data of the chunk at the given
+	 * chunk coordinates, replacing previous data. The position of the buffer is not changed.
+	 *
+	 * @throws IOException if the region file could not be opened or grown.
+	 */
+	public void write(int chunkX, int chunkZ, ByteBuffer data) throws IOException {
+
+		access(chunkX, chunkZ, true, (file, index) -> {
+			file.write(index, data.duplicate());
+			return null;
+		});
+	}
+
+	/**
+	 * @see #write(int, int, ByteBuffer)
+	 */
+	public void write(int chunkX, int chunkZ, byte[] data) throws IOException {
+		write(chunkX, chunkZ, ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Remove data stored for the chunk at the given chunk coordinates.
+	 *
+	 * @throws IOException if the region file could not be opened.
+	 */
+	public void delete(int chunkX, int chunkZ) throws IOException {
+
+		access(chunkX, chunkZ, false, (file, index) -> {
+			file.delete(index);
+			return null;
+		});
+	}
+
+	/**
+	 * Commit changes in all open region files to disk. Files closed by another
+	 * thread in the meantime were committed when they were closed.
+	 */
+	public void flush() {
+
+		List<RegionFile> open;
+		synchronized (this) {
+			open = new ArrayList<>(files.values());
+		}
+		for (RegionFile file : open) {
+			file.commit();
+		}
+	}
+
+	/**
+	 * Stop the background flush thread, commit all changes and close all region files.
+	 *
+	 * @throws IOException if any of the region files could not be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+
+		if (flusher != null)
+		{
+			flusher.shutdown();
+			try {
+				flusher.awaitTermination(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		IOException failure = null;
+		synchronized (this)
+		{
+			closed = true;
+			for (RegionFile file : files.values())
+			{
+				try {
+					file.close();
+				}
+				catch (IOException e)
+				{
+					if (failure == null) {
+						failure = e;
+					}
+				}
+			}
+			files.clear();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * @return number of currently open region files.
+	 */
+	public synchronized int getOpenFileCount() {
+		return files.size();
+	}
+}
@@ -0,0 +1,344 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.storage;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+
+/**
+ * <p>
+ *     Memory-mapped file that stores data of {@code 32x32} chunks in fixed-size sectors.
+ * <p>
+ *     The file starts with two copies of the header, each holding a sequence number, a checksum
+ *     and a table with the first sector, length and checksum of data stored for each chunk.
+ *     Writes never overwrite sectors referenced by the last committed header: new data is copied
+ *     to free sectors and only the in-memory table is updated. {@link #commit()} forces data to
+ *     disk and then writes the table to the older header copy with the next sequence number.
+ *     When the file is opened the valid copy with the highest sequence number is used, so a crash
+ *     at any point leaves the file as it was after the last successful commit.
+ * </p>
+ */
+final class RegionFile implements Closeable {
+
+	static final int SECTOR_SIZE = 4096;
+	static final int CHUNKS = 32 * 32;
+
+	private static final int MAGIC = 0x43435244;
+	private static final int VERSION = 1;
+
+	/* Header layout: magic, checksum, version, unused, sequence, entries */
+	private static final int CHECKSUM_OFFSET = 4, VERSION_OFFSET = 8, SEQUENCE_OFFSET = 16, ENTRIES_OFFSET = 24;
+	private static final int ENTRY_SIZE = 12;
+	private static final int HEADER_SECTORS = (ENTRIES_OFFSET + CHUNKS * ENTRY_SIZE + SECTOR_SIZE - 1) / SECTOR_SIZE;
+	private static final int HEADER_SIZE = HEADER_SECTORS * SECTOR_SIZE;
+
+	/** Number of sectors reserved for both header copies at the start of the file. */
+	static final int RESERVED_SECTORS = HEADER_SECTORS * 2;
+
+	private final FileChannel channel;
+	private MappedByteBuffer buffer;
+
+	/* Table of chunk entries, sector 0 marks missing data */
+	private final int[] sectors = new int[CHUNKS], lengths = new int[CHUNKS], checksums = new int[CHUNKS];
+
+	/** Sectors referenced by the in-memory table. */
+	private BitSet used = new BitSet();
+	/** Sectors that can not be allocated, used or referenced by the last committed header. */
+	private BitSet taken = new BitSet();
+
+	private int activeHeader;
+	private long sequence;
+	private boolean dirty, closed;
+
+	/**
+	 * Open the region file at the given path, creating it if it does not exist.
+	 *
+	 * @throws IOException if the file could not be opened or neither header copy is valid.
+	 */
+	RegionFile(Path path) throws IOException {
+
+		channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+		try {
+			long size = channel.size();
+			if (size == 0)
+			{
+				buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, RESERVED_SECTORS * SECTOR_SIZE);
+				activeHeader = 1;
+				dirty = true;
+				commit();
+			}
+			else {
+				if (size < RESERVED_SECTORS * SECTOR_SIZE || size > Integer.MAX_VALUE) {
+					throw new IOException("Invalid region file size " + size);
+				}
+				buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+				load();
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	private void load() throws IOException {
+
+		long first = readSequence(0), second = readSequence(1);
+		if (first < 0 && second < 0) {
+			throw new IOException("Region file has no valid header");
+		}
+		activeHeader = first >= second ? 0 : 1;
+		sequence = Math.max(first, second);
+
+		int base = activeHeader * HEADER_SIZE + ENTRIES_OFFSET;
+		int fileSectors = buffer.capacity() / SECTOR_SIZE;
+		for (int i = 0; i < CHUNKS; i++)
+		{
+			int sector = buffer.getInt(base + i * ENTRY_SIZE);
+			int length = buffer.getInt(base + i * ENTRY_SIZE + 4);
+			int count = getSectorCount(length);
+			if (sector == 0) {
+				continue;
+			}
+			if (sector < RESERVED_SECTORS || length < 0 || sector + count > fileSectors) {
+				throw new IOException("Invalid entry for chunk " + i + " in region file header");
+			}
+			sectors[i] = sector;
+			lengths[i] = length;
+			checksums[i] = buffer.getInt(base + i * ENTRY_SIZE + 8);
+			used.set(sector, sector + count);
+		}
+		taken = (BitSet) used.clone();
+	}
+
+	/**
+	 * @return sequence number of the given header copy, or {@code -1} if the copy is not valid.
+	 */
+	private long readSequence(int header) {
+
+		int base = header * HEADER_SIZE;
+		if (buffer.getInt(base) != MAGIC || buffer.getInt(base + VERSION_OFFSET) != VERSION) {
+			return -1;
+		}
+		if (buffer.getInt(base + CHECKSUM_OFFSET) != checksum(base + VERSION_OFFSET, HEADER_SIZE - VERSION_OFFSET)) {
+			return -1;
+		}
+		return buffer.getLong(base + SEQUENCE_OFFSET);
+	}
+
+	private int checksum(int offset, int length) {
+
+		ByteBuffer region = buffer.duplicate();
+		region.limit(offset + length).position(offset);
+		CRC32 crc = new CRC32();
+		crc.update(region);
+		return (int) crc.getValue();
+	}
+
+	private static int getSectorCount(int length) {
+		return Math.max(1, (length + SECTOR_SIZE - 1) / SECTOR_SIZE);
+	}
+
+	/**
+	 * @param index index of the chunk within the region.
+	 * @return read-only view of the mapped data stored for the chunk, or {@code null} if
+	 * 		there is no data. The view may change after the next commit, as sectors that
+	 * 		are no longer referenced can then be reused.
+	 * @throws IOException if the data does not match the stored checksum.
+	 * @throws ClosedChannelException if the file is closed.
+	 */
+	synchronized @Nullable ByteBuffer read(int index) throws IOException {
+
+		ensureOpen();
+		if (sectors[index] == 0) {
+			return null;
+		}
+		int offset = sectors[index] * SECTOR_SIZE;
+		if (checksum(offset, lengths[index]) != checksums[index]) {
+			throw new IOException("Checksum mismatch for chunk " + index + " in region file");
+		}
+		ByteBuffer view = buffer.duplicate();
+		view.limit(offset + lengths[index]).position(offset);
+		return view.slice().asReadOnlyBuffer();
+	}
+
+	/**
+	 * Copy the remaining bytes of the given buffer to free sectors and make them the
+	 * data of the given chunk. The change becomes durable with the next {@link #commit()}.
+	 *
+	 * @throws ClosedChannelException if the file is closed.
+	 */
+	synchronized void write(int index, ByteBuffer data) throws IOException {
+
+		ensureOpen();
+		int length = data.remaining();
+		int count = getSectorCount(length);
+		int sector = allocate(count);
+
+		ByteBuffer target = buffer.duplicate();
+		target.position(sector * SECTOR_SIZE);
+		int checksum = checksum(data);
+		target.put(data);
+
+		release(index);
+		sectors[index] = sector;
+		lengths[index] = length;
+		checksums[index] = checksum;
+		used.set(sector, sector + count);
+		dirty = true;
+	}
+
+	/**
+	 * Remove data of the given chunk. The change becomes durable with the next {@link #commit()}.
+	 *
+	 * @throws ClosedChannelException if the file is closed.
+	 */
+	synchronized void delete(int index) throws ClosedChannelException {
+
+		ensureOpen();
+		if (sectors[index] != 0)
+		{
+			release(index);
+			dirty = true;
+		}
+	}
+
+	private void ensureOpen() throws ClosedChannelException {
+
+		if (closed) {
+			throw new ClosedChannelException();
+		}
+	}
+
+	private static int checksum(ByteBuffer data) {
+
+		CRC32 crc = new CRC32();
+		crc.update(data.duplicate());
+		return (int) crc.getValue();
+	}
+
+	private void release(int index) {
+
+		if (sectors[index] != 0)
+		{
+			// Sectors stay taken until the next commit, as the committed header may reference them
+			used.clear(sectors[index], sectors[index] + getSectorCount(lengths[index]));
+			sectors[index] = lengths[index] = checksums[index] = 0;
+		}
+	}
+
+	/**
+	 * Find the first run of free sectors of the given length, growing the file if needed.
+	 */
+	private int allocate(int count) throws IOException {
+
+		int start = taken.nextClearBit(RESERVED_SECTORS);
+		for (;;)
+		{
+			int next = taken.nextSetBit(start);
+			if (next < 0 || next - start >= count) {
+				break;
+			}
+			start = taken.nextClearBit(next);
+		}
+		long end = (long) (start + count) * SECTOR_SIZE;
+		if (end > buffer.capacity())
+		{
+			long capacity = Math.min(Math.max(end, buffer.capacity() * 2L), Integer.MAX_VALUE);
+			if (end > capacity) {
+				throw new IOException("Region file is too large");
+			}
+			// Views returned by earlier reads keep the previous mapping alive
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+		}
+		taken.set(start, start + count);
+		return start;
+	}
+
+	/**
+	 * Make all changes since the last commit durable. Data is forced to disk before the header
+	 * that references it is written to the inactive header copy, so the previous header stays
+	 * valid until the new one is complete.
+	 */
+	synchronized void commit() {
+
+		if (!dirty) {
+			return;
+		}
+		buffer.force();
+
+		int header = activeHeader ^ 1;
+		int base = header * HEADER_SIZE;
+		buffer.putInt(base, MAGIC);
+		buffer.putInt(base + VERSION_OFFSET, VERSION);
+		buffer.putLong(base + SEQUENCE_OFFSET, sequence + 1);
+		for (int i = 0; i < CHUNKS; i++)
+		{
+			int entry = base + ENTRIES_OFFSET + i * ENTRY_SIZE;
+			buffer.putInt(entry, sectors[i]);
+			buffer.putInt(entry + 4, lengths[i]);
+			buffer.putInt(entry + 8, checksums[i]);
+		}
+		buffer.putInt(base + CHECKSUM_OFFSET, checksum(base + VERSION_OFFSET, HEADER_SIZE - VERSION_OFFSET));
+		buffer.force();
+
+		activeHeader = header;
+		sequence++;
+		taken = (BitSet) used.clone();
+		dirty = false;
+	}
+
+	/**
+	 * @return {@code true} if there are changes that have not been committed.
+	 */
+	synchronized boolean isDirty() {
+		return dirty;
+	}
+
+	/**
+	 * @return number of chunks with stored data.
+	 */
+	synchronized int getChunkCount() {
+
+		int count = 0;
+		for (int sector : sectors)
+		{
+			if (sector != 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+
+		if (!closed)
+		{
+			commit();
+			channel.close();
+			closed = true;
+		}
+	}
+}
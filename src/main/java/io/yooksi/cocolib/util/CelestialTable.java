@@ -0,0 +1,123 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.util;
+
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.dimension.Dimension;
+import org.jetbrains.annotations.Range;
+
+/**
+ * <p>
+ *     Celestial angle, sky brightness and sun height for each tick of the day, computed once
+ *     for a dimension so that queries are a table lookup instead of trigonometry.
+ * <p>
+ *     Values are sampled from {@link Dimension#calculateCelestialAngle(long, float)} for each
+ *     day time from {@code 0} to {@code 23999} and interpolated for partial ticks. This assumes
+ *     the celestial angle only depends on the time of day, which is true for vanilla dimensions.
+ *     Tables are immutable and shared by all worlds of the same dimension type,
+ *     use {@link DayTime#getCelestialTable(net.minecraft.world.World)} to get one.
+ * </p>
+ */
+public final class CelestialTable {
+
+	private static final int DAY_LENGTH = 24000;
+
+	private final float[] angles = new float[DAY_LENGTH];
+	private final float[] daylight = new float[DAY_LENGTH];
+	private final float[] sunHeights = new float[DAY_LENGTH];
+
+	private CelestialTable() {
+	}
+
+	/**
+	 * Sample the celestial angle of the given dimension and compute the derived values.
+	 * Sky brightness follows {@code World.getSunBrightness} before weather is applied.
+	 */
+	static CelestialTable compute(Dimension dimension) {
+
+		CelestialTable table = new CelestialTable();
+		for (int i = 0; i < DAY_LENGTH; i++)
+		{
+			float angle = dimension.calculateCelestialAngle(i, 0.0f);
+			float light = 1.0f - (MathHelper.cos(angle * ((float) Math.PI * 2.0f)) * 2.0f + 0.2f);
+
+			table.angles[i] = angle;
+			table.daylight[i] = 1.0f - MathHelper.clamp(light, 0.0f, 1.0f);
+			table.sunHeights[i] = (float) Math.cos(angle * Math.PI * 2.0);
+		}
+		return table;
+	}
+
+	private static float lerp(float[] table, int index, float partialTicks) {
+
+		float from = table[index];
+		return from + (table[(index + 1) % DAY_LENGTH] - from) * partialTicks;
+	}
+
+	/**
+	 * @param timeOfDay world day time, wrapped within a day.
+	 * @param partialTicks fraction of the current tick that has elapsed.
+	 * @return celestial angle in range {@code [0, 1)}, where {@code 0} is noon.
+	 */
+	public float getCelestialAngle(@Range(from = 0, to = 23999) int timeOfDay, float partialTicks) {
+
+		float from = angles[timeOfDay];
+		float delta = angles[(timeOfDay + 1) % DAY_LENGTH] - from;
+
+		// The angle wraps around from 1 to 0 at noon
+		if (delta < -0.5f) {
+			delta += 1.0f;
+		}
+		float angle = from + delta * partialTicks;
+		return angle >= 1.0f ? angle - 1.0f : angle;
+	}
+
+	/**
+	 * @return sky brightness in clear weather, in range {@code [0.2, 1]}.
+	 * @see #getSkyBrightness(int, float, float, float)
+	 */
+	public float getSkyBrightness(@Range(from = 0, to = 23999) int timeOfDay, float partialTicks) {
+		return lerp(daylight, timeOfDay, partialTicks) * 0.8f + 0.2f;
+	}
+
+	/**
+	 * @param rainStrength rain strength of the world as returned by {@code World#getRainStrength}.
+	 * @param thunderStrength thunder strength of the world as returned by {@code World#getThunderStrength}.
+	 * @return sky brightness in the given weather, in range {@code [0.2, 1]}.
+	 */
+	public float getSkyBrightness(@Range(from = 0, to = 23999) int timeOfDay,
+								  float partialTicks, float rainStrength, float thunderStrength) {
+
+		float light = lerp(daylight, timeOfDay, partialTicks);
+		light *= 1.0f - rainStrength * 5.0f / 16.0f;
+		light *= 1.0f - thunderStrength * 5.0f / 16.0f;
+		return light * 0.8f + 0.2f;
+	}
+
+	/**
+	 * @return height of the sun in the sky in range {@code [-1, 1]}, where
+	 * 		{@code 1} is straight up, {@code 0} is the horizon and {@code -1} is straight down.
+	 */
+	public float getSunHeight(@Range(from = 0, to = 23999) int timeOfDay, float partialTicks) {
+		return lerp(sunHeights, timeOfDay, partialTicks);
+	}
+
+	/**
+	 * @return height of the moon in the sky, which is always opposite to the sun.
+	 * @see #getSunHeight(int, float)
+	 */
+	public float getMoonHeight(@Range(from = 0, to = 23999) int timeOfDay, float partialTicks) {
+		return -getSunHeight(timeOfDay, partialTicks);
+	}
+}
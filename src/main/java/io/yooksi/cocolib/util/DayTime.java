@@ -15,11 +15,18 @@ package io.yooksi.cocolib.util;
 
 import net.minecraft.world.GameRules;
 import net.minecraft.world.World;
+import net.minecraft.world.dimension.DimensionType;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.Range;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class DayTime {
 
+	/** Celestial tables shared by all worlds with the same dimension type */
+	private static final Map<DimensionType, CelestialTable> CELESTIAL_TABLES = new ConcurrentHashMap<>();
+
 	public enum Segment {
 
 		DAWN(23000, 7000),
@@ -129,11 +136,13 @@ public class DayTime {
 	}
 
 	/**
-	 * @return the day time (time wrapped within a day)
+	 * @return the day time (time wrapped within a day), which is never
+	 * 		negative even when the world time was set to a negative value.
 	 */
 	@Contract("null -> fail")
+	@Range(from = 0, to = 23999)
 	public static long getTimeOfDay(World world) {
-		return world.getDayTime() % 24000L;
+		return Math.floorMod(world.getDayTime(), 24000L);
 	}
 
 	/**
@@ -145,4 +154,41 @@ public class DayTime {
 	public static boolean isDaylightCycleEnabled(World world) {
 		return world.getWorldInfo().getGameRulesInstance().getBoolean(GameRules.DO_DAYLIGHT_CYCLE);
 	}
+
+	/**
+	 * @return precomputed celestial values for the dimension type of the given world,
+	 * 		computed on first use and shared by all worlds with the same dimension type.
+	 */
+	@Contract("null -> fail")
+	public static CelestialTable getCelestialTable(World world) {
+		return CELESTIAL_TABLES.computeIfAbsent(world.getDimension().getType(),
+				type -> CelestialTable.compute(world.getDimension()));
+	}
+
+	/**
+	 * Table based alternative to {@code World#getCelestialAngle}.
+	 *
+	 * @param partialTicks fraction of the current tick that has elapsed.
+	 * @return celestial angle in range {@code [0, 1)}, where {@code 0} is noon.
+	 */
+	public static float getCelestialAngle(World world, float partialTicks) {
+		return getCelestialTable(world).getCelestialAngle((int) getTimeOfDay(world), partialTicks);
+	}
+
+	/**
+	 * Table based alternative to {@code World#getSunBrightness}, including the effect of weather.
+	 * @return sky brightness in range {@code [0.2, 1]}.
+	 */
+	public static float getSkyBrightness(World world, float partialTicks) {
+		return getCelestialTable(world).getSkyBrightness((int) getTimeOfDay(world), partialTicks,
+				world.getRainStrength(partialTicks), world.getThunderStrength(partialTicks));
+	}
+
+	/**
+	 * @return height of the sun in the sky in range {@code [-1, 1]}.
+	 * @see CelestialTable#getSunHeight(int, float)
+	 */
+	public static float getSunHeight(World world, float partialTicks) {
+		return getCelestialTable(world).getSunHeight((int) getTimeOfDay(world), partialTicks);
+	}
 }
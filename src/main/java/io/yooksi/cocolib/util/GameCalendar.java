@@ -0,0 +1,424 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.util;
+
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Range;
+
+/**
+ * <p>
+ *     Immutable game calendar date packed into a single {@code long} value.
+ * <p>
+ *     The calendar uses {@link TimeUnit#MONTHS 30} day months and a year of {@code 12}
+ *     months, which means that a calendar year is {@code 360} days long. Note that this
+ *     is shorter then {@link TimeUnit#YEARS} which measures {@code 365.25} days, since
+ *     a calendar cannot have fractional days.
+ * <p>
+ *     Calendar days start at day time {@code 0} (6:00 in the morning), which is also
+ *     the moment when vanilla Minecraft increments it's day counter.
+ * <p>
+ *     Fields are stored in the following bit layout (from lowest to highest bit):
+ * </p>
+ * <table summary="" border="1">
+ *   <tr>
+ *       <th>Field</th> <th>Bits</th> <th>Range</th>
+ *   </tr><tr>
+ *       <td>tick of day</td> <td>15</td> <td>0 - 23999</td>
+ *   </tr><tr>
+ *       <td>day of month</td> <td>5</td> <td>0 - 29</td>
+ *   </tr><tr>
+ *       <td>month of year</td> <td>4</td> <td>0 - 11</td>
+ *   </tr><tr>
+ *       <td>year</td> <td>39</td> <td>0 - 2<sup>39</sup></td>
+ *   </tr>
+ * </table>
+ * <p>
+ *     Since the most significant fields are stored in the highest bits, packed values
+ *     can be compared directly as {@code long} numbers. Static methods in this class
+ *     operate on raw packed values and are meant for allocation free hot paths, while
+ *     {@code GameCalendar} instances wrap the same value for general use.
+ * </p>
+ */
+public final class GameCalendar implements Comparable<GameCalendar> {
+
+	public static final int TICKS_IN_DAY = 24000;
+	public static final int DAYS_IN_MONTH = 30;
+	public static final int MONTHS_IN_YEAR = 12;
+	public static final int DAYS_IN_YEAR = DAYS_IN_MONTH * MONTHS_IN_YEAR;
+
+	private static final int TICK_BITS = 15, DAY_BITS = 5, MONTH_BITS = 4;
+
+	private static final int DAY_SHIFT = TICK_BITS;
+	private static final int MONTH_SHIFT = DAY_SHIFT + DAY_BITS;
+	private static final int YEAR_SHIFT = MONTH_SHIFT + MONTH_BITS;
+
+	private static final long TICK_MASK = (1L << TICK_BITS) - 1;
+	private static final long DAY_MASK = (1L << DAY_BITS) - 1;
+	private static final long MONTH_MASK = (1L << MONTH_BITS) - 1;
+
+	/** Packed calendar value, see class documentation for layout. */
+	private final long packed;
+
+	private GameCalendar(long packed) {
+		this.packed = packed;
+	}
+
+	/**
+	 * @param world instance of the world to read the day time from.
+	 * @return calendar date matching the current day time in the given world.
+	 */
+	@Contract("null -> fail; _ -> new")
+	public static GameCalendar of(World world) {
+		return new GameCalendar(pack(world.getDayTime()));
+	}
+
+	/**
+	 * @param epoch total number of game ticks elapsed since the world was created.
+	 * @return calendar date matching the given epoch time.
+	 */
+	@Contract("_ -> new")
+	public static GameCalendar ofEpoch(long epoch) {
+		return new GameCalendar(pack(epoch));
+	}
+
+	/**
+	 * @param packed calendar value created with one of the {@code pack} methods.
+	 * @return calendar date wrapping the given packed value.
+	 */
+	@Contract("_ -> new")
+	public static GameCalendar ofPacked(long packed) {
+		return new GameCalendar(packed);
+	}
+
+	/**
+	 * Pack the given epoch time into a calendar value.
+	 *
+	 * @param epoch total number of game ticks elapsed since the world was created.
+	 * 		Negative values are treated as the start of the calendar.
+	 */
+	public static long pack(long epoch) {
+
+		if (epoch <= 0) {
+			return 0L;
+		}
+		long days = epoch / TICKS_IN_DAY;
+		long months = days / DAYS_IN_MONTH;
+
+		return pack(months / MONTHS_IN_YEAR, (int) (months % MONTHS_IN_YEAR),
+				(int) (days % DAYS_IN_MONTH), (int) (epoch % TICKS_IN_DAY));
+	}
+
+	/**
+	 * Pack the given calendar fields into a calendar value.
+	 *
+	 * @param year zero-based year.
+	 * @param month zero-based month of year.
+	 * @param day zero-based day of month.
+	 * @param tick tick of day.
+	 *
+	 * @throws IllegalArgumentException if any of the fields are out of range.
+	 */
+	public static long pack(long year, @Range(from = 0, to = MONTHS_IN_YEAR - 1) int month,
+							@Range(from = 0, to = DAYS_IN_MONTH - 1) int day,
+							@Range(from = 0, to = TICKS_IN_DAY - 1) int tick) {
+
+		if (year < 0 || year >= (1L << (63 - YEAR_SHIFT)) || month < 0 || month >= MONTHS_IN_YEAR
+				|| day < 0 || day >= DAYS_IN_MONTH || tick < 0 || tick >= TICKS_IN_DAY)
+		{
+			throw new IllegalArgumentException(String.format(
+					"Invalid calendar date [y: %d, m: %d, d: %d, t: %d]", year, month, day, tick));
+		}
+		return year << YEAR_SHIFT | (long) month << MONTH_SHIFT | (long) day << DAY_SHIFT | tick;
+	}
+
+	/**
+	 * @return total number of game ticks represented by the given packed value.
+	 */
+	public static long toEpoch(long packed) {
+
+		long months = getYear(packed) * MONTHS_IN_YEAR + getMonth(packed);
+		long days = months * DAYS_IN_MONTH + getDay(packed);
+		return days * TICKS_IN_DAY + getTickOfDay(packed);
+	}
+
+	/**
+	 * @return packed value with the given amount of game ticks added to it.
+	 */
+	public static long plusTicks(long packed, long ticks) {
+		return pack(toEpoch(packed) + ticks);
+	}
+
+	/**
+	 * @return zero-based year of the given packed value.
+	 */
+	public static long getYear(long packed) {
+		return packed >>> YEAR_SHIFT;
+	}
+
+	/**
+	 * @return zero-based month of year of the given packed value.
+	 */
+	@Range(from = 0, to = MONTHS_IN_YEAR - 1)
+	public static int getMonth(long packed) {
+		return (int) (packed >>> MONTH_SHIFT & MONTH_MASK);
+	}
+
+	/**
+	 * @return zero-based day of month of the given packed value.
+	 */
+	@Range(from = 0, to = DAYS_IN_MONTH - 1)
+	public static int getDay(long packed) {
+		return (int) (packed >>> DAY_SHIFT & DAY_MASK);
+	}
+
+	/**
+	 * @return tick of day of the given packed value.
+	 */
+	@Range(from = 0, to = TICKS_IN_DAY - 1)
+	public static int getTickOfDay(long packed) {
+		return (int) (packed & TICK_MASK);
+	}
+
+	/**
+	 * @return hour of day on a 24-hour clock, where tick {@code 0} is {@code 6:00}.
+	 */
+	@Range(from = 0, to = 23)
+	public static int getHour(long packed) {
+		return (getTickOfDay(packed) / 1000 + 6) % 24;
+	}
+
+	/**
+	 * @return minute of hour, where each hour is {@code 1000} ticks long.
+	 */
+	@Range(from = 0, to = 59)
+	public static int getMinute(long packed) {
+		return getTickOfDay(packed) % 1000 * 60 / 1000;
+	}
+
+	/**
+	 * @return calendar date with the given amount of game ticks added to it.
+	 */
+	@Contract("_ -> new")
+	public GameCalendar plus(long ticks) {
+		return new GameCalendar(plusTicks(packed, ticks));
+	}
+
+	/**
+	 * @return calendar date with the given time duration added to it.
+	 * @see TimeUnit#toTicks(long)
+	 */
+	@Contract("_, _ -> new")
+	public GameCalendar plus(long duration, TimeUnit unit) {
+		return plus(unit.toTicks(duration));
+	}
+
+	/**
+	 * @return total number of game ticks represented by this calendar date.
+	 */
+	public long toEpoch() {
+		return toEpoch(packed);
+	}
+
+	/**
+	 * @return raw packed value of this calendar date.
+	 */
+	public long toPacked() {
+		return packed;
+	}
+
+	/**
+	 * @return one-based year of this calendar date.
+	 */
+	public long getYear() {
+		return getYear(packed) + 1;
+	}
+
+	/**
+	 * @return one-based month of year of this calendar date.
+	 */
+	@Range(from = 1, to = MONTHS_IN_YEAR)
+	public int getMonth() {
+		return getMonth(packed) + 1;
+	}
+
+	/**
+	 * @return one-based day of month of this calendar date.
+	 */
+	@Range(from = 1, to = DAYS_IN_MONTH)
+	public int getDay() {
+		return getDay(packed) + 1;
+	}
+
+	/**
+	 * @return tick of day of this calendar date.
+	 */
+	@Range(from = 0, to = TICKS_IN_DAY - 1)
+	public int getTickOfDay() {
+		return getTickOfDay(packed);
+	}
+
+	public boolean isBefore(GameCalendar other) {
+		return packed < other.packed;
+	}
+
+	public boolean isAfter(GameCalendar other) {
+		return packed > other.packed;
+	}
+
+	@Override
+	public int compareTo(GameCalendar other) {
+		return Long.compare(packed, other.packed);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof GameCalendar && ((GameCalendar) obj).packed == packed;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(packed);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[ y: %d, m: %d, d: %d, %02d:%02d ]", getYear(),
+				getMonth(), getDay(), getHour(packed), getMinute(packed));
+	}
+
+	/**
+	 * Calendar fields that can be displayed with {@link Formatter}.
+	 * Values of all fields except {@link #TICK} are one-based.
+	 */
+	public enum Field {
+
+		YEAR {
+			@Override
+			public long get(long packed) {
+				return GameCalendar.getYear(packed) + 1;
+			}
+		},
+		MONTH {
+			@Override
+			public long get(long packed) {
+				return GameCalendar.getMonth(packed) + 1;
+			}
+		},
+		DAY {
+			@Override
+			public long get(long packed) {
+				return GameCalendar.getDay(packed) + 1;
+			}
+		},
+		HOUR {
+			@Override
+			public long get(long packed) {
+				return GameCalendar.getHour(packed);
+			}
+		},
+		MINUTE {
+			@Override
+			public long get(long packed) {
+				return GameCalendar.getMinute(packed);
+			}
+		},
+		TICK {
+			@Override
+			public long get(long packed) {
+				return GameCalendar.getTickOfDay(packed);
+			}
+		};
+
+		/**
+		 * @return display value of this field extracted from the given packed value.
+		 */
+		public abstract long get(long packed);
+	}
+
+	/**
+	 * <p>
+	 *     Formats calendar values with a {@link String#format(String, Object...)} pattern
+	 *     while caching the last result. The string is only rebuilt when one of the displayed
+	 *     fields changes, so formatting the same day on each frame does not allocate.
+	 * <p>
+	 *     Instances of this class are not thread-safe.
+	 * </p>
+	 * <pre>{@code
+	 * new Formatter("Day %d of month %d", Field.DAY, Field.MONTH)
+	 * }</pre>
+	 */
+	public static class Formatter {
+
+		private final String pattern;
+		private final Field[] fields;
+		private final long[] values;
+
+		private String cached;
+
+		/**
+		 * @param pattern format pattern with one {@code %d} argument per field.
+		 * @param fields calendar fields in order they appear in the pattern.
+		 */
+		public Formatter(String pattern, Field... fields) {
+
+			this.pattern = pattern;
+			this.fields = fields.clone();
+			this.values = new long[fields.length];
+		}
+
+		/**
+		 * @param packed calendar value created with one of the {@code pack} methods.
+		 * @return formatted string for the displayed fields of the given packed value.
+		 */
+		public String format(long packed) {
+
+			boolean changed = cached == null;
+			for (int i = 0; i < fields.length; i++)
+			{
+				long value = fields[i].get(packed);
+				if (value != values[i])
+				{
+					values[i] = value;
+					changed = true;
+				}
+			}
+			if (changed)
+			{
+				Object[] args = new Object[values.length];
+				for (int i = 0; i < values.length; i++) {
+					args[i] = values[i];
+				}
+				cached = String.format(pattern, args);
+			}
+			return cached;
+		}
+
+		/**
+		 * @see #format(long)
+		 */
+		public String format(GameCalendar calendar) {
+			return format(calendar.packed);
+		}
+
+		/**
+		 * @param world instance of the world to read the day time from.
+		 * @see #format(long)
+		 */
+		@Contract("null -> fail")
+		public String format(World world) {
+			return format(pack(world.getDayTime()));
+		}
+	}
+}
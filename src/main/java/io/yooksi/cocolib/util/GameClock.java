@@ -0,0 +1,116 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.util;
+
+import org.jetbrains.annotations.Contract;
+
+/**
+ * <p>
+ *     Game clock that converts game time to real time using the measured tick rate.
+ * <p>
+ *     Conversions found in {@link TimeUnit} assume that the game always runs at
+ *     {@link #TICKS_PER_SECOND 20} ticks per second, which is not true when the server is
+ *     under heavy load. This clock uses a {@link TickRateSampler} to compensate for that.
+ *     All methods are lock-free and can be called from any thread.
+ * </p>
+ */
+public class GameClock {
+
+	/** Number of ticks processed each second when the game runs at full speed. */
+	public static final int TICKS_PER_SECOND = 20;
+
+	/**
+	 * Clock driven by the logical server tick. CocoLib records server ticks
+	 * for this clock, so there is no need to update it manually.
+	 */
+	public static final GameClock SERVER = new GameClock(new TickRateSampler(100));
+
+	private final TickRateSampler sampler;
+
+	public GameClock(TickRateSampler sampler) {
+		this.sampler = sampler;
+	}
+
+	@Contract(pure = true)
+	public TickRateSampler getSampler() {
+		return sampler;
+	}
+
+	/**
+	 * @return measured number of ticks processed per second.
+	 */
+	public double getTicksPerSecond() {
+		return sampler.getTicksPerSecond();
+	}
+
+	/**
+	 * @return time-factor that makes Minecraft time slower then normal time at the measured
+	 * 		tick rate. This equals {@link TimeUnit#getFactor()} when running at full speed.
+	 */
+	public double getFactor() {
+		return TimeUnit.getFactor() * (double) TickRateSampler.NOMINAL_INTERVAL / sampler.getAverageInterval();
+	}
+
+	/**
+	 * Convert the given amount of game ticks to real-time nanoseconds at the measured tick rate.
+	 */
+	public long toRealNanos(long ticks) {
+		return ticks * sampler.getAverageInterval();
+	}
+
+	/**
+	 * Convert the given time duration for the given {@code TimeUnit} to fractions
+	 * of real-time seconds at the measured tick rate.
+	 *
+	 * @see TimeUnit#toRealFractionalSeconds(long)
+	 */
+	public double toRealFractionalSeconds(TimeUnit unit, long duration) {
+		return unit.toFractionalTicks(duration) * sampler.getAverageInterval() / 1_000_000_000.0;
+	}
+
+	/**
+	 * Convert the given time duration for the given {@code TimeUnit} to
+	 * real-time seconds at the measured tick rate.
+	 *
+	 * @see TimeUnit#toRealSeconds(long)
+	 */
+	public long toRealSeconds(TimeUnit unit, long duration) {
+		return Math.round(toRealFractionalSeconds(unit, duration));
+	}
+
+	/**
+	 * Predict how much real time will pass until the given amount of game ticks elapse.
+	 *
+	 * @param ticks number of game ticks remaining.
+	 * @param unit time unit to express the result in.
+	 * @return estimated real time remaining expressed in the given unit.
+	 */
+	public long getEta(long ticks, java.util.concurrent.TimeUnit unit) {
+		return unit.convert(toRealNanos(ticks), java.util.concurrent.TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Predict how much real time will pass until the world reaches the given day time.
+	 *
+	 * @param currentTime current day time in the world.
+	 * @param targetTime day time to reach, wrapped within a day.
+	 * @param unit time unit to express the result in.
+	 * @return estimated real time remaining expressed in the given unit.
+	 */
+	public long getEtaToDayTime(long currentTime, long targetTime, java.util.concurrent.TimeUnit unit) {
+
+		long remaining = Math.floorMod(targetTime - currentTime, 24000L);
+		return getEta(remaining, unit);
+	}
+}
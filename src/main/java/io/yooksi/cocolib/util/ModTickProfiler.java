@@ -0,0 +1,511 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.util;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import io.yooksi.cocolib.CocoLogger;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.util.text.StringTextComponent;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.ASMEventHandler;
+import net.minecraftforge.eventbus.ListenerList;
+import net.minecraftforge.eventbus.api.Event;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.IEventListener;
+import net.minecraftforge.fml.ModList;
+import net.minecraftforge.fml.loading.FMLPaths;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     Attributes time spent in server and world tick listeners to the mods that registered them.
+ * <p>
+ *     The profiler is enabled with {@value #PROPERTY} system property. When installed, each
+ *     listener of {@link TickEvent.ServerTickEvent} and {@link TickEvent.WorldTickEvent} on the
+ *     Forge event bus is replaced with a wrapper that adds the time spent in the listener to
+ *     a counter of the mod that owns the listener class. Counters are plain fields updated only
+ *     by the server thread, so the overhead is two {@link System#nanoTime()} calls and a map
+ *     lookup per listener call.
+ * <p>
+ *     Forge unregisters listeners by removing the listener objects it recorded on registration,
+ *     which no longer includes the wrapper. Each wrapper therefore checks that the registration
+ *     of it's listener still exists on the bus before calling it, and removes itself otherwise,
+ *     so unregistering a listener works the same as without the profiler.
+ * <p>
+ *     The time and number of listener calls of each tick are kept for the last {@value #WINDOW}
+ *     ticks, which allows reporting percentiles over a rolling window. Reports are requested with
+ *     {@code /cocolib ticks [seconds]} command, which prints the slowest mods to chat and writes
+ *     all mods to {@value #REPORT_FILE} in the game directory as tab separated values.
+ * <p>
+ *     Keep the following limitations in mind when reading the report:
+ *     <ul>
+ *         <li>Listeners registered after the server started are not measured.</li>
+ *         <li>Listeners registered for {@code TickEvent} itself or {@code Event} are shared
+ *         with other events and are not measured.</li>
+ *         <li>Listener owners are resolved by matching the listener class to the package
+ *         of the main mod class, so mods that keep listeners outside of that package are
+ *         reported as {@code unknown}.</li>
+ *     </ul>
+ * </p>
+ */
+public final class ModTickProfiler {
+
+	/** Name of the system property that enables the profiler. */
+	public static final String PROPERTY = "cocolib.profileTicks";
+
+	/** Location of the profiler report relative to the game directory. */
+	public static final String REPORT_FILE = "logs/cocolib-ticks.tsv";
+
+	/** Number of most recent ticks kept for each mod, which is one minute at full speed. */
+	public static final int WINDOW = 60 * GameClock.TICKS_PER_SECOND;
+
+	private static final Map<String, ModTimer> TIMERS = new HashMap<>();
+	private static final Map<String, String> OWNERS = new HashMap<>();
+	private static final List<String[]> PACKAGES = new ArrayList<>();
+
+	/** Index of the current tick in the history of each timer. */
+	private static int index;
+	/** Number of ticks recorded so far, up to {@link #WINDOW}. */
+	private static int recorded;
+	private static boolean installed;
+
+	private ModTickProfiler() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * @return {@code true} if the profiler was enabled with {@value #PROPERTY} system property.
+	 */
+	public static boolean isEnabled() {
+		return Boolean.getBoolean(PROPERTY);
+	}
+
+	/**
+	 * Wrap tick listeners registered on the Forge event bus. This is called by CocoLib
+	 * each time a server starts and should not be called by other mods. Listeners that
+	 * were already wrapped by a previous call are not wrapped again.
+	 */
+	public static synchronized void install() {
+
+		if (!installed)
+		{
+			installed = true;
+			MinecraftForge.EVENT_BUS.addListener(EventPriority.HIGHEST,
+					true, TickEvent.ServerTickEvent.class, ModTickProfiler::onServerTick);
+		}
+		resolvePackages();
+		try {
+			Field field = MinecraftForge.EVENT_BUS.getClass().getDeclaredField("busID");
+			field.setAccessible(true);
+			int busID = field.getInt(MinecraftForge.EVENT_BUS);
+
+			// Listener objects the bus recorded for each registered target
+			field = MinecraftForge.EVENT_BUS.getClass().getDeclaredField("listeners");
+			field.setAccessible(true);
+			@SuppressWarnings("unchecked")
+			Map<Object, List<IEventListener>> registrations = (Map<Object, List<IEventListener>>) field.get(MinecraftForge.EVENT_BUS);
+
+			Bus bus = new Bus(busID, registrations);
+			int wrapped = wrap(new TickEvent.ServerTickEvent(TickEvent.Phase.START).getListenerList(), bus);
+			wrapped += wrap(new TickEvent.WorldTickEvent(null, TickEvent.Phase.START, null).getListenerList(), bus);
+			CocoLogger.debug("Tick profiler is measuring %d listeners of %d mods", wrapped, TIMERS.size());
+		}
+		catch (ReflectiveOperationException | RuntimeException e) {
+			CocoLogger.error("Unable to install tick profiler", e);
+		}
+	}
+
+	/**
+	 * Forge event bus internals needed to wrap listeners.
+	 */
+	private static final class Bus {
+
+		private final int id;
+		private final Map<Object, List<IEventListener>> registrations;
+		/** Target that registered each listener, used to find the registration of a listener. */
+		private final Map<IEventListener, Object> targets = new IdentityHashMap<>();
+
+		private Bus(int id, Map<Object, List<IEventListener>> registrations) {
+
+			this.id = id;
+			this.registrations = registrations;
+			registrations.forEach((target, listeners) -> {
+				synchronized (listeners) {
+					listeners.forEach(listener -> targets.put(listener, target));
+				}
+			});
+		}
+	}
+
+	/**
+	 * Replace all listeners in the given list with timed listeners with the same priority.
+	 * Listeners without a registration recorded by the bus are left as they are.
+	 *
+	 * @return number of wrapped listeners.
+	 */
+	private static int wrap(ListenerList list, Bus bus) {
+
+		int wrapped = 0;
+		EventPriority priority = EventPriority.NORMAL;
+		for (IEventListener listener : list.getListeners(bus.id))
+		{
+			// Priorities are listed as markers in front of their listeners
+			if (listener instanceof EventPriority) {
+				priority = (EventPriority) listener;
+			}
+			else if (!(listener instanceof TimedListener))
+			{
+				Object target = bus.targets.get(listener);
+				List<IEventListener> registration = target != null ? bus.registrations.get(target) : null;
+				if (registration == null) {
+					continue;
+				}
+				list.unregister(bus.id, listener);
+				// Listeners inherited from parent events can't be removed from this list
+				if (Arrays.asList(list.getListeners(bus.id)).contains(listener)) {
+					continue;
+				}
+				String modId = getOwner(listener);
+				list.register(bus.id, priority, new TimedListener(listener, TIMERS.computeIfAbsent(modId,
+						ModTimer::new), list, bus, target, registration));
+				wrapped++;
+			}
+		}
+		return wrapped;
+	}
+
+	/**
+	 * Collect package names of main mod classes, ordered so that longer packages are matched first.
+	 */
+	private static void resolvePackages() {
+
+		PACKAGES.clear();
+		OWNERS.clear();
+		ModList.get().forEachModContainer((modId, container) -> {
+			Object mod = container.getMod();
+			if (mod != null && mod.getClass().getPackage() != null) {
+				PACKAGES.add(new String[] { mod.getClass().getPackage().getName() + '.', modId });
+			}
+		});
+		PACKAGES.add(new String[] { "net.minecraftforge.", "forge" });
+		PACKAGES.add(new String[] { "net.minecraft.", "minecraft" });
+		PACKAGES.sort(Comparator.comparingInt((String[] p) -> p[0].length()).reversed());
+	}
+
+	/**
+	 * @return ID of the mod that owns the given listener or {@code unknown} if it could not be resolved.
+	 */
+	private static String getOwner(IEventListener listener) {
+
+		String className = getListenerClass(listener);
+		return OWNERS.computeIfAbsent(className, name -> {
+			for (String[] entry : PACKAGES)
+			{
+				if (name.startsWith(entry[0])) {
+					return entry[1];
+				}
+			}
+			return "unknown";
+		});
+	}
+
+	/**
+	 * @return name of the class that declares the given listener. For listeners registered
+	 * 		with {@code @SubscribeEvent} this is the class of the subscribed object, and for
+	 * 		listeners registered with {@code addListener} the class that created the consumer.
+	 */
+	private static String getListenerClass(IEventListener listener) {
+
+		Object target = listener;
+		try {
+			if (listener instanceof ASMEventHandler)
+			{
+				Object handler = getField(listener, "handler");
+				Object instance = handler != null ? getField(handler, "instance") : null;
+				if (instance != null) {
+					target = instance;
+				}
+				else {
+					// Static handlers only describe their class as "ASM: class <name> <method>"
+					String[] readable = String.valueOf(getField(listener, "readable")).split(" ");
+					if (readable.length > 2 && readable[1].equals("class")) {
+						return readable[2];
+					}
+				}
+			}
+			else {
+				// Consumer listeners are wrapped in a lambda that captures the consumer
+				for (Field field : listener.getClass().getDeclaredFields())
+				{
+					field.setAccessible(true);
+					Object value = field.get(listener);
+					if (value instanceof Consumer)
+					{
+						target = value;
+						break;
+					}
+				}
+			}
+		}
+		catch (ReflectiveOperationException | RuntimeException e) {
+			CocoLogger.debug("Unable to resolve owner of tick listener " + listener, e);
+		}
+		String name = target.getClass().getName();
+		int lambda = name.indexOf("$$Lambda");
+		return lambda > 0 ? name.substring(0, lambda) : name;
+	}
+
+	private static Object getField(Object object, String name) throws ReflectiveOperationException {
+
+		for (Class<?> type = object.getClass(); type != null; type = type.getSuperclass())
+		{
+			try {
+				Field field = type.getDeclaredField(name);
+				field.setAccessible(true);
+				return field.get(object);
+			}
+			catch (NoSuchFieldException e) {
+				// Look in the super class
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Move times recorded in the last tick to the history of each mod.
+	 */
+	private static void onServerTick(TickEvent.ServerTickEvent event) {
+
+		if (event.phase == TickEvent.Phase.START)
+		{
+			for (ModTimer timer : TIMERS.values()) {
+				timer.commit(index);
+			}
+			index = (index + 1) % WINDOW;
+			recorded = Math.min(recorded + 1, WINDOW);
+		}
+	}
+
+	/**
+	 * Clear recorded tick history, called by CocoLib when the server stops.
+	 */
+	public static void reset() {
+
+		for (ModTimer timer : TIMERS.values())
+		{
+			Arrays.fill(timer.history, 0L);
+			Arrays.fill(timer.callHistory, 0);
+			timer.current = 0;
+			timer.calls = 0;
+		}
+		index = recorded = 0;
+	}
+
+	/**
+	 * Register {@code /cocolib ticks [seconds]} command with the given dispatcher.
+	 * When the profiler is not enabled the command explains how to enable it.
+	 */
+	public static void registerCommand(CommandDispatcher<CommandSource> dispatcher) {
+
+		dispatcher.register(Commands.literal("cocolib")
+				.requires(source -> source.hasPermissionLevel(2))
+				.then(Commands.literal("ticks")
+						.executes(context -> report(context.getSource(), WINDOW / GameClock.TICKS_PER_SECOND))
+						.then(Commands.argument("seconds", IntegerArgumentType.integer(1,
+								WINDOW / GameClock.TICKS_PER_SECOND)).executes(context -> report(context.getSource(),
+								IntegerArgumentType.getInteger(context, "seconds"))))));
+	}
+
+	/**
+	 * Send a report of the slowest mods over the given number of most recent seconds
+	 * to the command source and write the full report to {@value #REPORT_FILE}.
+	 *
+	 * @return number of reported mods.
+	 */
+	private static int report(CommandSource source, int seconds) {
+
+		if (!isEnabled())
+		{
+			source.sendFeedback(new StringTextComponent("Tick profiling is off, start the server " +
+					"with -D" + PROPERTY + "=true to enable it"), false);
+			return 0;
+		}
+		int ticks = Math.min(seconds * GameClock.TICKS_PER_SECOND, recorded);
+		if (ticks == 0)
+		{
+			source.sendFeedback(new StringTextComponent("No ticks have been recorded yet"), false);
+			return 0;
+		}
+		List<Stats> rows = new ArrayList<>();
+		long total = 0;
+		for (ModTimer timer : TIMERS.values())
+		{
+			Stats stats = new Stats(timer, ticks);
+			total += stats.sum;
+			rows.add(stats);
+		}
+		rows.sort(Comparator.comparingLong((Stats s) -> s.sum).reversed());
+
+		source.sendFeedback(new StringTextComponent(String.format(Locale.ROOT,
+				"Tick listener time over the last %d ticks (mean / p95 / max ms):", ticks)), false);
+		for (int i = 0; i < Math.min(10, rows.size()); i++)
+		{
+			Stats stats = rows.get(i);
+			source.sendFeedback(new StringTextComponent(String.format(Locale.ROOT, "%d. %s %.3f / %.3f / %.3f (%.1f%%)",
+					i + 1, stats.modId, stats.mean / 1e6, stats.p95 / 1e6, stats.max / 1e6,
+					total == 0 ? 0 : stats.sum * 100.0 / total)), false);
+		}
+		Path path = FMLPaths.GAMEDIR.get().resolve(REPORT_FILE);
+		try {
+			Files.createDirectories(path.getParent());
+			try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8)))
+			{
+				writer.println("mod\tticks\ttotal_ms\tmean_ms\tp50_ms\tp95_ms\tp99_ms\tmax_ms\tcalls");
+				for (Stats stats : rows)
+				{
+					writer.printf(Locale.ROOT, "%s\t%d\t%.3f\t%.4f\t%.4f\t%.4f\t%.4f\t%.4f\t%d%n",
+							stats.modId, ticks, stats.sum / 1e6, stats.mean / 1e6, stats.p50 / 1e6,
+							stats.p95 / 1e6, stats.p99 / 1e6, stats.max / 1e6, stats.calls);
+				}
+			}
+			source.sendFeedback(new StringTextComponent("Full report written to " + REPORT_FILE), false);
+		}
+		catch (IOException e) {
+			CocoLogger.error("Unable to write tick profiler report to " + path, e);
+		}
+		return rows.size();
+	}
+
+	/**
+	 * Listener that measures the time spent in the wrapped listener.
+	 */
+	private static final class TimedListener implements IEventListener {
+
+		private final IEventListener listener;
+		private final ModTimer timer;
+		private final ListenerList list;
+		private final Bus bus;
+		private final Object target;
+		private final List<IEventListener> registration;
+
+		private TimedListener(IEventListener listener, ModTimer timer, ListenerList list,
+							  Bus bus, Object target, List<IEventListener> registration) {
+
+			this.listener = listener;
+			this.timer = timer;
+			this.list = list;
+			this.bus = bus;
+			this.target = target;
+			this.registration = registration;
+		}
+
+		@Override
+		public void invoke(Event event) {
+
+			// Unregistering the target removes it's registration from the bus
+			if (bus.registrations.get(target) != registration)
+			{
+				list.unregister(bus.id, this);
+				return;
+			}
+
+			// World ticks are also posted for client worlds on the client thread
+			if (event instanceof TickEvent.WorldTickEvent && !((TickEvent) event).side.isServer())
+			{
+				listener.invoke(event);
+				return;
+			}
+			long start = System.nanoTime();
+			try {
+				listener.invoke(event);
+			}
+			finally {
+				timer.current += System.nanoTime() - start;
+				timer.calls++;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return listener.toString();
+		}
+	}
+
+	/**
+	 * Time spent in listeners of a single mod, only accessed from the server thread.
+	 */
+	private static final class ModTimer {
+
+		private final String modId;
+		private final long[] history = new long[WINDOW];
+		private final int[] callHistory = new int[WINDOW];
+		private long current;
+		private int calls;
+
+		private ModTimer(String modId) {
+			this.modId = modId;
+		}
+
+		private void commit(int index) {
+
+			history[index] = current;
+			callHistory[index] = calls;
+			current = 0;
+			calls = 0;
+		}
+	}
+
+	/**
+	 * Statistics of a single mod over a number of most recent ticks.
+	 */
+	private static final class Stats {
+
+		private final String modId;
+		private final long sum, calls, p50, p95, p99, max;
+		private final double mean;
+
+		private Stats(ModTimer timer, int ticks) {
+
+			long[] values = new long[ticks];
+			long total = 0, totalCalls = 0;
+			for (int i = 0; i < ticks; i++)
+			{
+				int tick = Math.floorMod(index - 1 - i, WINDOW);
+				values[i] = timer.history[tick];
+				total += values[i];
+				totalCalls += timer.callHistory[tick];
+			}
+			Arrays.sort(values);
+			modId = timer.modId;
+			sum = total;
+			calls = totalCalls;
+			mean = total / (double) ticks;
+			p50 = values[(ticks - 1) / 2];
+			p95 = values[(int) ((ticks - 1) * 0.95)];
+			p99 = values[(int) ((ticks - 1) * 0.99)];
+			max = values[ticks - 1];
+		}
+	}
+}
@@ -18,9 +18,22 @@ import org.jetbrains.annotations.Contract;
 
 /**
  * Tiny utility class to help find {@code ResourceLocation}.
+ * <p>
+ *     Locations returned by this class are interned in a {@link ResourceLocationCache}, so calling
+ *     the same method with the same arguments returns the same instance as long as the location fits
+ *     in the cache. Once a cache is full new locations are no longer interned, so only cached
+ *     locations can be compared by identity. An empty namespace is the same as <i>minecraft</i>.
+ * </p>
  */
 public final class RLHelper {
 
+	/** Maximum number of locations each cache will hold. */
+	private static final int CACHE_SIZE = 8192;
+
+	private static final ResourceLocationCache LOCATIONS = new ResourceLocationCache(CACHE_SIZE);
+	private static final ResourceLocationCache TEXTURES =
+			new ResourceLocationCache("textures/", LOCATIONS, CACHE_SIZE);
+
 	private RLHelper() {
 		throw new UnsupportedOperationException();
 	}
@@ -29,9 +42,17 @@ public final class RLHelper {
 	 * @param path path to the resource within <i>minecraft</i> namespace.
 	 * @return {@code ResourceLocation} pointing to Minecraft resource.
 	 */
-	@Contract("_ -> new")
 	public static ResourceLocation getMCResourceLocation(String path) {
-		return new ResourceLocation("minecraft", path);
+		return LOCATIONS.get("minecraft", path);
+	}
+
+	/**
+	 * @param namespace namespace of the resource.
+	 * @param path path to the resource within given namespace.
+	 * @return {@code ResourceLocation} pointing to resource with provided path.
+	 */
+	public static ResourceLocation getResourceLocation(String namespace, String path) {
+		return LOCATIONS.get(namespace, path);
 	}
 
 	/**
@@ -39,8 +60,23 @@ public final class RLHelper {
 	 * @param path path to the resource within given namespace.
 	 * @return {@code ResourceLocation} pointing to Mod resource with provided path.
 	 */
-	@Contract("_, _ -> new")
 	public static ResourceLocation getTextureLocation(String id, String path) {
-		return new ResourceLocation(id, "textures/" + path);
+		return TEXTURES.get(id, path);
+	}
+
+	/**
+	 * @return cache used to intern resource locations.
+	 */
+	@Contract(pure = true)
+	public static ResourceLocationCache getLocationCache() {
+		return LOCATIONS;
+	}
+
+	/**
+	 * @return cache used to intern texture locations.
+	 */
+	@Contract(pure = true)
+	public static ResourceLocationCache getTextureCache() {
+		return TEXTURES;
 	}
 }
@@ -0,0 +1,445 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.util;
+
+import io.yooksi.cocolib.CocoLogger;
+import net.minecraft.resources.FilePack;
+import net.minecraft.resources.IResourcePack;
+import net.minecraft.resources.ResourcePack;
+import net.minecraft.resources.ResourcePackInfo;
+import net.minecraft.resources.ResourcePackType;
+import net.minecraft.resources.VanillaPack;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
+import net.minecraftforge.fml.loading.moddiscovery.ModFile;
+import net.minecraftforge.fml.packs.ModFileResourcePack;
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * <p>
+ *     In-memory index of all resource paths provided by a list of resource packs.
+ * <p>
+ *     The index stores a sorted table of paths for each namespace and answers existence,
+ *     prefix and glob queries with binary search, without going through the resource manager
+ *     and probing each pack. {@link #CLIENT} is rebuilt by CocoLib each time client resources
+ *     are reloaded, other instances can be rebuilt manually with {@link #rebuild(Collection)}.
+ * <p>
+ *     Rebuilding is incremental: paths found in packs backed by archives (vanilla, zip packs and
+ *     mod jars) are remembered by pack name together with the modification time and size of the
+ *     archive, and reused when the same unchanged pack is enabled again, so only newly enabled,
+ *     replaced and folder-based packs are scanned. Queries are lock-free and thread-safe.
+ * <p>
+ *     Zip, folder and mod file packs are walked directly instead of listing them through
+ *     {@link IResourcePack#getAllResourceLocations}, which does not support listing the whole
+ *     namespace in these packs. Other packs, including the vanilla pack, are listed through the pack.
+ * </p>
+ */
+public class ResourceIndex {
+
+	/** Index of client resources (assets), rebuilt on each client resource reload. */
+	public static final ResourceIndex CLIENT = new ResourceIndex(ResourcePackType.CLIENT_RESOURCES);
+
+	private static final String[] EMPTY = new String[0];
+
+	private final ResourcePackType type;
+
+	/** Paths found in each reusable pack from the last rebuild mapped by pack name. */
+	private final Map<String, CachedPack> packCache = new HashMap<>();
+
+	/** Sorted tables of paths mapped by namespace. */
+	private volatile Map<String, String[]> tables = Collections.emptyMap();
+
+	public ResourceIndex(ResourcePackType type) {
+		this.type = type;
+	}
+
+	/**
+	 * Rebuild this index from the given list of enabled resource packs.
+	 * This method can be called from any thread, but only one rebuild
+	 * should run at a time. Queries see the previous index until it completes.
+	 *
+	 * @param packs list of enabled resource packs.
+	 */
+	public synchronized void rebuild(Collection<? extends ResourcePackInfo> packs) {
+
+		long start = System.nanoTime();
+		int scanned = 0;
+
+		Map<String, List<String[]>> found = new HashMap<>();
+		Set<String> enabled = new HashSet<>();
+		for (ResourcePackInfo info : packs)
+		{
+			String name = info.getName();
+			enabled.add(name);
+
+			IResourcePack pack = info.getResourcePack();
+			File archive = getArchiveFile(pack);
+			long lastModified = archive != null ? archive.lastModified() : 0L;
+			long size = archive != null ? archive.length() : 0L;
+
+			CachedPack cached = packCache.get(name);
+			Map<String, String[]> entries;
+			if (cached != null && cached.lastModified == lastModified && cached.size == size) {
+				entries = cached.entries;
+			}
+			else {
+				entries = scan(pack);
+				scanned++;
+
+				if (isArchive(pack)) {
+					packCache.put(name, new CachedPack(entries, lastModified, size));
+				}
+				else packCache.remove(name);
+
+				if (pack instanceof FilePack) {
+					closeQuietly(pack);
+				}
+			}
+			for (Map.Entry<String, String[]> entry : entries.entrySet()) {
+				found.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(entry.getValue());
+			}
+		}
+		packCache.keySet().retainAll(enabled);
+
+		Map<String, String[]> result = new HashMap<>();
+		for (Map.Entry<String, List<String[]>> entry : found.entrySet()) {
+			result.put(entry.getKey(), merge(entry.getValue()));
+		}
+		tables = result;
+
+		CocoLogger.debug("Indexed %d resources in %d namespaces (%d of %d packs scanned) in %d ms",
+				getSize(), result.size(), scanned, packs.size(), (System.nanoTime() - start) / 1_000_000);
+	}
+
+	/**
+	 * Discard all remembered pack contents so the next rebuild scans every pack.
+	 */
+	public synchronized void invalidate() {
+		packCache.clear();
+	}
+
+	/**
+	 * @return {@code true} if the contents of the given pack can not change while the game is running.
+	 */
+	private static boolean isArchive(IResourcePack pack) {
+
+		if (pack instanceof FilePack || pack instanceof VanillaPack) {
+			return true;
+		}
+		return pack instanceof ModFileResourcePack &&
+				Files.isRegularFile(((ModFileResourcePack) pack).getModFile().getFilePath());
+	}
+
+	/**
+	 * @return archive file that backs the given pack, or {@code null}
+	 * 		if the pack is not backed by a zip or mod jar file.
+	 */
+	private static @Nullable File getArchiveFile(IResourcePack pack) {
+
+		if (pack instanceof FilePack) {
+			return ObfuscationReflectionHelper.getPrivateValue(ResourcePack.class, (ResourcePack) pack, "field_195771_a");
+		}
+		else if (pack instanceof ModFileResourcePack)
+		{
+			Path path = ((ModFileResourcePack) pack).getModFile().getFilePath();
+			return Files.isRegularFile(path) ? path.toFile() : null;
+		}
+		else return null;
+	}
+
+	private Map<String, String[]> scan(IResourcePack pack) {
+
+		Map<String, String[]> result = new HashMap<>();
+		try {
+			for (String namespace : pack.getResourceNamespaces(type))
+			{
+				String root = type.getDirectoryName() + '/' + namespace + '/';
+				List<String> paths = new ArrayList<>();
+				if (pack instanceof ResourcePack)
+				{
+					File file = ObfuscationReflectionHelper.getPrivateValue(
+							ResourcePack.class, (ResourcePack) pack, "field_195771_a");
+
+					if (file.isDirectory()) {
+						walk(file.toPath().resolve(root), paths);
+					}
+					else scanArchive(file, root, paths);
+				}
+				else if (pack instanceof ModFileResourcePack)
+				{
+					ModFile modFile = ((ModFileResourcePack) pack).getModFile();
+					walk(modFile.getLocator().findPath(modFile, type.getDirectoryName(), namespace), paths);
+				}
+				else {
+					// Vanilla pack resolves listed paths relative to the namespace directory
+					for (ResourceLocation location : pack.getAllResourceLocations(
+							type, namespace, "", Integer.MAX_VALUE, s -> true)) {
+						paths.add(location.getPath());
+					}
+				}
+				String[] table = paths.toArray(EMPTY);
+				Arrays.sort(table);
+				result.put(namespace, table);
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			CocoLogger.error("Unable to index resource pack " + pack.getName(), e);
+		}
+		return result;
+	}
+
+	/**
+	 * Add paths of all resource files in the given directory relative to that directory.
+	 */
+	private static void walk(Path root, List<String> paths) throws IOException {
+
+		if (!Files.isDirectory(root)) {
+			return;
+		}
+		try (Stream<Path> stream = Files.walk(root))
+		{
+			stream.filter(Files::isRegularFile).forEach(path -> {
+				String name = root.relativize(path).toString().replace('\\', '/');
+				if (!name.endsWith(".mcmeta")) {
+					paths.add(name);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Add paths of all resource files in the given zip archive that are
+	 * located in the given root directory relative to that directory.
+	 */
+	private static void scanArchive(File file, String root, List<String> paths) throws IOException {
+
+		try (ZipFile zip = new ZipFile(file))
+		{
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements())
+			{
+				ZipEntry entry = entries.nextElement();
+				String name = entry.getName();
+				if (!entry.isDirectory() && name.startsWith(root) && !name.endsWith(".mcmeta")) {
+					paths.add(name.substring(root.length()));
+				}
+			}
+		}
+	}
+
+	private static void closeQuietly(IResourcePack pack) {
+
+		try {
+			pack.close();
+		}
+		catch (java.io.IOException e) {
+			CocoLogger.debug("Unable to close resource pack " + pack.getName(), e);
+		}
+	}
+
+	/**
+	 * Merge sorted path tables into a single sorted table without duplicates.
+	 */
+	private static String[] merge(List<String[]> sources) {
+
+		int length = 0;
+		for (String[] source : sources) {
+			length += source.length;
+		}
+		String[] all = new String[length];
+		int i = 0;
+		for (String[] source : sources)
+		{
+			System.arraycopy(source, 0, all, i, source.length);
+			i += source.length;
+		}
+		if (sources.size() > 1) {
+			Arrays.sort(all);
+		}
+		int unique = 0;
+		for (int j = 0; j < all.length; j++)
+		{
+			if (unique == 0 || !all[j].equals(all[unique - 1])) {
+				all[unique++] = all[j];
+			}
+		}
+		return unique == all.length ? all : Arrays.copyOf(all, unique);
+	}
+
+	private String[] getTable(String namespace) {
+		return tables.getOrDefault(namespace, EMPTY);
+	}
+
+	/**
+	 * @return {@code true} if any of the indexed packs contains the given resource.
+	 */
+	public boolean exists(String namespace, String path) {
+		return Arrays.binarySearch(getTable(namespace), path) >= 0;
+	}
+
+	/**
+	 * @see #exists(String, String)
+	 */
+	public boolean exists(ResourceLocation location) {
+		return exists(location.getNamespace(), location.getPath());
+	}
+
+	/**
+	 * @param namespace namespace to search in.
+	 * @param prefix path prefix, for example {@code "textures/gui/"}.
+	 * @return unmodifiable sorted list of paths that start with the given prefix.
+	 */
+	@Contract(pure = true)
+	public List<String> list(String namespace, String prefix) {
+
+		String[] table = getTable(namespace);
+		int from = lowerBound(table, prefix);
+		int to = from;
+		while (to < table.length && table[to].startsWith(prefix)) {
+			to++;
+		}
+		return Collections.unmodifiableList(Arrays.asList(table).subList(from, to));
+	}
+
+	/**
+	 * Find all paths that match the given glob pattern. Pattern {@code *} matches any
+	 * characters within a single directory, {@code **} matches any characters across
+	 * directories and {@code ?} matches a single character.
+	 * <p>
+	 *     Only paths starting with the literal part of the pattern before the
+	 *     first wildcard are tested, for example {@code "textures/gui/**.png"}.
+	 * </p>
+	 * @param namespace namespace to search in.
+	 * @param glob glob pattern to match paths against.
+	 * @return sorted list of matching paths.
+	 */
+	public List<String> glob(String namespace, String glob) {
+
+		int wildcard = 0;
+		while (wildcard < glob.length() && glob.charAt(wildcard) != '*' && glob.charAt(wildcard) != '?') {
+			wildcard++;
+		}
+		List<String> candidates = list(namespace, glob.substring(0, wildcard));
+		if (wildcard == glob.length()) {
+			return candidates.contains(glob) ? Collections.singletonList(glob) : Collections.emptyList();
+		}
+		Pattern pattern = compileGlob(glob);
+		List<String> result = new ArrayList<>();
+		for (String path : candidates)
+		{
+			if (pattern.matcher(path).matches()) {
+				result.add(path);
+			}
+		}
+		return result;
+	}
+
+	private static Pattern compileGlob(String glob) {
+
+		StringBuilder regex = new StringBuilder();
+		int literal = 0;
+		for (int i = 0; i < glob.length(); i++)
+		{
+			char c = glob.charAt(i);
+			if (c == '*' || c == '?')
+			{
+				if (literal < i) {
+					regex.append(Pattern.quote(glob.substring(literal, i)));
+				}
+				if (c == '?') {
+					regex.append("[^/]");
+				}
+				else if (i + 1 < glob.length() && glob.charAt(i + 1) == '*')
+				{
+					regex.append(".*");
+					i++;
+				}
+				else regex.append("[^/]*");
+				literal = i + 1;
+			}
+		}
+		if (literal < glob.length()) {
+			regex.append(Pattern.quote(glob.substring(literal)));
+		}
+		return Pattern.compile(regex.toString());
+	}
+
+	/**
+	 * @return index of the first element in the sorted table that is not less then the given key.
+	 */
+	private static int lowerBound(String[] table, String key) {
+
+		int low = 0, high = table.length;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (table[mid].compareTo(key) < 0) {
+				low = mid + 1;
+			}
+			else high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * @return set of indexed namespaces.
+	 */
+	public Set<String> getNamespaces() {
+		return Collections.unmodifiableSet(tables.keySet());
+	}
+
+	/**
+	 * @return total number of indexed resource paths.
+	 */
+	public int getSize() {
+
+		int size = 0;
+		for (String[] table : tables.values()) {
+			size += table.length;
+		}
+		return size;
+	}
+
+	public ResourcePackType getType() {
+		return type;
+	}
+
+	/**
+	 * Paths found in a pack together with the modification time
+	 * and size of the archive backing the pack when it was scanned.
+	 */
+	private static final class CachedPack {
+
+		private final Map<String, String[]> entries;
+		private final long lastModified, size;
+
+		private CachedPack(Map<String, String[]> entries, long lastModified, long size) {
+
+			this.entries = entries;
+			this.lastModified = lastModified;
+			this.size = size;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.util;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.resources.ReloadListener;
+import net.minecraft.resources.IReloadableResourceManager;
+import net.minecraft.resources.IResourceManager;
+import net.minecraft.profiler.IProfiler;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+
+/**
+ * Rebuilds {@link ResourceIndex#CLIENT} in the background stage of each client resource reload.
+ */
+@OnlyIn(Dist.CLIENT)
+public class ResourceIndexReloadListener extends ReloadListener<Object> {
+
+	private ResourceIndexReloadListener() {
+	}
+
+	/**
+	 * Register the listener with the client resource manager. This should be done
+	 * during mod construction so that the initial resource load is indexed as well.
+	 * Does nothing when there is no game client, for example while running data generators.
+	 */
+	public static void register() {
+
+		Minecraft minecraft = Minecraft.getInstance();
+		IResourceManager manager = minecraft != null ? minecraft.getResourceManager() : null;
+		if (manager instanceof IReloadableResourceManager) {
+			((IReloadableResourceManager) manager).addReloadListener(new ResourceIndexReloadListener());
+		}
+	}
+
+	@Override
+	protected Object prepare(IResourceManager manager, IProfiler profiler) {
+
+		ResourceIndex.CLIENT.rebuild(Minecraft.getInstance().getResourcePackList().getEnabledPacks());
+		return this;
+	}
+
+	@Override
+	protected void apply(Object result, IResourceManager manager, IProfiler profiler) {
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.util;
+
+import net.minecraft.util.ResourceLocation;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *     Thread-safe cache that interns {@code ResourceLocation} instances by namespace and path,
+ *     so that the same instance is returned for the same cached location. This avoids allocating
+ *     new instances in render and tick handlers. An empty namespace is treated as {@code minecraft},
+ *     the same way {@code ResourceLocation} treats it.
+ * <p>
+ *     Lookups are done in two levels (namespace then path), which means a cache hit does not
+ *     allocate or concatenate strings. The number of cached entries is bounded and entries are
+ *     only removed by {@link #clear()}. When the cache is full new locations are still created,
+ *     but are not cached and do not share identity, so only cached locations are canonical and
+ *     can be compared by identity. Other callers should compare locations with {@code equals}.
+ * </p>
+ */
+public class ResourceLocationCache {
+
+	private final ConcurrentMap<String, ConcurrentMap<String, ResourceLocation>> namespaces = new ConcurrentHashMap<>();
+	private final String prefix;
+	private final @Nullable ResourceLocationCache parent;
+	private final int maxSize;
+
+	private final AtomicInteger size = new AtomicInteger();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * @param maxSize maximum number of cached locations.
+	 */
+	public ResourceLocationCache(int maxSize) {
+		this("", null, maxSize);
+	}
+
+	/**
+	 * Create a cache that prepends the given prefix to each path and resolves
+	 * locations not found in this cache through the parent cache. This way both
+	 * caches return the same instance for the same location.
+	 *
+	 * @param prefix prefix to prepend to each requested path.
+	 * @param parent cache used to create new locations, can be {@code null}.
+	 * @param maxSize maximum number of cached locations.
+	 */
+	public ResourceLocationCache(String prefix, @Nullable ResourceLocationCache parent, int maxSize) {
+
+		this.prefix = prefix;
+		this.parent = parent;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @param namespace namespace of the resource.
+	 * @param path path to the resource within the namespace, without cache prefix.
+	 * @return canonical {@code ResourceLocation} for the given namespace and prefixed path
+	 * 		if it is cached, otherwise a new instance when the cache is full.
+	 */
+	public ResourceLocation get(String namespace, String path) {
+
+		if (namespace.isEmpty()) {
+			namespace = "minecraft";
+		}
+		ConcurrentMap<String, ResourceLocation> paths = namespaces.get(namespace);
+		ResourceLocation location = paths != null ? paths.get(path) : null;
+		if (location != null)
+		{
+			hits.increment();
+			return location;
+		}
+		misses.increment();
+
+		String fullPath = prefix.isEmpty() ? path : prefix + path;
+		location = parent != null ? parent.get(namespace, fullPath) : new ResourceLocation(namespace, fullPath);
+
+		if (size.get() >= maxSize) {
+			return location;
+		}
+		if (paths == null) {
+			paths = namespaces.computeIfAbsent(namespace, k -> new ConcurrentHashMap<>());
+		}
+		ResourceLocation existing = paths.putIfAbsent(path, location);
+		if (existing != null) {
+			return existing;
+		}
+		size.incrementAndGet();
+		return location;
+	}
+
+	/**
+	 * Remove all cached locations and reset counters.
+	 */
+	public void clear() {
+
+		namespaces.clear();
+		size.set(0);
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * @return number of locations currently cached.
+	 */
+	public int size() {
+		return size.get();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return number of lookups that returned a cached location.
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of lookups that had to create a new location.
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ResourceLocationCache [size: %d/%d, hits: %d, misses: %d]",
+				size(), maxSize, getHitCount(), getMissCount());
+	}
+}
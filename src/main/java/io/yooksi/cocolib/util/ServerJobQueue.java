@@ -0,0 +1,287 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.util;
+
+import io.yooksi.cocolib.CocoLogger;
+import org.jetbrains.annotations.Contract;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ *     Queue of jobs submitted from any thread and executed on the thread that drains it,
+ *     within a limited amount of time each tick.
+ * <p>
+ *     Jobs are stored in lock-free queues, one for each {@link Priority}. Each call to
+ *     {@link #drain()} executes jobs in priority order until the time budget runs out,
+ *     and jobs that did not fit in the budget are left for the next tick. At least one
+ *     job is executed per drain so the queue always makes progress. Jobs with lower priority
+ *     only run after all jobs with higher priority have been executed.
+ * <p>
+ *     {@link #SERVER} is drained by CocoLib at the end of each server tick,
+ *     and any jobs left in it are discarded when the server stops.
+ * </p>
+ */
+public class ServerJobQueue {
+
+	public enum Priority {
+		HIGH, NORMAL, LOW
+	}
+
+	private static final Priority[] PRIORITIES = Priority.values();
+
+	/** Default time budget for each drain of {@code 5} milliseconds expressed in nanoseconds. */
+	public static final long DEFAULT_BUDGET = 5_000_000L;
+
+	/** Job queue drained on the logical server thread at the end of each server tick. */
+	public static final ServerJobQueue SERVER = new ServerJobQueue(DEFAULT_BUDGET);
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private final Queue<Runnable>[] queues = new Queue[PRIORITIES.length];
+	private final AtomicInteger[] depths = new AtomicInteger[PRIORITIES.length];
+
+	private volatile long budget;
+
+	/* Metrics written only by the draining thread */
+	private final AtomicLong executed = new AtomicLong();
+	private volatile long lastDrainTime;
+	private volatile int lastDrainCount;
+	private volatile double averageDrainTime;
+
+	/**
+	 * @param budget maximum amount of time in nanoseconds spent executing jobs in a single drain.
+	 */
+	public ServerJobQueue(long budget) {
+
+		setBudget(budget);
+		for (int i = 0; i < queues.length; i++)
+		{
+			queues[i] = new ConcurrentLinkedQueue<>();
+			depths[i] = new AtomicInteger();
+		}
+	}
+
+	/**
+	 * Add the given job to the queue with the given priority. This method can be called from any thread.
+	 */
+	public void submit(Priority priority, Runnable job) {
+
+		depths[priority.ordinal()].incrementAndGet();
+		queues[priority.ordinal()].add(job);
+	}
+
+	/**
+	 * Add the given job to the queue with {@link Priority#NORMAL} priority.
+	 * @see #submit(Priority, Runnable)
+	 */
+	public void submit(Runnable job) {
+		submit(Priority.NORMAL, job);
+	}
+
+	/**
+	 * Add a job that computes a value to the queue with the given priority.
+	 *
+	 * @return future completed with the computed value on the draining thread, or completed
+	 * 		exceptionally if the job throws an exception or the queue is cleared.
+	 */
+	public <T> CompletableFuture<T> supply(Priority priority, Supplier<T> job) {
+
+		CompletableFuture<T> future = new CompletableFuture<>();
+		submit(priority, new FutureJob<>(future, job));
+		return future;
+	}
+
+	/**
+	 * Execute queued jobs until the time budget runs out.
+	 * This method should only be called from one thread.
+	 *
+	 * @return number of executed jobs.
+	 */
+	public int drain() {
+
+		long start = System.nanoTime();
+		long deadline = start + budget;
+		int count = 0;
+
+		for (int i = 0; i < queues.length; i++)
+		{
+			Queue<Runnable> queue = queues[i];
+			Runnable job;
+			while ((count == 0 || System.nanoTime() < deadline) && (job = queue.poll()) != null)
+			{
+				depths[i].decrementAndGet();
+				count++;
+				try {
+					job.run();
+				}
+				catch (Throwable t)
+				{
+					rethrowIfFatal(t);
+					CocoLogger.error("Unhandled exception while executing job " + job, t);
+				}
+			}
+		}
+		long time = System.nanoTime() - start;
+		lastDrainTime = time;
+		lastDrainCount = count;
+		averageDrainTime = averageDrainTime * 0.95 + time * 0.05;
+		executed.addAndGet(count);
+		return count;
+	}
+
+	/**
+	 * Discard all queued jobs without executing them. Jobs added
+	 * with {@link #supply(Priority, Supplier)} are completed exceptionally.
+	 *
+	 * @return number of discarded jobs.
+	 */
+	public int clear() {
+
+		int count = 0;
+		for (int i = 0; i < queues.length; i++)
+		{
+			Runnable job;
+			while ((job = queues[i].poll()) != null)
+			{
+				depths[i].decrementAndGet();
+				if (job instanceof FutureJob) {
+					((FutureJob<?>) job).cancel();
+				}
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @param budget maximum amount of time in nanoseconds spent executing jobs in a single drain.
+	 * @throws IllegalArgumentException if budget is negative.
+	 */
+	public void setBudget(long budget) {
+
+		if (budget < 0) {
+			throw new IllegalArgumentException("Invalid job queue budget " + budget);
+		}
+		this.budget = budget;
+	}
+
+	/**
+	 * @return maximum amount of time in nanoseconds spent executing jobs in a single drain.
+	 */
+	public long getBudget() {
+		return budget;
+	}
+
+	/**
+	 * @return number of jobs waiting in the queue with the given priority.
+	 */
+	public int getDepth(Priority priority) {
+		return depths[priority.ordinal()].get();
+	}
+
+	/**
+	 * @return total number of jobs waiting in the queue.
+	 */
+	public int getDepth() {
+
+		int depth = 0;
+		for (AtomicInteger value : depths) {
+			depth += value.get();
+		}
+		return depth;
+	}
+
+	/**
+	 * @return total number of jobs executed by this queue.
+	 */
+	public long getExecutedCount() {
+		return executed.get();
+	}
+
+	/**
+	 * @return amount of time in nanoseconds spent executing jobs in the last drain.
+	 */
+	public long getLastDrainTime() {
+		return lastDrainTime;
+	}
+
+	/**
+	 * @return number of jobs executed in the last drain.
+	 */
+	public int getLastDrainCount() {
+		return lastDrainCount;
+	}
+
+	/**
+	 * @return exponential moving average of time in nanoseconds spent executing jobs in each drain.
+	 */
+	public double getAverageDrainTime() {
+		return averageDrainTime;
+	}
+
+	@Contract(pure = true)
+	@Override
+	public String toString() {
+		return String.format("ServerJobQueue [depth: %d, executed: %d, last drain: %d jobs in %.2f ms, " +
+				"average: %.2f ms, budget: %.2f ms]", getDepth(), getExecutedCount(), lastDrainCount,
+				lastDrainTime / 1e6, averageDrainTime / 1e6, budget / 1e6);
+	}
+
+	/**
+	 * Rethrow errors the game should not keep running after, like running out of memory.
+	 * Other errors, including linkage errors caused by a broken mod, only fail the job.
+	 */
+	private static void rethrowIfFatal(Throwable t) {
+
+		if (t instanceof VirtualMachineError) {
+			throw (VirtualMachineError) t;
+		}
+		else if (t instanceof ThreadDeath) {
+			throw (ThreadDeath) t;
+		}
+	}
+
+	private static class FutureJob<T> implements Runnable {
+
+		private final CompletableFuture<T> future;
+		private final Supplier<T> supplier;
+
+		private FutureJob(CompletableFuture<T> future, Supplier<T> supplier) {
+			this.future = future;
+			this.supplier = supplier;
+		}
+
+		@Override
+		public void run() {
+
+			try {
+				future.complete(supplier.get());
+			}
+			catch (Throwable t)
+			{
+				future.completeExceptionally(t);
+				rethrowIfFatal(t);
+			}
+		}
+
+		private void cancel() {
+			future.cancel(false);
+		}
+	}
+}
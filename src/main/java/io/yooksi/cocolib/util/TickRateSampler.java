@@ -0,0 +1,120 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.util;
+
+/**
+ * <p>
+ *     Measures the rate at which game ticks are processed over a moving window
+ *     of most recent tick intervals.
+ * <p>
+ *     The sampler is designed for a single writer thread (usually the server thread)
+ *     that calls {@link #recordTick()} once per tick. Measured values are published
+ *     through {@code volatile} fields, so they can be read from any thread without locking.
+ * </p>
+ */
+public class TickRateSampler {
+
+	/** Tick interval in nanoseconds when the game runs at full speed. */
+	public static final long NOMINAL_INTERVAL = 1_000_000_000L / GameClock.TICKS_PER_SECOND;
+
+	/**
+	 * Longest tick interval that will be recorded. This prevents a single long pause,
+	 * like a paused singleplayer game, from distorting the measured rate for the whole window.
+	 */
+	private static final long MAX_INTERVAL = 1_000_000_000L;
+
+	private final long[] samples;
+	private int index, count;
+	private long sum, lastTick;
+
+	/** Average tick interval in the sampled window expressed in nanoseconds. */
+	private volatile long averageInterval = NOMINAL_INTERVAL;
+
+	/**
+	 * @param window number of most recent tick intervals to keep track of.
+	 * @throws IllegalArgumentException if window size is less then {@code 1}.
+	 */
+	public TickRateSampler(int window) {
+
+		if (window < 1) {
+			throw new IllegalArgumentException("Invalid sampler window size " + window);
+		}
+		samples = new long[window];
+	}
+
+	/**
+	 * Record the start of a new tick. This method should be called once per
+	 * tick from the thread that is processing ticks and no other thread.
+	 */
+	public void recordTick() {
+		recordTick(System.nanoTime());
+	}
+
+	/**
+	 * Record the start of a new tick at the given time.
+	 *
+	 * @param nanoTime time of the tick as returned by {@link System#nanoTime()}.
+	 * @see #recordTick()
+	 */
+	public void recordTick(long nanoTime) {
+
+		if (lastTick != 0)
+		{
+			long interval = Math.min(Math.max(nanoTime - lastTick, 1L), MAX_INTERVAL);
+			if (count == samples.length) {
+				sum -= samples[index];
+			}
+			else count++;
+
+			samples[index] = interval;
+			sum += interval;
+			index = (index + 1) % samples.length;
+			averageInterval = sum / count;
+		}
+		lastTick = nanoTime;
+	}
+
+	/**
+	 * Discard all recorded samples. Should be called from the writer thread
+	 * when tick processing stops, for example when the server shuts down.
+	 */
+	public void reset() {
+
+		index = count = 0;
+		sum = lastTick = 0L;
+		averageInterval = NOMINAL_INTERVAL;
+	}
+
+	/**
+	 * @return average tick interval in the sampled window expressed in nanoseconds,
+	 * 		or {@link #NOMINAL_INTERVAL} when no ticks have been recorded yet.
+	 */
+	public long getAverageInterval() {
+		return averageInterval;
+	}
+
+	/**
+	 * @return measured number of ticks processed per second.
+	 */
+	public double getTicksPerSecond() {
+		return 1_000_000_000.0 / averageInterval;
+	}
+
+	/**
+	 * @return size of the window of tick intervals this sampler keeps track of.
+	 */
+	public int getWindowSize() {
+		return samples.length;
+	}
+}
@@ -76,6 +76,10 @@ package io.yooksi.cocolib.util;
  *       <td>1 year</td> <td>72 years, ≈ 876.5 months, ≈ 3,757 weeks, ≈ 26,297.5 days</td>
  *   </tr>
  * </table>
+ * <p>
+ *     Note that real time conversions in this class assume the game is running at full
+ *     speed. Use {@link GameClock} for conversions that compensate for server lag.
+ * </p>
  */
 public enum TimeUnit {
 
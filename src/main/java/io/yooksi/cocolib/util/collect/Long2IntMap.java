@@ -0,0 +1,194 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.util.collect;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *     Open-addressing hash map from primitive {@code long} keys to primitive {@code int}
+ *     values, intended to store per-block data keyed by {@code BlockPos#toLong()}.
+ * <p>
+ *     Instances of this class are not thread-safe.
+ * </p>
+ * @see LongHashTable
+ */
+public class Long2IntMap extends LongHashTable {
+
+	@FunctionalInterface
+	public interface EntryConsumer {
+		void accept(long key, int value);
+	}
+
+	private int[] values;
+	private int[] oldValues;
+	private int defaultValue;
+
+	public Long2IntMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param expected number of entries the map can hold without resizing.
+	 */
+	public Long2IntMap(int expected) {
+
+		super(expected);
+		values = new int[keys.length];
+	}
+
+	/**
+	 * @param value value returned by methods when the requested key is not present.
+	 */
+	public void setDefaultValue(int value) {
+		defaultValue = value;
+	}
+
+	public int getDefaultValue() {
+		return defaultValue;
+	}
+
+	/**
+	 * @return value mapped to the given key or default value if the key is not present.
+	 */
+	public int get(long key) {
+
+		int slot = find(key);
+		return slot >= 0 ? values[slot] : defaultValue;
+	}
+
+	/**
+	 * @return value mapped to the given key or {@code fallback} if the key is not present.
+	 */
+	public int getOrDefault(long key, int fallback) {
+
+		int slot = find(key);
+		return slot >= 0 ? values[slot] : fallback;
+	}
+
+	public boolean containsKey(long key) {
+		return find(key) >= 0;
+	}
+
+	/**
+	 * @return previous value mapped to the key or default value if the key was not present.
+	 */
+	public int put(long key, int value) {
+
+		int slot = insert(key);
+		if (slot < 0)
+		{
+			values[-slot - 1] = value;
+			return defaultValue;
+		}
+		int previous = values[slot];
+		values[slot] = value;
+		return previous;
+	}
+
+	/**
+	 * Add the given increment to the value mapped to the key. If the key is not present
+	 * the increment is added to the default value and the result is stored in the map.
+	 *
+	 * @return previous value mapped to the key or default value if the key was not present.
+	 */
+	public int addTo(long key, int increment) {
+
+		int slot = insert(key);
+		if (slot < 0)
+		{
+			values[-slot - 1] = defaultValue + increment;
+			return defaultValue;
+		}
+		int previous = values[slot];
+		values[slot] += increment;
+		return previous;
+	}
+
+	/**
+	 * @return value mapped to the removed key or default value if the key was not present.
+	 */
+	public int remove(long key) {
+
+		int slot = find(key);
+		if (slot < 0) {
+			return defaultValue;
+		}
+		int previous = values[slot];
+		removeAt(slot);
+		return previous;
+	}
+
+	/**
+	 * @return value stored in the given slot.
+	 * @see #nextSlot(int)
+	 */
+	public int valueAt(int slot) {
+		return values[slot];
+	}
+
+	/**
+	 * Perform the given action for each entry in this map without allocating an iterator.
+	 * The map must not be modified by the action.
+	 */
+	public void forEach(EntryConsumer action) {
+
+		for (int slot = nextSlot(-1); slot >= 0; slot = nextSlot(slot)) {
+			action.accept(keyAt(slot), values[slot]);
+		}
+	}
+
+	@Override
+	long estimateValuesMemoryUsage() {
+		return 16L + 4L * values.length;
+	}
+
+	@Override
+	long estimateHashMapValueUsage() {
+		// Boxed Integer values outside of the integer cache
+		return 16L * size;
+	}
+
+	@Override
+	void clearValue(int slot) {
+		values[slot] = 0;
+	}
+
+	@Override
+	void clearValues() {
+		Arrays.fill(values, 0);
+	}
+
+	@Override
+	void moveValue(int from, int to) {
+		values[to] = values[from];
+	}
+
+	@Override
+	void beginRehash(int length) {
+
+		oldValues = values;
+		values = new int[length];
+	}
+
+	@Override
+	void transferValue(int oldSlot, int newSlot) {
+		values[newSlot] = oldValues[oldSlot];
+	}
+
+	@Override
+	void endRehash() {
+		oldValues = null;
+	}
+}
@@ -0,0 +1,184 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.util.collect;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.function.LongFunction;
+
+/**
+ * <p>
+ *     Open-addressing hash map from primitive {@code long} keys to object values,
+ *     intended to store per-block data keyed by {@code BlockPos#toLong()}.
+ * <p>
+ *     Instances of this class are not thread-safe.
+ * </p>
+ * @param <V> type of mapped values.
+ * @see LongHashTable
+ */
+public class Long2ObjectMap<V> extends LongHashTable {
+
+	@FunctionalInterface
+	public interface EntryConsumer<V> {
+		void accept(long key, V value);
+	}
+
+	private Object[] values;
+	private Object[] oldValues;
+
+	public Long2ObjectMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param expected number of entries the map can hold without resizing.
+	 */
+	public Long2ObjectMap(int expected) {
+
+		super(expected);
+		values = new Object[keys.length];
+	}
+
+	/**
+	 * @return value mapped to the given key or {@code null} if the key is not present.
+	 */
+	@SuppressWarnings("unchecked")
+	public @Nullable V get(long key) {
+
+		int slot = find(key);
+		return slot >= 0 ? (V) values[slot] : null;
+	}
+
+	public boolean containsKey(long key) {
+		return find(key) >= 0;
+	}
+
+	/**
+	 * @return previous value mapped to the key or {@code null} if the key was not present.
+	 */
+	@SuppressWarnings("unchecked")
+	public @Nullable V put(long key, V value) {
+
+		int slot = insert(key);
+		if (slot < 0)
+		{
+			values[-slot - 1] = value;
+			return null;
+		}
+		V previous = (V) values[slot];
+		values[slot] = value;
+		return previous;
+	}
+
+	/**
+	 * @return value mapped to the given key, computing and storing
+	 * 		it with the given function if the key is not present.
+	 * @throws ConcurrentModificationException if the function maps the same key in this map.
+	 */
+	@SuppressWarnings("unchecked")
+	public V computeIfAbsent(long key, LongFunction<V> function) {
+
+		int slot = find(key);
+		if (slot >= 0) {
+			return (V) values[slot];
+		}
+		V value = function.apply(key);
+		// Insert before accessing the value array since it can be replaced by rehashing
+		slot = insert(key);
+		if (slot >= 0) {
+			throw new ConcurrentModificationException("Key " + key + " was mapped by the mapping function");
+		}
+		values[-slot - 1] = value;
+		return value;
+	}
+
+	/**
+	 * @return value mapped to the removed key or {@code null} if the key was not present.
+	 */
+	@SuppressWarnings("unchecked")
+	public @Nullable V remove(long key) {
+
+		int slot = find(key);
+		if (slot < 0) {
+			return null;
+		}
+		V previous = (V) values[slot];
+		removeAt(slot);
+		return previous;
+	}
+
+	/**
+	 * @return value stored in the given slot.
+	 * @see #nextSlot(int)
+	 */
+	@SuppressWarnings("unchecked")
+	public V valueAt(int slot) {
+		return (V) values[slot];
+	}
+
+	/**
+	 * Perform the given action for each entry in this map without allocating an iterator.
+	 * The map must not be modified by the action.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(EntryConsumer<? super V> action) {
+
+		for (int slot = nextSlot(-1); slot >= 0; slot = nextSlot(slot)) {
+			action.accept(keyAt(slot), (V) values[slot]);
+		}
+	}
+
+	@Override
+	long estimateValuesMemoryUsage() {
+		return 16L + 4L * values.length;
+	}
+
+	@Override
+	long estimateHashMapValueUsage() {
+		return 0L;
+	}
+
+	@Override
+	void clearValue(int slot) {
+		values[slot] = null;
+	}
+
+	@Override
+	void clearValues() {
+		Arrays.fill(values, null);
+	}
+
+	@Override
+	void moveValue(int from, int to) {
+		values[to] = values[from];
+	}
+
+	@Override
+	void beginRehash(int length) {
+
+		oldValues = values;
+		values = new Object[length];
+	}
+
+	@Override
+	void transferValue(int oldSlot, int newSlot) {
+		values[newSlot] = oldValues[oldSlot];
+	}
+
+	@Override
+	void endRehash() {
+		oldValues = null;
+	}
+}
@@ -0,0 +1,361 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.util.collect;
+
+import net.minecraft.util.math.BlockPos;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * <p>
+ *     Base class for open-addressing hash tables with primitive {@code long} keys.
+ * <p>
+ *     Keys are stored in a flat array with linear probing and removal is done by shifting
+ *     following entries back, so there are no tombstones and no per-entry objects.
+ *     Key {@code 0} marks an empty slot, which is why the zero key is stored separately
+ *     in an extra slot at the end of the table.
+ * <p>
+ *     Subclasses store values in parallel arrays and keep them in sync
+ *     by implementing the value hooks declared by this class.
+ * </p>
+ */
+abstract class LongHashTable {
+
+	static final int DEFAULT_CAPACITY = 16;
+	static final float LOAD_FACTOR = 0.75f;
+
+	/** Table of keys, slot {@code n} is reserved for the zero key. */
+	long[] keys;
+	/** Number of regular slots in the table, always a power of two. */
+	int n;
+	int mask;
+	int size;
+	int maxFill;
+	boolean hasZeroKey;
+
+	LongHashTable(int expected) {
+
+		if (expected < 0) {
+			throw new IllegalArgumentException("Expected size must be non-negative");
+		}
+		n = arraySize(expected);
+		mask = n - 1;
+		maxFill = maxFill(n);
+		keys = new long[n + 1];
+	}
+
+	/**
+	 * @return table size that can hold the expected number of elements without rehashing.
+	 */
+	private static int arraySize(int expected) {
+
+		long s = Math.max(2, Long.highestOneBit((long) Math.ceil(expected / LOAD_FACTOR) - 1) << 1);
+		if (s > (1 << 30)) {
+			throw new IllegalArgumentException("Too large (" + expected + " expected elements)");
+		}
+		return (int) Math.max(s, DEFAULT_CAPACITY);
+	}
+
+	private static int maxFill(int n) {
+		return Math.min((int) Math.ceil(n * LOAD_FACTOR), n - 1);
+	}
+
+	/**
+	 * Mix the bits of the given key to spread packed positions across the table.
+	 */
+	static int mix(long key) {
+
+		long h = key * 0x9E3779B97F4A7C15L;
+		h ^= h >>> 32;
+		return (int) (h ^ (h >>> 16));
+	}
+
+	/**
+	 * @return index of the slot that holds the given key, or {@code -1} if the key was not found.
+	 */
+	final int find(long key) {
+
+		if (key == 0) {
+			return hasZeroKey ? n : -1;
+		}
+		int pos = mix(key) & mask;
+		long current;
+		while ((current = keys[pos]) != 0)
+		{
+			if (current == key) {
+				return pos;
+			}
+			pos = (pos + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Find the slot for the given key, inserting the key if it does not exist.
+	 *
+	 * @return index of the slot that holds the key, or {@code -(index + 1)}
+	 * 		if the key was inserted into a new slot by this call.
+	 */
+	final int insert(long key) {
+
+		int pos;
+		if (key == 0)
+		{
+			if (hasZeroKey) {
+				return n;
+			}
+			hasZeroKey = true;
+			pos = n;
+		}
+		else {
+			pos = mix(key) & mask;
+			long current;
+			while ((current = keys[pos]) != 0)
+			{
+				if (current == key) {
+					return pos;
+				}
+				pos = (pos + 1) & mask;
+			}
+			keys[pos] = key;
+		}
+		if (size++ >= maxFill)
+		{
+			rehash(arraySize(size + 1));
+			return -(find(key) + 1);
+		}
+		return -(pos + 1);
+	}
+
+	/**
+	 * Remove the entry stored in the given slot.
+	 */
+	final void removeAt(int pos) {
+
+		size--;
+		if (pos == n)
+		{
+			hasZeroKey = false;
+			clearValue(n);
+		}
+		else shiftKeys(pos);
+	}
+
+	/**
+	 * Shift entries following the given slot back to close the gap left by removal.
+	 */
+	private void shiftKeys(int pos) {
+
+		int last, slot;
+		long current;
+		for (;;)
+		{
+			pos = ((last = pos) + 1) & mask;
+			for (;;)
+			{
+				if ((current = keys[pos]) == 0)
+				{
+					keys[last] = 0;
+					clearValue(last);
+					return;
+				}
+				slot = mix(current) & mask;
+				if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+					break;
+				}
+				pos = (pos + 1) & mask;
+			}
+			keys[last] = current;
+			moveValue(pos, last);
+		}
+	}
+
+	private void rehash(int newN) {
+
+		long[] oldKeys = keys;
+		int oldN = n;
+
+		long[] newKeys = new long[newN + 1];
+		int newMask = newN - 1;
+		beginRehash(newN + 1);
+
+		for (int i = 0; i < oldN; i++)
+		{
+			long key = oldKeys[i];
+			if (key != 0)
+			{
+				int pos = mix(key) & newMask;
+				while (newKeys[pos] != 0) {
+					pos = (pos + 1) & newMask;
+				}
+				newKeys[pos] = key;
+				transferValue(i, pos);
+			}
+		}
+		transferValue(oldN, newN);
+		endRehash();
+
+		n = newN;
+		mask = newMask;
+		maxFill = maxFill(n);
+		keys = newKeys;
+	}
+
+	/**
+	 * @return number of entries in this table.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Remove all entries from this table while keeping the allocated capacity.
+	 */
+	public void clear() {
+
+		if (size != 0)
+		{
+			size = 0;
+			hasZeroKey = false;
+			Arrays.fill(keys, 0L);
+			clearValues();
+		}
+	}
+
+	/**
+	 * Remove all entries with keys that match the given predicate.
+	 * The predicate should not have side effects, as some keys may be tested more then once.
+	 *
+	 * @return number of removed entries.
+	 */
+	public int removeIf(LongPredicate filter) {
+
+		int removed = 0;
+		if (hasZeroKey && filter.test(0L))
+		{
+			removeAt(n);
+			removed++;
+		}
+		for (int i = 0; i < n;)
+		{
+			long key = keys[i];
+			if (key != 0 && filter.test(key))
+			{
+				// Shifting may move another entry into this slot so check it again
+				removeAt(i);
+				removed++;
+			}
+			else i++;
+		}
+		return removed;
+	}
+
+	/**
+	 * Remove all entries with keys (packed with {@link BlockPos#toLong()})
+	 * that belong to the chunk at the given chunk coordinates.
+	 *
+	 * @return number of removed entries.
+	 */
+	public int removeChunk(int chunkX, int chunkZ) {
+		return removeIf(key -> BlockPos.unpackX(key) >> 4 == chunkX && BlockPos.unpackZ(key) >> 4 == chunkZ);
+	}
+
+	/**
+	 * Allocation free way of iterating over table slots:
+	 * <pre>{@code
+	 * for (int slot = table.nextSlot(-1); slot >= 0; slot = table.nextSlot(slot)) {
+	 *     long key = table.keyAt(slot);
+	 * }
+	 * }</pre>
+	 * The table must not be modified while iterating.
+	 *
+	 * @param slot index of the current slot or {@code -1} to find the first slot.
+	 * @return index of the next occupied slot or {@code -1} if there are no more slots.
+	 */
+	public int nextSlot(int slot) {
+
+		while (++slot < n)
+		{
+			if (keys[slot] != 0) {
+				return slot;
+			}
+		}
+		return slot == n && hasZeroKey ? n : -1;
+	}
+
+	/**
+	 * @return key stored in the given slot.
+	 * @see #nextSlot(int)
+	 */
+	public long keyAt(int slot) {
+		return slot == n ? 0L : keys[slot];
+	}
+
+	/**
+	 * @return estimated number of bytes retained by this table, assuming
+	 * 		compressed object pointers and {@code 16} byte array headers.
+	 */
+	public long estimateMemoryUsage() {
+		return 48L + 16L + 8L * keys.length + estimateValuesMemoryUsage();
+	}
+
+	/**
+	 * @return human readable report about the memory footprint of this table compared to
+	 * 		an equivalent {@code HashMap} with {@code Long} keys, which costs about {@code 52}
+	 * 		bytes per entry (boxed key, map node and table slot) in addition to stored values.
+	 */
+	public String getMemoryReport() {
+
+		long bytes = estimateMemoryUsage();
+		int hashMapSlots = Integer.highestOneBit(Math.max(1, (int) Math.ceil(size / 0.75f)) * 2 - 1);
+		long hashMapBytes = 48L + 16L + 4L * hashMapSlots + 52L * size + estimateHashMapValueUsage();
+
+		return String.format("%s [size: %d, capacity: %d, load: %.2f, bytes: %d (%.1f per entry), " +
+				"HashMap estimate: %d bytes]", getClass().getSimpleName(), size, n, size / (float) n,
+				bytes, size == 0 ? 0f : bytes / (float) size, hashMapBytes);
+	}
+
+	/**
+	 * @return estimated number of bytes retained by the value arrays.
+	 */
+	abstract long estimateValuesMemoryUsage();
+
+	/**
+	 * @return estimated number of bytes the values would take in a {@code HashMap}.
+	 */
+	abstract long estimateHashMapValueUsage();
+
+	/** Clear value stored in the given slot. */
+	abstract void clearValue(int slot);
+
+	/** Clear all stored values. */
+	abstract void clearValues();
+
+	/** Move value from one slot to another. */
+	abstract void moveValue(int from, int to);
+
+	/** Allocate new value storage of the given length and keep the old one for transfer. */
+	abstract void beginRehash(int length);
+
+	/** Copy value from the old storage slot to the new storage slot. */
+	abstract void transferValue(int oldSlot, int newSlot);
+
+	/** Release the old value storage after the rehash is complete. */
+	abstract void endRehash();
+}
@@ -0,0 +1,122 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.util.collect;
+
+import java.util.function.LongConsumer;
+
+/**
+ * <p>
+ *     Open-addressing hash set of primitive {@code long} values, intended to store
+ *     block positions packed with {@code BlockPos#toLong()} without boxing them.
+ * <p>
+ *     Instances of this class are not thread-safe.
+ * </p>
+ * @see LongHashTable
+ */
+public class LongSet extends LongHashTable {
+
+	public LongSet() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param expected number of elements the set can hold without resizing.
+	 */
+	public LongSet(int expected) {
+		super(expected);
+	}
+
+	/**
+	 * @return {@code true} if the value was not already present in this set.
+	 */
+	public boolean add(long value) {
+		return insert(value) < 0;
+	}
+
+	public boolean contains(long value) {
+		return find(value) >= 0;
+	}
+
+	/**
+	 * @return {@code true} if the value was present in this set.
+	 */
+	public boolean remove(long value) {
+
+		int slot = find(value);
+		if (slot >= 0)
+		{
+			removeAt(slot);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Perform the given action for each value in this set without allocating an iterator.
+	 * The set must not be modified by the action.
+	 */
+	public void forEach(LongConsumer action) {
+
+		for (int slot = nextSlot(-1); slot >= 0; slot = nextSlot(slot)) {
+			action.accept(keyAt(slot));
+		}
+	}
+
+	/**
+	 * @return new array containing all values in this set.
+	 */
+	public long[] toArray() {
+
+		long[] result = new long[size];
+		int i = 0;
+		for (int slot = nextSlot(-1); slot >= 0; slot = nextSlot(slot)) {
+			result[i++] = keyAt(slot);
+		}
+		return result;
+	}
+
+	@Override
+	long estimateValuesMemoryUsage() {
+		return 0L;
+	}
+
+	@Override
+	long estimateHashMapValueUsage() {
+		return 0L;
+	}
+
+	@Override
+	void clearValue(int slot) {
+	}
+
+	@Override
+	void clearValues() {
+	}
+
+	@Override
+	void moveValue(int from, int to) {
+	}
+
+	@Override
+	void beginRehash(int length) {
+	}
+
+	@Override
+	void transferValue(int oldSlot, int newSlot) {
+	}
+
+	@Override
+	void endRehash() {
+	}
+}
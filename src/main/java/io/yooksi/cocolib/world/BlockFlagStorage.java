@@ -0,0 +1,99 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.world;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.SectionPos;
+
+/**
+ * <p>
+ *     Stores a boolean flag (like claimed, scanned or polluted) for each block in a dimension,
+ *     using a {@link SectionFlags} bit set for each chunk section that has at least one flag set.
+ *     Sections are released as soon as their last flag is cleared.
+ * <p>
+ *     Instances are not thread-safe.
+ * </p>
+ */
+public class BlockFlagStorage extends SectionStorage<SectionFlags> {
+
+	@FunctionalInterface
+	public interface BlockConsumer {
+		void accept(int x, int y, int z);
+	}
+
+	public BlockFlagStorage() {
+		super(SectionFlags::new);
+	}
+
+	/**
+	 * @return {@code true} if the flag is set for the block at the given coordinates.
+	 */
+	public boolean get(int x, int y, int z) {
+
+		SectionFlags section = getSection(getSectionKey(x, y, z));
+		return section != null && section.get(x, y, z);
+	}
+
+	public boolean get(BlockPos pos) {
+		return get(pos.getX(), pos.getY(), pos.getZ());
+	}
+
+	/**
+	 * Set or clear the flag for the block at the given coordinates.
+	 * @return previous flag value.
+	 */
+	public boolean set(int x, int y, int z, boolean value) {
+
+		long key = getSectionKey(x, y, z);
+		if (value) {
+			return getOrCreateSection(key).set(x, y, z, true);
+		}
+		SectionFlags section = getSection(key);
+		if (section == null) {
+			return false;
+		}
+		boolean previous = section.set(x, y, z, false);
+		if (section.isEmpty()) {
+			removeSection(key);
+		}
+		return previous;
+	}
+
+	public boolean set(BlockPos pos, boolean value) {
+		return set(pos.getX(), pos.getY(), pos.getZ(), value);
+	}
+
+	/**
+	 * Perform the given action for world coordinates of each block that has the flag set.
+	 */
+	public void forEachSet(BlockConsumer action) {
+
+		forEachSection((key, section) -> {
+			int baseX = SectionPos.extractX(key) << 4;
+			int baseY = SectionPos.extractY(key) << 4;
+			int baseZ = SectionPos.extractZ(key) << 4;
+			section.forEachSet(i -> action.accept(baseX | i & 15, baseY | i >>> 8, baseZ | i >>> 4 & 15));
+		});
+	}
+
+	/**
+	 * @return total number of blocks that have the flag set.
+	 */
+	public long cardinality() {
+
+		long[] result = new long[1];
+		forEachSection((key, section) -> result[0] += section.cardinality());
+		return result[0];
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.world;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * <p>
+ *     Stores a small enum value for each block in a dimension, using a palette-compressed
+ *     {@link SectionPalette} for each chunk section that has at least one non-default value.
+ * <p>
+ *     Instances are not thread-safe.
+ * </p>
+ * @param <E> type of stored enum values.
+ */
+public class BlockPaletteStorage<E extends Enum<E>> extends SectionStorage<SectionPalette<E>> {
+
+	private final E defaultValue;
+
+	/**
+	 * @param type class of the stored enum.
+	 * @param defaultValue value every block has until a different value is set.
+	 */
+	public BlockPaletteStorage(Class<E> type, E defaultValue) {
+
+		super(() -> new SectionPalette<>(type, defaultValue));
+		this.defaultValue = defaultValue;
+	}
+
+	/**
+	 * @return value of the block at the given coordinates.
+	 */
+	public E get(int x, int y, int z) {
+
+		SectionPalette<E> section = getSection(getSectionKey(x, y, z));
+		return section != null ? section.get(x, y, z) : defaultValue;
+	}
+
+	public E get(BlockPos pos) {
+		return get(pos.getX(), pos.getY(), pos.getZ());
+	}
+
+	/**
+	 * Set the value of the block at the given coordinates. Setting the default value
+	 * in a section without stored data does not allocate the section.
+	 */
+	public void set(int x, int y, int z, E value) {
+
+		long key = getSectionKey(x, y, z);
+		if (value == defaultValue)
+		{
+			SectionPalette<E> section = getSection(key);
+			if (section != null) {
+				section.set(x, y, z, value);
+			}
+		}
+		else getOrCreateSection(key).set(x, y, z, value);
+	}
+
+	public void set(BlockPos pos, E value) {
+		set(pos.getX(), pos.getY(), pos.getZ(), value);
+	}
+
+	/**
+	 * Release all sections where every block has the default value.
+	 * @return number of released sections.
+	 */
+	public int trim() {
+		return sections.removeIf(key -> {
+			SectionPalette<E> section = sections.get(key);
+			return section != null && section.isEmpty();
+		});
+	}
+
+	public E getDefaultValue() {
+		return defaultValue;
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.world;
+
+import net.minecraft.world.dimension.DimensionType;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe map that holds a separate instance of per-dimension data,
+ * like a {@link SpatialHash} or {@link SectionStorage}, for each dimension.
+ *
+ * @param <V> type of per-dimension data.
+ */
+public class DimensionMap<V> {
+
+	private final Map<DimensionType, V> values = new ConcurrentHashMap<>();
+	private final Supplier<V> factory;
+
+	/**
+	 * @param factory supplier used to create data for dimensions that have none yet.
+	 */
+	public DimensionMap(Supplier<V> factory) {
+		this.factory = factory;
+	}
+
+	/**
+	 * @return data of the given dimension, created if it did not exist.
+	 */
+	public V get(DimensionType dimension) {
+		return values.computeIfAbsent(dimension, d -> factory.get());
+	}
+
+	/**
+	 * @return data of the given dimension or {@code null} if it does not exist.
+	 */
+	public @Nullable V getIfPresent(DimensionType dimension) {
+		return values.get(dimension);
+	}
+
+	/**
+	 * Remove data of the given dimension, for example when the dimension is unloaded.
+	 *
+	 * @return removed data or {@code null} if there was no data.
+	 */
+	public @Nullable V remove(DimensionType dimension) {
+		return values.remove(dimension);
+	}
+
+	public void forEach(BiConsumer<DimensionType, V> action) {
+		values.forEach(action);
+	}
+
+	public void clear() {
+		values.clear();
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.world;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>
+ *     Set of boolean flags for each block in a {@code 16x16x16} chunk section,
+ *     stored as a {@code 4096} bit set that takes {@code 512} bytes per section.
+ * <p>
+ *     Blocks are indexed in the same order vanilla uses for section storage,
+ *     see {@link #getIndex(int, int, int)}. Instances are not thread-safe.
+ * </p>
+ */
+public class SectionFlags {
+
+	/** Number of blocks in a chunk section. */
+	public static final int SIZE = 4096;
+
+	private final long[] words = new long[SIZE / 64];
+	private int count;
+
+	/**
+	 * @param x block coordinate along {@code x} axis, only the lowest 4 bits are used.
+	 * @param y block coordinate along {@code y} axis, only the lowest 4 bits are used.
+	 * @param z block coordinate along {@code z} axis, only the lowest 4 bits are used.
+	 * @return index of the block within the section.
+	 */
+	public static int getIndex(int x, int y, int z) {
+		return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+	}
+
+	/**
+	 * @return {@code true} if the flag is set for the block at the given section index.
+	 */
+	public boolean get(int index) {
+		return (words[index >>> 6] & 1L << index) != 0;
+	}
+
+	/**
+	 * @see #getIndex(int, int, int)
+	 */
+	public boolean get(int x, int y, int z) {
+		return get(getIndex(x, y, z));
+	}
+
+	/**
+	 * Set or clear the flag for the block at the given section index.
+	 * @return previous flag value.
+	 */
+	public boolean set(int index, boolean value) {
+
+		int word = index >>> 6;
+		long mask = 1L << index;
+		boolean previous = (words[word] & mask) != 0;
+		if (previous != value)
+		{
+			words[word] ^= mask;
+			count += value ? 1 : -1;
+		}
+		return previous;
+	}
+
+	/**
+	 * @see #getIndex(int, int, int)
+	 */
+	public boolean set(int x, int y, int z, boolean value) {
+		return set(getIndex(x, y, z), value);
+	}
+
+	/**
+	 * Clear all flags in this section.
+	 */
+	public void clear() {
+
+		Arrays.fill(words, 0L);
+		count = 0;
+	}
+
+	/**
+	 * @return number of blocks in this section with the flag set.
+	 */
+	public int cardinality() {
+		return count;
+	}
+
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * Perform the given action for the index of each block that has the flag set,
+	 * in ascending index order. Only words with set bits are visited.
+	 */
+	public void forEachSet(IntConsumer action) {
+
+		for (int i = 0; i < words.length; i++)
+		{
+			long word = words[i];
+			while (word != 0)
+			{
+				action.accept(i << 6 | Long.numberOfTrailingZeros(word));
+				word &= word - 1;
+			}
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.world;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *     Palette-compressed storage of small enum values for each block in a {@code 16x16x16}
+ *     chunk section. Each block stores an index into a palette of enum values used in this
+ *     section, packed with as few bits as the palette size requires. A section that only uses
+ *     two different values takes {@code 512} bytes, regardless of the number of enum constants.
+ * <p>
+ *     Blocks are indexed the same way as in {@link SectionFlags}. Instances are not thread-safe.
+ * </p>
+ * @param <E> type of stored enum values.
+ */
+public class SectionPalette<E extends Enum<E>> {
+
+	private final E[] constants;
+
+	/** Enum ordinals in order they were added to the palette, index 0 is the default value. */
+	private final int[] palette;
+	private int paletteSize;
+
+	private int bits;
+	private int entriesPerWord;
+	private long mask;
+	private long[] words;
+
+	/**
+	 * @param type class of the stored enum.
+	 * @param defaultValue value every block in the section has initially.
+	 */
+	public SectionPalette(Class<E> type, E defaultValue) {
+
+		constants = type.getEnumConstants();
+		palette = new int[constants.length];
+		palette[0] = defaultValue.ordinal();
+		paletteSize = 1;
+		resize(1);
+	}
+
+	private void resize(int newBits) {
+
+		long[] oldWords = words;
+		int oldBits = bits, oldPerWord = entriesPerWord;
+
+		bits = newBits;
+		entriesPerWord = 64 / newBits;
+		mask = (1L << newBits) - 1;
+		words = new long[(SectionFlags.SIZE + entriesPerWord - 1) / entriesPerWord];
+
+		if (oldWords != null)
+		{
+			long oldMask = (1L << oldBits) - 1;
+			for (int i = 0; i < SectionFlags.SIZE; i++)
+			{
+				int id = (int) (oldWords[i / oldPerWord] >>> (i % oldPerWord * oldBits) & oldMask);
+				setId(i, id);
+			}
+		}
+	}
+
+	private int getId(int index) {
+		return (int) (words[index / entriesPerWord] >>> (index % entriesPerWord * bits) & mask);
+	}
+
+	private void setId(int index, int id) {
+
+		int word = index / entriesPerWord;
+		int shift = index % entriesPerWord * bits;
+		words[word] = words[word] & ~(mask << shift) | (long) id << shift;
+	}
+
+	/**
+	 * @return palette index of the given enum value, adding it to the palette if needed.
+	 */
+	private int getOrAddId(E value) {
+
+		int ordinal = value.ordinal();
+		for (int i = 0; i < paletteSize; i++)
+		{
+			if (palette[i] == ordinal) {
+				return i;
+			}
+		}
+		int id = paletteSize++;
+		palette[id] = ordinal;
+		if (id > mask) {
+			resize(bits + 1);
+		}
+		return id;
+	}
+
+	/**
+	 * @return value of the block at the given section index.
+	 */
+	public E get(int index) {
+		return constants[palette[getId(index)]];
+	}
+
+	/**
+	 * @see SectionFlags#getIndex(int, int, int)
+	 */
+	public E get(int x, int y, int z) {
+		return get(SectionFlags.getIndex(x, y, z));
+	}
+
+	/**
+	 * Set the value of the block at the given section index.
+	 */
+	public void set(int index, E value) {
+		setId(index, getOrAddId(value));
+	}
+
+	/**
+	 * @see SectionFlags#getIndex(int, int, int)
+	 */
+	public void set(int x, int y, int z, E value) {
+		set(SectionFlags.getIndex(x, y, z), value);
+	}
+
+	/**
+	 * Reset all blocks in this section to the default value and shrink the palette.
+	 */
+	public void clear() {
+
+		paletteSize = 1;
+		if (bits == 1) {
+			Arrays.fill(words, 0L);
+		}
+		else {
+			words = null;
+			resize(1);
+		}
+	}
+
+	/**
+	 * @return {@code true} if all blocks in this section have the default value.
+	 */
+	public boolean isEmpty() {
+
+		for (long word : words)
+		{
+			if (word != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public E getDefaultValue() {
+		return constants[palette[0]];
+	}
+
+	/**
+	 * @return number of bits used to store the value of each block.
+	 */
+	public int getBitsPerEntry() {
+		return bits;
+	}
+}
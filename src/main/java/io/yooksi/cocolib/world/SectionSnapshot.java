@@ -0,0 +1,125 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.world.chunk.ChunkSection;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ *     Immutable copy of block states in a single chunk section.
+ * <p>
+ *     States are stored as indices into a palette of distinct states found in the section,
+ *     which keeps the copy small and makes it safe to read from any thread once published.
+ * </p>
+ */
+public final class SectionSnapshot {
+
+	/** Snapshot of a section that contains only air. */
+	public static final SectionSnapshot EMPTY = new SectionSnapshot(new BlockState[] { Blocks.AIR.getDefaultState() }, null);
+
+	private final BlockState[] palette;
+
+	/** Palette index for each block, {@code null} if the palette contains a single state. */
+	private final @Nullable short[] indices;
+
+	private SectionSnapshot(BlockState[] palette, @Nullable short[] indices) {
+		this.palette = palette;
+		this.indices = indices;
+	}
+
+	/**
+	 * Copy block states of the given section. This has to be done on the thread that owns the world.
+	 *
+	 * @param section chunk section to copy, {@code null} or empty sections produce {@link #EMPTY}.
+	 */
+	public static SectionSnapshot copyOf(@Nullable ChunkSection section) {
+
+		if (ChunkSection.isEmpty(section)) {
+			return EMPTY;
+		}
+		Map<BlockState, Integer> ids = new IdentityHashMap<>();
+		BlockState[] palette = new BlockState[16];
+		short[] indices = new short[SectionFlags.SIZE];
+
+		BlockState last = null;
+		int lastId = 0;
+		for (int i = 0; i < SectionFlags.SIZE; i++)
+		{
+			BlockState state = section.getBlockState(i & 15, i >> 8, (i >> 4) & 15);
+			if (state != last)
+			{
+				Integer id = ids.get(state);
+				if (id == null)
+				{
+					id = ids.size();
+					ids.put(state, id);
+					if (id == palette.length) {
+						palette = Arrays.copyOf(palette, id * 2);
+					}
+					palette[id] = state;
+				}
+				last = state;
+				lastId = id;
+			}
+			indices[i] = (short) lastId;
+		}
+		palette = Arrays.copyOf(palette, ids.size());
+		return new SectionSnapshot(palette, palette.length == 1 ? null : indices);
+	}
+
+	/**
+	 * @param x block coordinate along {@code x} axis, only the lowest 4 bits are used.
+	 * @param y block coordinate along {@code y} axis, only the lowest 4 bits are used.
+	 * @param z block coordinate along {@code z} axis, only the lowest 4 bits are used.
+	 * @return block state at the given coordinates.
+	 */
+	public BlockState getBlockState(int x, int y, int z) {
+		return indices == null ? palette[0] : palette[indices[SectionFlags.getIndex(x, y, z)]];
+	}
+
+	/**
+	 * @return {@code true} if the section contains only a single block state.
+	 */
+	public boolean isUniform() {
+		return indices == null;
+	}
+
+	/**
+	 * @return number of distinct block states in the section.
+	 */
+	public int getPaletteSize() {
+		return palette.length;
+	}
+
+	/**
+	 * @return {@code true} if the section contains at least one block with the given state.
+	 */
+	public boolean contains(BlockState state) {
+
+		for (BlockState entry : palette)
+		{
+			if (entry == state) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.world;
+
+import io.yooksi.cocolib.util.collect.Long2ObjectMap;
+import net.minecraft.util.math.SectionPos;
+
+import javax.annotation.Nullable;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ *     Sparse storage of per-section data objects keyed by packed {@link SectionPos}.
+ *     Sections are only allocated when data is written to them.
+ * <p>
+ *     Instances are not thread-safe and are usually kept per dimension.
+ * </p>
+ * @param <S> type of section data.
+ */
+public class SectionStorage<S> {
+
+	final Long2ObjectMap<S> sections = new Long2ObjectMap<>();
+	private final Supplier<S> factory;
+
+	/**
+	 * @param factory supplier used to create new section data objects.
+	 */
+	public SectionStorage(Supplier<S> factory) {
+		this.factory = factory;
+	}
+
+	/**
+	 * @return packed position of the section that contains the block at the given coordinates.
+	 */
+	public static long getSectionKey(int x, int y, int z) {
+		return SectionPos.asLong(x >> 4, y >> 4, z >> 4);
+	}
+
+	/**
+	 * @param key packed section position.
+	 * @return data of the section or {@code null} if no data is stored for the section.
+	 */
+	public @Nullable S getSection(long key) {
+		return sections.get(key);
+	}
+
+	/**
+	 * @param key packed section position.
+	 * @return data of the section, created if no data was stored for the section.
+	 */
+	public S getOrCreateSection(long key) {
+		return sections.computeIfAbsent(key, k -> factory.get());
+	}
+
+	/**
+	 * @param key packed section position.
+	 * @return removed section data or {@code null} if no data was stored for the section.
+	 */
+	public @Nullable S removeSection(long key) {
+		return sections.remove(key);
+	}
+
+	/**
+	 * Remove data of all sections in the chunk at the given chunk coordinates,
+	 * for example when the chunk is unloaded.
+	 *
+	 * @return number of removed sections.
+	 */
+	public int removeChunk(int chunkX, int chunkZ) {
+		return sections.removeIf(key -> SectionPos.extractX(key) == chunkX && SectionPos.extractZ(key) == chunkZ);
+	}
+
+	/**
+	 * Perform the given action for each section with stored data.
+	 * The storage must not be modified by the action.
+	 */
+	public void forEachSection(Long2ObjectMap.EntryConsumer<? super S> action) {
+		sections.forEach(action);
+	}
+
+	/**
+	 * @return number of sections with stored data.
+	 */
+	public int getSectionCount() {
+		return sections.size();
+	}
+
+	/**
+	 * Remove data of all sections.
+	 */
+	public void clear() {
+		sections.clear();
+	}
+}
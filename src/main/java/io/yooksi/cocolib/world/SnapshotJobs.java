@@ -0,0 +1,188 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.world;
+
+import io.yooksi.cocolib.util.ServerJobQueue;
+import io.yooksi.cocolib.util.collect.Long2ObjectMap;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.server.ServerLifecycleHooks;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * <p>
+ *     Runs heavy computations that read large areas of the world off the server thread.
+ * <p>
+ *     Each job goes through three stages:
+ *     <ol>
+ *         <li>A {@link WorldSnapshot} of the requested region is taken on the server thread
+ *         through a high priority {@link ServerJobQueue#SERVER} job.</li>
+ *         <li>The job computes the result from the snapshot on a worker thread,
+ *         by default in the common {@code ForkJoinPool}.</li>
+ *         <li>The result is applied to the world on the server thread
+ *         through a normal priority {@code ServerJobQueue} job.</li>
+ *     </ol>
+ *     Snapshots of all jobs submitted before the capture job runs are taken together in a single
+ *     queue job, with nothing changing the world in between, so jobs that read the same chunks
+ *     share a single immutable copy of each section. Copies are not kept after the batch.
+ * </p>
+ */
+public final class SnapshotJobs {
+
+	/** Jobs waiting for a snapshot to be taken. */
+	private static final Queue<Request> PENDING = new ConcurrentLinkedQueue<>();
+	/** Set while a capture job is queued but has not started processing pending jobs. */
+	private static final AtomicBoolean SCHEDULED = new AtomicBoolean();
+
+	/**
+	 * Region of a submitted job waiting for a snapshot.
+	 */
+	private static final class Request {
+
+		private final MinecraftServer server;
+		private final World world;
+		private final BlockPos from, to;
+		private final CompletableFuture<WorldSnapshot> snapshot = new CompletableFuture<>();
+
+		private Request(MinecraftServer server, World world, BlockPos from, BlockPos to) {
+
+			this.server = server;
+			this.world = world;
+			this.from = from;
+			this.to = to;
+		}
+	}
+
+	private SnapshotJobs() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Submit a new snapshot job that runs in the common {@code ForkJoinPool}.
+	 * @see #submit(World, BlockPos, BlockPos, Function, BiConsumer, Executor)
+	 */
+	public static <R> CompletableFuture<R> submit(World world, BlockPos from, BlockPos to,
+												  Function<WorldSnapshot, R> job, BiConsumer<World, R> apply) {
+
+		return submit(world, from, to, job, apply, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Submit a new snapshot job. This method can be called from any thread.
+	 *
+	 * @param world server world to read and apply results to.
+	 * @param from corner of the region to take a snapshot of.
+	 * @param to opposite corner of the region to take a snapshot of.
+	 * @param job computation that reads the snapshot, executed on a worker thread.
+	 * @param apply action that applies the computed result, executed on the server thread.
+	 * @param executor executor used to run the computation.
+	 *
+	 * @return future completed with the computed result after it has been applied, or completed
+	 * 		exceptionally if any of the stages failed, the server of the given world is not running
+	 * 		or it stopped before the job completed.
+	 * @throws IllegalArgumentException if the given world is a client world.
+	 */
+	public static <R> CompletableFuture<R> submit(World world, BlockPos from, BlockPos to,
+			Function<WorldSnapshot, R> job, BiConsumer<World, R> apply, Executor executor) {
+
+		if (world.isRemote) {
+			throw new IllegalArgumentException("Snapshot jobs can only run in server worlds");
+		}
+		MinecraftServer server = world.getServer();
+		if (server == null || server != ServerLifecycleHooks.getCurrentServer() || !server.isServerRunning())
+		{
+			CompletableFuture<R> failed = new CompletableFuture<>();
+			failed.completeExceptionally(new IllegalStateException("Server of the given world is not running"));
+			return failed;
+		}
+		Request request = new Request(server, world, from, to);
+		PENDING.add(request);
+		if (SCHEDULED.compareAndSet(false, true))
+		{
+			ServerJobQueue.SERVER.supply(ServerJobQueue.Priority.HIGH, SnapshotJobs::captureBatch)
+					.whenComplete((count, error) -> {
+						// The capture job was discarded because the queue was cleared
+						if (error != null) {
+							failPending(error);
+						}
+					});
+		}
+		return request.snapshot.thenApplyAsync(job, executor).thenCompose(value ->
+				ServerJobQueue.SERVER.supply(ServerJobQueue.Priority.NORMAL, () -> {
+					apply.accept(world, value);
+					return value;
+				}));
+	}
+
+	/**
+	 * Take snapshots for all pending jobs, sharing section copies between them.
+	 * @return number of taken snapshots.
+	 */
+	private static int captureBatch() {
+
+		// Jobs submitted from now on need another capture job
+		SCHEDULED.set(false);
+
+		Map<World, Long2ObjectMap<SectionSnapshot>> cache = new IdentityHashMap<>();
+		MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+		int count = 0;
+		Request request;
+		while ((request = PENDING.poll()) != null)
+		{
+			// Submitted while the previous server was stopping, after its queue was cleared
+			if (request.server != server)
+			{
+				request.snapshot.completeExceptionally(new IllegalStateException("Server stopped before the job started"));
+				continue;
+			}
+			try {
+				Long2ObjectMap<SectionSnapshot> sections = cache.computeIfAbsent(request.world, w -> new Long2ObjectMap<>());
+				request.snapshot.complete(WorldSnapshot.capture(request.world, request.from, request.to, sections));
+			}
+			catch (RuntimeException e) {
+				request.snapshot.completeExceptionally(e);
+			}
+			count++;
+		}
+		return count;
+	}
+
+	private static void failPending(Throwable error) {
+
+		SCHEDULED.set(false);
+		Request request;
+		while ((request = PENDING.poll()) != null) {
+			request.snapshot.completeExceptionally(error);
+		}
+	}
+
+	/**
+	 * Take a snapshot of the region between the given corners.
+	 * This method has to be called on the server thread.
+	 */
+	public static WorldSnapshot capture(World world, BlockPos from, BlockPos to) {
+		return WorldSnapshot.capture(world, from, to, null);
+	}
+}
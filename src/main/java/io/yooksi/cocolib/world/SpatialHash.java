@@ -0,0 +1,516 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.world;
+
+import net.minecraft.util.math.AxisAlignedBB;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     Spatial hash of objects with a position, bucketed into cells by chunk coordinates.
+ *     Queries only visit cells that overlap the queried area instead of every tracked object.
+ * <p>
+ *     The hash supports a single writer thread and any number of concurrent readers.
+ *     Each cell is an immutable array of objects and positions that the writer replaces on
+ *     every change, and the table of cells is published through {@code volatile} writes, so
+ *     readers never lock and always see a consistent cell, although a query running
+ *     at the same time as an update may or may not include that update.
+ * </p>
+ * @param <T> type of tracked objects, compared by identity.
+ */
+public class SpatialHash<T> {
+
+	/** Key of empty table slots, which no valid chunk position maps to. */
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private volatile Table<T> table = new Table<>(16);
+	private volatile int size;
+
+	/** Positions of tracked objects, only accessed by the writer. */
+	private final Map<T, double[]> positions = new IdentityHashMap<>();
+
+	/**
+	 * Immutable content of a single cell with positions stored as {@code x, y, z} triples.
+	 */
+	private static final class Cell<T> {
+
+		private final Object[] objects;
+		private final double[] coords;
+
+		private Cell(Object[] objects, double[] coords) {
+			this.objects = objects;
+			this.coords = coords;
+		}
+	}
+
+	/**
+	 * Open-addressing table of cells. Keys are never removed from a table, empty cells are
+	 * only dropped when the writer publishes a new table, so readers can always probe safely.
+	 */
+	private static final class Table<T> {
+
+		private final AtomicLongArray keys;
+		private final AtomicReferenceArray<Cell<T>> cells;
+		private final int mask;
+		private int used;
+
+		private Table(int capacity) {
+
+			keys = new AtomicLongArray(capacity);
+			cells = new AtomicReferenceArray<>(capacity);
+			mask = capacity - 1;
+			for (int i = 0; i < capacity; i++) {
+				keys.set(i, EMPTY);
+			}
+		}
+
+		private int find(long key) {
+
+			int pos = mix(key) & mask;
+			long current;
+			while ((current = keys.get(pos)) != EMPTY)
+			{
+				if (current == key) {
+					return pos;
+				}
+				pos = (pos + 1) & mask;
+			}
+			return -(pos + 1);
+		}
+
+		private Cell<T> get(long key) {
+
+			int pos = find(key);
+			return pos >= 0 ? cells.get(pos) : null;
+		}
+	}
+
+	private static int mix(long key) {
+
+		long h = key * 0x9E3779B97F4A7C15L;
+		h ^= h >>> 32;
+		return (int) (h ^ (h >>> 16));
+	}
+
+	private static long getCellKey(int chunkX, int chunkZ) {
+		return (long) chunkX & 0xFFFFFFFFL | ((long) chunkZ & 0xFFFFFFFFL) << 32;
+	}
+
+	private static int toChunk(double coord) {
+		return (int) Math.floor(coord) >> 4;
+	}
+
+	/**
+	 * Add the given object at the given position, or move it there if it is already tracked.
+	 * This method must only be called from the writer thread.
+	 */
+	public void put(T object, double x, double y, double z) {
+
+		double[] old = positions.get(object);
+		if (old != null)
+		{
+			if (toChunk(old[0]) == toChunk(x) && toChunk(old[2]) == toChunk(z))
+			{
+				replaceInCell(object, old, x, y, z);
+				old[0] = x;
+				old[1] = y;
+				old[2] = z;
+				return;
+			}
+			removeFromCell(object, old);
+		}
+		else size++;
+		positions.put(object, new double[] { x, y, z });
+		addToCell(object, x, y, z);
+	}
+
+	/**
+	 * Stop tracking the given object. This method must only be called from the writer thread.
+	 *
+	 * @return {@code true} if the object was tracked.
+	 */
+	public boolean remove(T object) {
+
+		double[] old = positions.remove(object);
+		if (old != null)
+		{
+			removeFromCell(object, old);
+			size--;
+		}
+		return old != null;
+	}
+
+	/**
+	 * Stop tracking all objects. This method must only be called from the writer thread.
+	 */
+	public void clear() {
+
+		positions.clear();
+		table = new Table<>(16);
+		size = 0;
+	}
+
+	/**
+	 * @return number of tracked objects.
+	 */
+	public int size() {
+		return size;
+	}
+
+	private void addToCell(T object, double x, double y, double z) {
+
+		long key = getCellKey(toChunk(x), toChunk(z));
+		Table<T> current = table;
+		int pos = current.find(key);
+		Cell<T> cell = pos >= 0 ? current.cells.get(pos) : null;
+
+		int size = cell != null ? cell.objects.length : 0;
+		Object[] objects = new Object[size + 1];
+		double[] coords = new double[(size + 1) * 3];
+		if (cell != null)
+		{
+			System.arraycopy(cell.objects, 0, objects, 0, size);
+			System.arraycopy(cell.coords, 0, coords, 0, size * 3);
+		}
+		objects[size] = object;
+		coords[size * 3] = x;
+		coords[size * 3 + 1] = y;
+		coords[size * 3 + 2] = z;
+		Cell<T> next = new Cell<>(objects, coords);
+
+		if (pos >= 0) {
+			current.cells.set(pos, next);
+		}
+		else if ((current.used + 1) * 2 > current.mask + 1) {
+			rehash(key, next);
+		}
+		else {
+			pos = -pos - 1;
+			current.keys.set(pos, key);
+			current.cells.set(pos, next);
+			current.used++;
+		}
+	}
+
+	private void removeFromCell(T object, double[] position) {
+
+		Table<T> current = table;
+		int pos = current.find(getCellKey(toChunk(position[0]), toChunk(position[2])));
+		Cell<T> cell = pos >= 0 ? current.cells.get(pos) : null;
+		if (cell == null) {
+			return;
+		}
+		int index = indexOf(cell, object);
+		int size = cell.objects.length;
+		if (index < 0) {
+			return;
+		}
+		if (size == 1)
+		{
+			current.cells.set(pos, null);
+			return;
+		}
+		Object[] objects = new Object[size - 1];
+		double[] coords = new double[(size - 1) * 3];
+		System.arraycopy(cell.objects, 0, objects, 0, index);
+		System.arraycopy(cell.objects, index + 1, objects, index, size - index - 1);
+		System.arraycopy(cell.coords, 0, coords, 0, index * 3);
+		System.arraycopy(cell.coords, (index + 1) * 3, coords, index * 3, (size - index - 1) * 3);
+		current.cells.set(pos, new Cell<>(objects, coords));
+	}
+
+	private void replaceInCell(T object, double[] position, double x, double y, double z) {
+
+		Table<T> current = table;
+		int pos = current.find(getCellKey(toChunk(position[0]), toChunk(position[2])));
+		Cell<T> cell = current.cells.get(pos);
+		int index = indexOf(cell, object);
+
+		double[] coords = cell.coords.clone();
+		coords[index * 3] = x;
+		coords[index * 3 + 1] = y;
+		coords[index * 3 + 2] = z;
+		current.cells.set(pos, new Cell<>(cell.objects, coords));
+	}
+
+	private static int indexOf(Cell<?> cell, Object object) {
+
+		for (int i = 0; i < cell.objects.length; i++)
+		{
+			if (cell.objects[i] == object) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Publish a new table without empty cells that also contains the given new cell.
+	 */
+	private void rehash(long key, Cell<T> cell) {
+
+		Table<T> current = table;
+		int live = 1;
+		for (int i = 0; i <= current.mask; i++)
+		{
+			if (current.cells.get(i) != null) {
+				live++;
+			}
+		}
+		int capacity = Math.max(16, Integer.highestOneBit(live * 4 - 1) << 1);
+		Table<T> next = new Table<>(capacity);
+		for (int i = 0; i <= current.mask; i++)
+		{
+			Cell<T> existing = current.cells.get(i);
+			if (existing != null) {
+				insert(next, current.keys.get(i), existing);
+			}
+		}
+		insert(next, key, cell);
+		table = next;
+	}
+
+	private static <T> void insert(Table<T> table, long key, Cell<T> cell) {
+
+		int pos = -table.find(key) - 1;
+		table.keys.set(pos, key);
+		table.cells.set(pos, cell);
+		table.used++;
+	}
+
+	/**
+	 * Perform the given action for each object within the given distance from the given
+	 * position. Only cells that overlap the sphere are visited. This method can be called from any thread.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEachInRadius(double x, double y, double z, double radius, Consumer<? super T> action) {
+
+		Table<T> current = table;
+		double radiusSq = radius * radius;
+		int minX = toChunk(x - radius), maxX = toChunk(x + radius);
+		int minZ = toChunk(z - radius), maxZ = toChunk(z + radius);
+
+		for (int cx = minX; cx <= maxX; cx++)
+		{
+			double dx = distanceToRange(x, cx << 4, (cx << 4) + 16);
+			for (int cz = minZ; cz <= maxZ; cz++)
+			{
+				double dz = distanceToRange(z, cz << 4, (cz << 4) + 16);
+				if (dx * dx + dz * dz > radiusSq) {
+					continue;
+				}
+				Cell<T> cell = current.get(getCellKey(cx, cz));
+				if (cell == null) {
+					continue;
+				}
+				double[] coords = cell.coords;
+				for (int i = 0; i < cell.objects.length; i++)
+				{
+					double ox = coords[i * 3] - x, oy = coords[i * 3 + 1] - y, oz = coords[i * 3 + 2] - z;
+					if (ox * ox + oy * oy + oz * oz <= radiusSq) {
+						action.accept((T) cell.objects[i]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return new list of objects within the given distance from the given position.
+	 * @see #forEachInRadius(double, double, double, double, Consumer)
+	 */
+	public List<T> getInRadius(double x, double y, double z, double radius) {
+
+		List<T> result = new ArrayList<>();
+		forEachInRadius(x, y, z, radius, result::add);
+		return result;
+	}
+
+	/**
+	 * Perform the given action for each object inside the given box, including its edges.
+	 * Only cells that overlap the box are visited. This method can be called from any thread.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEachInBox(AxisAlignedBB box, Consumer<? super T> action) {
+
+		Table<T> current = table;
+		for (int cx = toChunk(box.minX); cx <= toChunk(box.maxX); cx++)
+		{
+			for (int cz = toChunk(box.minZ); cz <= toChunk(box.maxZ); cz++)
+			{
+				Cell<T> cell = current.get(getCellKey(cx, cz));
+				if (cell == null) {
+					continue;
+				}
+				double[] coords = cell.coords;
+				for (int i = 0; i < cell.objects.length; i++)
+				{
+					double ox = coords[i * 3], oy = coords[i * 3 + 1], oz = coords[i * 3 + 2];
+					if (ox >= box.minX && ox <= box.maxX && oy >= box.minY &&
+							oy <= box.maxY && oz >= box.minZ && oz <= box.maxZ) {
+						action.accept((T) cell.objects[i]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return new list of objects inside the given box.
+	 * @see #forEachInBox(AxisAlignedBB, Consumer)
+	 */
+	public List<T> getInBox(AxisAlignedBB box) {
+
+		List<T> result = new ArrayList<>();
+		forEachInBox(box, result::add);
+		return result;
+	}
+
+	/**
+	 * Find up to {@code k} objects nearest to the given position. Cells are visited in
+	 * square rings of growing size around the position, and the search stops as soon
+	 * as no unvisited cell can contain an object closer then the ones already found.
+	 * Once the rings cover more cells then the table has slots, the remaining cells are
+	 * found by scanning the table instead, so the cost of a search is bounded by the
+	 * size of the table no matter how far away the nearest objects are.
+	 * This method can be called from any thread.
+	 *
+	 * @param k maximum number of objects to find.
+	 * @param maxRadius maximum distance of found objects from the position.
+	 * @return new list of found objects sorted by distance, nearest first.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> getNearest(double x, double y, double z, int k, double maxRadius) {
+
+		if (k <= 0) {
+			return new ArrayList<>();
+		}
+		Table<T> current = table;
+		Nearest nearest = new Nearest(x, y, z, k, maxRadius);
+		int visited = 0, total = size;
+
+		int centerX = toChunk(x), centerZ = toChunk(z);
+		int maxRing = (int) Math.min(Math.ceil(maxRadius / 16) + 1, 1 << 21);
+		int slots = current.mask + 1;
+
+		// Stop early when all tracked objects have been visited
+		for (int ring = 0; ring <= maxRing && visited < total; ring++)
+		{
+			// Closest possible distance of any object in this ring
+			if (ring > 0)
+			{
+				double edge = Math.min(Math.min(x - (centerX - ring + 1 << 4), (centerX + ring << 4) - x),
+						Math.min(z - (centerZ - ring + 1 << 4), (centerZ + ring << 4) - z));
+				double edgeSq = Math.max(edge, 0) * Math.max(edge, 0);
+				if (edgeSq > nearest.maxRadiusSq || (nearest.count == k && edgeSq > nearest.distances[k - 1])) {
+					break;
+				}
+				// Scanning the table is cheaper then visiting this and the following rings
+				if ((2L * ring + 1) * (2L * ring + 1) > slots)
+				{
+					for (int i = 0; i < slots; i++)
+					{
+						Cell<T> cell = current.cells.get(i);
+						if (cell == null) {
+							continue;
+						}
+						long key = current.keys.get(i);
+						int cx = (int) key, cz = (int) (key >>> 32);
+						if (Math.max(Math.abs(cx - centerX), Math.abs(cz - centerZ)) >= ring) {
+							nearest.visit(cell);
+						}
+					}
+					break;
+				}
+			}
+			for (int cx = centerX - ring; cx <= centerX + ring; cx++)
+			{
+				boolean edgeColumn = cx == centerX - ring || cx == centerX + ring;
+				for (int cz = centerZ - ring; cz <= centerZ + ring; cz += edgeColumn ? 1 : ring * 2)
+				{
+					Cell<T> cell = current.get(getCellKey(cx, cz));
+					if (cell != null)
+					{
+						visited += cell.objects.length;
+						nearest.visit(cell);
+					}
+					if (ring == 0) {
+						break;
+					}
+				}
+			}
+		}
+		List<T> result = new ArrayList<>(nearest.count);
+		for (int i = 0; i < nearest.count; i++) {
+			result.add((T) nearest.found[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Sorted array of nearest objects found so far by {@link #getNearest}.
+	 */
+	private static final class Nearest {
+
+		private final double x, y, z, maxRadiusSq;
+		private final Object[] found;
+		private final double[] distances;
+		private int count;
+
+		private Nearest(double x, double y, double z, int k, double maxRadius) {
+
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.maxRadiusSq = maxRadius * maxRadius;
+			found = new Object[k];
+			distances = new double[k];
+		}
+
+		private void visit(Cell<?> cell) {
+
+			int k = found.length;
+			double[] coords = cell.coords;
+			for (int i = 0; i < cell.objects.length; i++)
+			{
+				double ox = coords[i * 3] - x, oy = coords[i * 3 + 1] - y, oz = coords[i * 3 + 2] - z;
+				double distance = ox * ox + oy * oy + oz * oz;
+				if (distance > maxRadiusSq || (count == k && distance >= distances[k - 1])) {
+					continue;
+				}
+				// Insertion into the sorted array of nearest objects
+				int index = count < k ? count++ : k - 1;
+				while (index > 0 && distances[index - 1] > distance)
+				{
+					found[index] = found[index - 1];
+					distances[index] = distances[index - 1];
+					index--;
+				}
+				found[index] = cell.objects[i];
+				distances[index] = distance;
+			}
+		}
+	}
+
+	/**
+	 * @return distance from the given value to the closest point in range {@code [min, max]}.
+	 */
+	private static double distanceToRange(double value, double min, double max) {
+		return value < min ? min - value : value > max ? value - max : 0;
+	}
+}
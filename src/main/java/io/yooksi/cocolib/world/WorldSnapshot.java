@@ -0,0 +1,150 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.world;
+
+import io.yooksi.cocolib.util.collect.Long2ObjectMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+
+import javax.annotation.Nullable;
+
+/**
+ * <p>
+ *     Immutable copy of block states in a box-shaped region of the world.
+ * <p>
+ *     Snapshots are made of {@link SectionSnapshot} copies of every chunk section that
+ *     intersects the region. Blocks in chunks that were not loaded when the snapshot
+ *     was taken, or outside the region or world height, are reported as void air.
+ *     Snapshots can be safely read from any thread.
+ * </p>
+ * @see SnapshotJobs
+ */
+public final class WorldSnapshot {
+
+	private static final BlockState VOID = Blocks.VOID_AIR.getDefaultState();
+
+	private final Long2ObjectMap<SectionSnapshot> sections;
+	private final BlockPos min, max;
+
+	private WorldSnapshot(Long2ObjectMap<SectionSnapshot> sections, BlockPos min, BlockPos max) {
+
+		this.sections = sections;
+		this.min = min;
+		this.max = max;
+	}
+
+	/**
+	 * Copy all chunk sections that intersect the region between the given corners.
+	 * This method has to be called on the thread that owns the world.
+	 *
+	 * @param cache map of already copied sections shared with other snapshots of the same
+	 * 		world taken while the world was not modified, or {@code null} to copy all sections.
+	 */
+	static WorldSnapshot capture(World world, BlockPos from, BlockPos to,
+								 @Nullable Long2ObjectMap<SectionSnapshot> cache) {
+
+		BlockPos min = new BlockPos(Math.min(from.getX(), to.getX()),
+				Math.max(Math.min(from.getY(), to.getY()), 0), Math.min(from.getZ(), to.getZ()));
+		BlockPos max = new BlockPos(Math.max(from.getX(), to.getX()),
+				Math.min(Math.max(from.getY(), to.getY()), 255), Math.max(from.getZ(), to.getZ()));
+
+		Long2ObjectMap<SectionSnapshot> sections = new Long2ObjectMap<>();
+		for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++)
+		{
+			for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++)
+			{
+				Chunk chunk = world.getChunkProvider().getChunk(cx, cz, false);
+				if (chunk == null) {
+					continue;
+				}
+				ChunkSection[] chunkSections = chunk.getSections();
+				for (int cy = min.getY() >> 4; cy <= max.getY() >> 4; cy++)
+				{
+					long key = SectionStorage.getSectionKey(cx << 4, cy << 4, cz << 4);
+					SectionSnapshot section = cache != null ? cache.get(key) : null;
+					if (section == null)
+					{
+						section = SectionSnapshot.copyOf(chunkSections[cy]);
+						if (cache != null) {
+							cache.put(key, section);
+						}
+					}
+					sections.put(key, section);
+				}
+			}
+		}
+		return new WorldSnapshot(sections, min, max);
+	}
+
+	/**
+	 * @return {@code true} if the block at the given coordinates is inside
+	 * 		the region and was loaded when the snapshot was taken.
+	 */
+	public boolean contains(int x, int y, int z) {
+
+		return x >= min.getX() && y >= min.getY() && z >= min.getZ() && x <= max.getX() && y <= max.getY()
+				&& z <= max.getZ() && sections.get(SectionStorage.getSectionKey(x, y, z)) != null;
+	}
+
+	/**
+	 * @return block state at the given coordinates, or void air if the block is not
+	 * 		inside the region or was not loaded when the snapshot was taken.
+	 */
+	public BlockState getBlockState(int x, int y, int z) {
+
+		if (x < min.getX() || y < min.getY() || z < min.getZ() ||
+				x > max.getX() || y > max.getY() || z > max.getZ()) {
+			return VOID;
+		}
+		SectionSnapshot section = sections.get(SectionStorage.getSectionKey(x, y, z));
+		return section != null ? section.getBlockState(x, y, z) : VOID;
+	}
+
+	public BlockState getBlockState(BlockPos pos) {
+		return getBlockState(pos.getX(), pos.getY(), pos.getZ());
+	}
+
+	/**
+	 * @param key packed section position.
+	 * @return snapshot of the section, or {@code null} if the section is not part of this snapshot.
+	 */
+	public @Nullable SectionSnapshot getSection(long key) {
+		return sections.get(key);
+	}
+
+	/**
+	 * @return number of section snapshots in this snapshot.
+	 */
+	public int getSectionCount() {
+		return sections.size();
+	}
+
+	/**
+	 * @return corner of the region with the lowest coordinates.
+	 */
+	public BlockPos getMin() {
+		return min;
+	}
+
+	/**
+	 * @return corner of the region with the highest coordinates.
+	 */
+	public BlockPos getMax() {
+		return max;
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.gui;
+
+import net.minecraft.client.gui.AbstractGui;
+import net.minecraft.util.ResourceLocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.yooksi.cocolib.gui.RecordingRenderBackend.Command;
+import static io.yooksi.cocolib.gui.RecordingRenderBackend.Type;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GuiElementTest {
+
+	private static final ResourceLocation FIRST = new ResourceLocation("cocolib", "textures/gui/first.png");
+	private static final ResourceLocation SECOND = new ResourceLocation("cocolib", "textures/gui/second.png");
+
+	private RecordingRenderBackend backend;
+
+	@BeforeEach
+	public void setUp() {
+
+		backend = new RecordingRenderBackend(427, 240);
+		GuiElement.setRenderBackend(backend);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		GuiElement.setRenderBackend(new MinecraftRenderBackend());
+	}
+
+	@Test
+	public void drawSpritesBindsEachTextureOnce() {
+
+		SpriteObject topLeft = SpriteObject.Builder.create(FIRST)
+				.withPos(Alignment.TOP_LEFT, 15, 15).withSize(123, 48).build();
+		SpriteObject bottomRight = SpriteObject.Builder.create(FIRST)
+				.withPos(Alignment.BOTTOM_RIGHT, 5, 5).withUV(0, 96).withSize(37, 46).build();
+		SpriteObject center = SpriteObject.Builder.create(SECOND)
+				.withPos(Alignment.CENTER).withUV(181, 37).withSize(19, 20).build();
+
+		GuiElement.drawSprites(topLeft, bottomRight, center);
+
+		// Each texture is bound once and the HUD sprite map is restored at the end
+		assertEquals(3, backend.getBindCount());
+		assertEquals(3, backend.getDrawCount());
+
+		List<Command> commands = backend.getCommands();
+		assertEquals(6, commands.size());
+		assertBind(commands.get(0), FIRST);
+		assertBlit(commands.get(1), 15, 15, 123, 48);
+		assertBlit(commands.get(2), 385, 189, 37, 46);
+		assertBind(commands.get(3), SECOND);
+		assertBlit(commands.get(4), 204, 110, 19, 20);
+		assertBind(commands.get(5), AbstractGui.GUI_ICONS_LOCATION);
+	}
+
+	@Test
+	public void eachBatchBindsTextureAgain() {
+
+		SpriteObject sprite = SpriteObject.Builder.create(FIRST).withSize(16, 16).build();
+
+		GuiElement.drawSprites(sprite);
+		GuiElement.drawSprites(sprite);
+
+		// Each batch ends by restoring the HUD sprite map, so the sprite texture is bound again
+		assertEquals(4, backend.getBindCount());
+		assertEquals(2, backend.getDrawCount());
+		assertBind(backend.getCommands().get(3), FIRST);
+	}
+
+	@Test
+	public void singleBatchBindsTextureOnce() {
+
+		SpriteObject sprite = SpriteObject.Builder.create(FIRST).withSize(16, 16).build();
+
+		GuiElement.beginBatch();
+		GuiElement.drawSprite(sprite);
+		GuiElement.drawSprite(sprite);
+		GuiElement.endBatch();
+
+		assertEquals(2, backend.getBindCount());
+		assertEquals(2, backend.getDrawCount());
+	}
+
+	@Test
+	public void singleSpriteRebindsAfterExternalBind() {
+
+		SpriteObject sprite = SpriteObject.Builder.create(AbstractGui.GUI_ICONS_LOCATION).withSize(16, 16).build();
+
+		GuiElement.bindAndDrawTexture(sprite);
+		// Vanilla overlays bind textures without going through the state cache
+		backend.bindTexture(SECOND);
+		GuiElement.bindAndDrawTexture(sprite);
+
+		List<Command> commands = backend.getCommands();
+		assertEquals(5, commands.size());
+		assertBind(commands.get(3), AbstractGui.GUI_ICONS_LOCATION);
+		assertEquals(Type.BLIT_UV, commands.get(4).type);
+	}
+
+	@Test
+	public void spriteLayoutFollowsWindowSize() {
+
+		SpriteObject sprite = SpriteObject.Builder.create(FIRST)
+				.withPos(Alignment.BOTTOM_RIGHT, 5, 5).withUV(0, 96).withSize(37, 46).build();
+
+		GuiElement.drawSprites(sprite);
+		backend.setScaledSize(320, 180);
+		GuiElement.drawSprites(sprite);
+
+		List<Command> commands = backend.getCommands();
+		assertBlit(commands.get(1), 385, 189, 37, 46);
+		assertBlit(commands.get(4), 278, 129, 37, 46);
+	}
+
+	@Test
+	public void spriteUsesSheetCoordinates() {
+
+		SpriteObject sprite = SpriteObject.Builder.create(FIRST)
+				.withUV(32, 64).withSize(32, 16).withSheetSize(128, 128).build();
+
+		GuiElement.drawSprites(sprite);
+
+		Command blit = backend.getCommands().get(1);
+		assertEquals(0.25f, blit.u);
+		assertEquals(0.5f, blit.v);
+		assertEquals(0.5f, blit.u1);
+		assertEquals(0.625f, blit.v1);
+	}
+
+	private static void assertBind(Command command, ResourceLocation texture) {
+
+		assertEquals(Type.BIND_TEXTURE, command.type);
+		assertEquals(texture, command.texture);
+	}
+
+	private static void assertBlit(Command command, int x, int y, int width, int height) {
+
+		assertEquals(Type.BLIT_UV, command.type);
+		assertEquals(x, command.x);
+		assertEquals(y, command.y);
+		assertEquals(width, command.width);
+		assertEquals(height, command.height);
+	}
+}
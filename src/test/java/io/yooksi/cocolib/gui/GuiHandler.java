@@ -60,28 +60,25 @@ public class GuiHandler {
 	@SubscribeEvent
 	public void onPreRenderOverlay(RenderGameOverlayEvent.Pre event) {
 
-		// This element should perfectly draw over vanilla xp bar
-		GuiElement.bindAndDrawTexture(XP_BAR_ELEMENT);
-
-		// This element should draw in top left corner of the screen
-		GuiElement.bindAndDrawTexture(TOP_LEFT_ELEMENT);
-
-		// This element should draw in top right corner of the screen
-		GuiElement.bindAndDrawTexture(TOP_RIGHT_ELEMENT);
-
-		// This element should draw in the bottom left corner of the screen
-		GuiElement.bindAndDrawTexture(BOTTOM_LEFT_ELEMENT);
-
-		// This element should draw in the bottom right corner of the screen
-		GuiElement.bindAndDrawTexture(BOTTOM_RIGHT_ELEMENT);
-
-		// This element should draw in the middle of the screen
-		GuiElement.bindAndDrawTexture(CROSSHAIRS);
-
-		// This element should draw in the top center of the screen
-		GuiElement.bindAndDrawTexture(TOP_CENTER_ELEMENT);
-
-		// This element should draw in the bottom center of the screen
-		GuiElement.bindAndDrawTexture(BOTTOM_CENTER_ELEMENT);
+		// Sprites that share a texture are drawn next to each other, so the
+		// mapped test texture and the HUD sprite map are each bound only once
+		GuiElement.drawSprites(
+				// This element should draw in top left corner of the screen
+				TOP_LEFT_ELEMENT,
+				// This element should draw in top right corner of the screen
+				TOP_RIGHT_ELEMENT,
+				// This element should draw in the bottom left corner of the screen
+				BOTTOM_LEFT_ELEMENT,
+				// This element should draw in the bottom right corner of the screen
+				BOTTOM_RIGHT_ELEMENT,
+				// This element should draw in the middle of the screen
+				CROSSHAIRS,
+				// This element should draw in the top center of the screen
+				TOP_CENTER_ELEMENT,
+				// This element should draw in the bottom center of the screen
+				BOTTOM_CENTER_ELEMENT,
+				// This element should perfectly draw over vanilla xp bar
+				XP_BAR_ELEMENT
+		);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.gui;
+
+import net.minecraft.client.gui.AbstractGui;
+import net.minecraft.util.ResourceLocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.yooksi.cocolib.gui.RecordingRenderBackend.Command;
+import static io.yooksi.cocolib.gui.RecordingRenderBackend.Type;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpriteStoreTest {
+
+	private static final ResourceLocation FIRST = new ResourceLocation("cocolib", "textures/gui/first.png");
+	private static final ResourceLocation SECOND = new ResourceLocation("cocolib", "textures/gui/second.png");
+
+	private RecordingRenderBackend backend;
+
+	@BeforeEach
+	public void setUp() {
+
+		backend = new RecordingRenderBackend(427, 240);
+		GuiElement.setRenderBackend(backend);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		GuiElement.setRenderBackend(new MinecraftRenderBackend());
+	}
+
+	@Test
+	public void layoutFollowsAlignment() {
+
+		SpriteStore store = new SpriteStore();
+		int topLeft = store.add(FIRST, Alignment.TOP_LEFT, 15, 15, 0, 0, 123, 48, 256, 256);
+		int bottomRight = store.add(FIRST, Alignment.BOTTOM_RIGHT, 5, 5, 0, 96, 37, 46, 256, 256);
+		int center = store.add(SECOND, Alignment.CENTER, 0, 0, 181, 37, 19, 20, 256, 256);
+
+		store.layout(427, 240);
+		assertPosition(store, topLeft, 15, 15);
+		assertPosition(store, bottomRight, 385, 189);
+		assertPosition(store, center, 204, 110);
+
+		store.setAlignment(center, Alignment.TOP_LEFT);
+		store.setOffset(center, 3, 4);
+		store.layout(320, 180);
+		assertPosition(store, bottomRight, 278, 129);
+		assertPosition(store, center, 3, 4);
+	}
+
+	@Test
+	public void removeMovesLastSprite() {
+
+		SpriteStore store = new SpriteStore(2);
+		store.add(FIRST, Alignment.TOP_LEFT, 1, 1, 0, 0, 16, 16, 256, 256);
+		store.add(FIRST, Alignment.TOP_LEFT, 2, 2, 0, 0, 16, 16, 256, 256);
+		store.add(SECOND, Alignment.BOTTOM_RIGHT, 3, 3, 0, 0, 8, 8, 256, 256);
+
+		// The last sprite takes the index of the removed sprite
+		assertEquals(2, store.remove(0));
+		assertEquals(2, store.size());
+		assertEquals(SECOND, store.getTexture(0));
+		assertEquals(Alignment.BOTTOM_RIGHT, store.getAlignment(0));
+		assertEquals(8, store.getWidth(0));
+
+		assertEquals(-1, store.remove(1));
+		assertEquals(1, store.size());
+		assertThrows(IndexOutOfBoundsException.class, () -> store.remove(1));
+		assertThrows(IndexOutOfBoundsException.class, () -> store.getX(-1));
+	}
+
+	@Test
+	public void drawBindsEachTextureOnce() {
+
+		SpriteStore store = new SpriteStore();
+		store.add(FIRST, Alignment.TOP_LEFT, 0, 0, 0, 0, 16, 16, 256, 256);
+		store.add(SECOND, Alignment.TOP_LEFT, 20, 0, 0, 0, 16, 16, 256, 256);
+		store.add(FIRST, Alignment.TOP_LEFT, 40, 0, 16, 0, 16, 16, 256, 256);
+		store.add(SECOND, Alignment.TOP_LEFT, 60, 0, 16, 0, 16, 16, 256, 256);
+
+		store.draw();
+
+		List<Command> commands = backend.getCommands();
+		assertEquals(5, commands.size());
+		assertBind(commands.get(0), FIRST);
+		assertEquals(Type.BLIT_QUADS, commands.get(1).type);
+		assertEquals(2, commands.get(1).width);
+		assertBind(commands.get(2), SECOND);
+		assertEquals(Type.BLIT_QUADS, commands.get(3).type);
+		assertBind(commands.get(4), AbstractGui.GUI_ICONS_LOCATION);
+		assertEquals(4, backend.getQuadCount());
+
+		// Sprites with the same texture keep their order in the quad buffer
+		float[] quads = commands.get(1).quads;
+		assertEquals(0f, quads[0]);
+		assertEquals(40f, quads[RenderBackend.QUAD_STRIDE]);
+	}
+
+	@Test
+	public void layoutPrunesUnusedTextures() {
+
+		SpriteStore store = new SpriteStore();
+		store.add(FIRST, Alignment.TOP_LEFT, 0, 0, 0, 0, 16, 16, 256, 256);
+		store.add(SECOND, Alignment.TOP_LEFT, 20, 0, 0, 0, 16, 16, 256, 256);
+		store.remove(0);
+		assertEquals(2, store.getTextureCount());
+
+		store.draw();
+		assertEquals(1, store.getTextureCount());
+		assertEquals(SECOND, store.getTexture(0));
+		assertEquals(2, backend.getBindCount());
+
+		// A texture that was pruned can be added again
+		int index = store.add(FIRST, Alignment.TOP_LEFT, 40, 0, 0, 0, 16, 16, 256, 256);
+		assertEquals(FIRST, store.getTexture(index));
+		assertEquals(2, store.getTextureCount());
+
+		store.clear();
+		assertEquals(0, store.getTextureCount());
+	}
+
+	private static void assertPosition(SpriteStore store, int index, int x, int y) {
+
+		assertEquals(x, store.getX(index));
+		assertEquals(y, store.getY(index));
+	}
+
+	private static void assertBind(Command command, ResourceLocation texture) {
+
+		assertEquals(Type.BIND_TEXTURE, command.type);
+		assertEquals(texture, command.texture);
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeltaEncoderTest {
+
+	private static final int KEYS = 130;
+
+	@Test
+	public void fullBatch() {
+
+		DeltaEncoder encoder = new DeltaEncoder(KEYS);
+		encoder.put(0, 1);
+		encoder.put(64, -5);
+		encoder.put(KEYS - 1, Long.MAX_VALUE);
+		encoder.put(7, 3);
+		encoder.put(7, 0);
+
+		ByteBuf buf = Unpooled.buffer();
+		assertTrue(encoder.encode(buf));
+		assertTrue(buf.getBoolean(0));
+
+		DeltaDecoder decoder = new DeltaDecoder(KEYS);
+		long[] received = new long[KEYS];
+		assertEquals(3, decoder.decode(buf, (key, value) -> received[key] = value));
+		assertEquals(0, buf.readableBytes());
+
+		long[] expected = new long[KEYS];
+		expected[0] = 1;
+		expected[64] = -5;
+		expected[KEYS - 1] = Long.MAX_VALUE;
+		assertArrayEquals(expected, received);
+		assertArrayEquals(expected, values(decoder));
+	}
+
+	@Test
+	public void deltaBatch() {
+
+		DeltaEncoder encoder = new DeltaEncoder(KEYS);
+		DeltaDecoder decoder = new DeltaDecoder(KEYS);
+		encoder.put(1, 100);
+		encoder.put(2, 200);
+		encoder.put(100, Long.MIN_VALUE);
+		decoder.decode(encode(encoder), (key, value) -> {});
+
+		encoder.put(1, 100);
+		encoder.put(2, 199);
+		encoder.put(100, Long.MAX_VALUE);
+		encoder.put(129, 1);
+		assertEquals(3, encoder.getChangeCount());
+
+		ByteBuf buf = encode(encoder);
+		assertFalse(buf.getBoolean(0));
+
+		int[] changed = new int[KEYS];
+		assertEquals(3, decoder.decode(buf, (key, value) -> changed[key]++));
+		assertEquals(0, changed[1]);
+		assertEquals(1, changed[2]);
+		assertEquals(1, changed[100]);
+		assertEquals(1, changed[129]);
+		assertArrayEquals(values(encoder), values(decoder));
+
+		assertFalse(encoder.hasChanges());
+		assertFalse(encoder.encode(Unpooled.buffer()));
+	}
+
+	@Test
+	public void resetBatch() {
+
+		DeltaEncoder encoder = new DeltaEncoder(KEYS);
+		DeltaDecoder decoder = new DeltaDecoder(KEYS);
+		assertTrue(encoder.hasChanges());
+		encoder.put(3, 30);
+		encoder.put(4, 40);
+		decoder.decode(encode(encoder), (key, value) -> {});
+		encoder.put(4, 0);
+
+		// A new decoder with stale values, as after the client reconnects
+		DeltaDecoder stale = new DeltaDecoder(KEYS);
+		stale.decode(encode(new DeltaEncoder(KEYS), 5, 50L), (key, value) -> {});
+
+		encoder.reset();
+		assertTrue(encoder.hasChanges());
+		ByteBuf buf = encode(encoder);
+		assertTrue(buf.getBoolean(0));
+
+		ByteBuf copy = Unpooled.copiedBuffer(buf);
+		assertEquals(1, decoder.decode(buf, (key, value) -> {}));
+		assertEquals(1, stale.decode(copy, (key, value) -> {}));
+		assertArrayEquals(values(encoder), values(decoder));
+		assertArrayEquals(values(encoder), values(stale));
+	}
+
+	@Test
+	public void rejectUnknownKey() {
+
+		ByteBuf buf = encode(new DeltaEncoder(KEYS), KEYS - 1, 1L);
+		assertThrows(DecoderException.class, () -> new DeltaDecoder(KEYS - 1).decode(buf, (key, value) -> {}));
+	}
+
+	@Test
+	public void varIntBoundaries() {
+
+		int[] values = { 0, 1, 127, 128, 16383, 16384, -1, -128, Integer.MIN_VALUE, Integer.MAX_VALUE };
+		int[] sizes = { 1, 1, 1, 2, 2, 3, 5, 5, 5, 5 };
+		for (int i = 0; i < values.length; i++)
+		{
+			ByteBuf buf = Unpooled.buffer();
+			VarInts.writeVarInt(buf, values[i]);
+			assertEquals(sizes[i], buf.readableBytes());
+			assertEquals(sizes[i], VarInts.getVarIntSize(values[i]));
+			assertEquals(values[i], VarInts.readVarInt(buf));
+			assertEquals(values[i], VarInts.unZigZag(VarInts.zigZag(values[i])));
+		}
+		assertEquals(1, VarInts.getVarIntSize(VarInts.zigZag(-1)));
+		assertEquals(-1, VarInts.unZigZag(1));
+	}
+
+	@Test
+	public void varLongBoundaries() {
+
+		long[] values = { 0, 127, 128, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE };
+		int[] sizes = { 1, 1, 2, 10, 10, 5, 10, 9 };
+		for (int i = 0; i < values.length; i++)
+		{
+			ByteBuf buf = Unpooled.buffer();
+			VarInts.writeVarLong(buf, values[i]);
+			assertEquals(sizes[i], buf.readableBytes());
+			assertEquals(sizes[i], VarInts.getVarLongSize(values[i]));
+			assertEquals(values[i], VarInts.readVarLong(buf));
+			assertEquals(values[i], VarInts.unZigZag(VarInts.zigZag(values[i])));
+		}
+	}
+
+	@Test
+	public void rejectLongVarInt() {
+
+		ByteBuf buf = Unpooled.buffer();
+		for (int i = 0; i < 6; i++) {
+			buf.writeByte(0x80);
+		}
+		assertThrows(DecoderException.class, () -> VarInts.readVarInt(buf));
+	}
+
+	private static ByteBuf encode(DeltaEncoder encoder) {
+
+		ByteBuf buf = Unpooled.buffer();
+		assertTrue(encoder.encode(buf));
+		return buf;
+	}
+
+	private static ByteBuf encode(DeltaEncoder encoder, int key, long value) {
+
+		encoder.put(key, value);
+		return encode(encoder);
+	}
+
+	private static long[] values(DeltaEncoder encoder) {
+
+		long[] values = new long[encoder.getKeyCount()];
+		Arrays.setAll(values, encoder::get);
+		return values;
+	}
+
+	private static long[] values(DeltaDecoder decoder) {
+
+		long[] values = new long[decoder.getKeyCount()];
+		Arrays.setAll(values, decoder::get);
+		return values;
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ *  Copyright (C) 2020 Matthew Cain
+ *
+ *  This file is part of CocoLib.
+ *
+ *  CocoLib is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with CocoLib. If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.yooksi.cocolib.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegionDataStoreTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void readMissingChunk() throws IOException {
+
+		try (RegionDataStore store = new RegionDataStore(directory)) {
+			assertNull(store.read(0, 0));
+		}
+	}
+
+	@Test
+	public void reopenAfterCommit() throws IOException {
+
+		byte[] large = new byte[10_000];
+		for (int i = 0; i < large.length; i++) {
+			large[i] = (byte) i;
+		}
+		try (RegionDataStore store = new RegionDataStore(directory))
+		{
+			store.write(0, 0, bytes("first"));
+			store.write(31, 31, large);
+			store.write(-1, -33, bytes("other region"));
+			store.flush();
+		}
+		assertTrue(Files.exists(directory.resolve("r.0.0.ccr")));
+		assertTrue(Files.exists(directory.resolve("r.-1.-2.ccr")));
+
+		try (RegionDataStore store = new RegionDataStore(directory))
+		{
+			assertArrayEquals(bytes("first"), toArray(store.read(0, 0)));
+			assertArrayEquals(large, toArray(store.read(31, 31)));
+			assertArrayEquals(bytes("other region"), toArray(store.read(-1, -33)));
+			assertNull(store.read(1, 0));
+		}
+	}
+
+	@Test
+	public void rollbackUncommittedWrite() throws IOException {
+
+		RegionDataStore store = new RegionDataStore(directory);
+		store.write(3, 4, bytes("committed"));
+		store.flush();
+
+		store.write(3, 4, bytes("replaced before crash"));
+		store.write(5, 6, bytes("added before crash"));
+		store.delete(3, 4);
+		store.write(3, 4, bytes("written again"));
+
+		// Open the files again without committing, as if the game crashed
+		try (RegionDataStore recovered = new RegionDataStore(directory))
+		{
+			assertArrayEquals(bytes("committed"), toArray(recovered.read(3, 4)));
+			assertNull(recovered.read(5, 6));
+		}
+		store.close();
+
+		try (RegionDataStore reopened = new RegionDataStore(directory))
+		{
+			assertArrayEquals(bytes("written again"), toArray(reopened.read(3, 4)));
+			assertArrayEquals(bytes("added before crash"), toArray(reopened.read(5, 6)));
+		}
+	}
+
+	@Test
+	public void deleteAfterCommit() throws IOException {
+
+		try (RegionDataStore store = new RegionDataStore(directory))
+		{
+			store.write(7, 7, bytes("deleted"));
+			store.flush();
+			store.delete(7, 7);
+			assertNull(store.read(7, 7));
+		}
+		try (RegionDataStore store = new RegionDataStore(directory)) {
+			assertNull(store.read(7, 7));
+		}
+	}
+
+	@Test
+	public void evictLeastRecentlyUsedFile() throws IOException {
+
+		try (RegionDataStore store = new RegionDataStore(directory, 0, TimeUnit.SECONDS, 2))
+		{
+			store.write(0, 0, bytes("first region"));
+			store.write(32, 0, bytes("second region"));
+			assertArrayEquals(bytes("first region"), toArray(store.read(0, 0)));
+
+			// Opening a third region closes the second, which was used least recently
+			store.write(64, 0, bytes("third region"));
+			assertEquals(2, store.getOpenFileCount());
+
+			try (RegionDataStore recovered = new RegionDataStore(directory))
+			{
+				assertArrayEquals(bytes("second region"), toArray(recovered.read(32, 0)));
+				assertNull(recovered.read(0, 0));
+				assertNull(recovered.read(64, 0));
+			}
+			assertArrayEquals(bytes("second region"), toArray(store.read(32, 0)));
+			assertEquals(2, store.getOpenFileCount());
+		}
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] toArray(@Nullable ByteBuffer buffer) {
+
+		assertNotNull(buffer);
+		byte[] result = new byte[buffer.remaining()];
+		buffer.get(result);
+		return result;
+	}
+}